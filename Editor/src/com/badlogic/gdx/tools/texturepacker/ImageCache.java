@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.badlogic.gdx.tools.texturepacker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent cache of {@link ImageProcessor} results, keyed by image path, modification time, size and settings affecting
+ * image processing. Images found in cache are not decoded or scanned during preparation, they are only read when page
+ * images are written. Used only when {@link TexturePacker.Settings#limitMemory} is enabled.
+ * @author Kotcrab
+ */
+public class ImageCache {
+	private static final int VERSION = 1;
+
+	private final File file;
+
+	private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+	private final HashMap<String, Entry> usedEntries = new HashMap<String, Entry>();
+
+	public ImageCache (File file) {
+		this.file = file;
+		load();
+	}
+
+	synchronized Entry get (File imageFile, String settingsKey) {
+		String key = imageFile.getAbsolutePath() + "|" + settingsKey;
+		Entry entry = entries.get(key);
+		if (entry == null || entry.lastModified != imageFile.lastModified() || entry.length != imageFile.length()) return null;
+
+		usedEntries.put(key, entry);
+		return entry;
+	}
+
+	synchronized void put (File imageFile, String settingsKey, Entry entry) {
+		String key = imageFile.getAbsolutePath() + "|" + settingsKey;
+		entry.lastModified = imageFile.lastModified();
+		entry.length = imageFile.length();
+		entries.put(key, entry);
+		usedEntries.put(key, entry);
+	}
+
+	/** Saves cache to file, entries that weren't used since last save are removed. */
+	public synchronized void save () {
+		if (usedEntries.size() == 0) return;
+
+		entries.clear();
+		entries.putAll(usedEntries);
+		usedEntries.clear();
+
+		File tmpFile = new File(file.getPath() + ".tmp");
+		DataOutputStream output = null;
+		try {
+			file.getParentFile().mkdirs();
+			output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			output.writeInt(VERSION);
+			output.writeInt(entries.size());
+
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				output.writeUTF(e.getKey());
+				e.getValue().write(output);
+			}
+
+			output.close();
+			output = null;
+
+			if (file.exists() && file.delete() == false) throw new IOException("Unable to delete old cache file: " + file);
+			if (tmpFile.renameTo(file) == false) throw new IOException("Unable to rename cache file: " + tmpFile);
+		} catch (IOException e) {
+			System.err.println("Error writing image cache: " + e.getMessage());
+		} finally {
+			if (output != null) {
+				try {
+					output.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	private void load () {
+		if (file.exists() == false) return;
+
+		DataInputStream input = null;
+		try {
+			input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (input.readInt() != VERSION) return;
+
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = input.readUTF();
+				entries.put(key, Entry.read(input));
+			}
+		} catch (IOException e) {
+			entries.clear();
+			System.err.println("Error reading image cache, cache will be rebuilt: " + e.getMessage());
+		} finally {
+			if (input != null) {
+				try {
+					input.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	static class Entry {
+		long lastModified;
+		long length;
+
+		/** True if image was blank and ignored */
+		boolean blank;
+		boolean isPatch;
+		int offsetX, offsetY, regionWidth, regionHeight, originalWidth, originalHeight;
+		int[] splits, pads;
+		String hash;
+
+		void write (DataOutputStream output) throws IOException {
+			output.writeLong(lastModified);
+			output.writeLong(length);
+			output.writeBoolean(blank);
+			if (blank) return;
+
+			output.writeBoolean(isPatch);
+			output.writeInt(offsetX);
+			output.writeInt(offsetY);
+			output.writeInt(regionWidth);
+			output.writeInt(regionHeight);
+			output.writeInt(originalWidth);
+			output.writeInt(originalHeight);
+			writeInts(output, splits);
+			writeInts(output, pads);
+			output.writeBoolean(hash != null);
+			if (hash != null) output.writeUTF(hash);
+		}
+
+		static Entry read (DataInputStream input) throws IOException {
+			Entry entry = new Entry();
+			entry.lastModified = input.readLong();
+			entry.length = input.readLong();
+			entry.blank = input.readBoolean();
+			if (entry.blank) return entry;
+
+			entry.isPatch = input.readBoolean();
+			entry.offsetX = input.readInt();
+			entry.offsetY = input.readInt();
+			entry.regionWidth = input.readInt();
+			entry.regionHeight = input.readInt();
+			entry.originalWidth = input.readInt();
+			entry.originalHeight = input.readInt();
+			entry.splits = readInts(input);
+			entry.pads = readInts(input);
+			if (input.readBoolean()) entry.hash = input.readUTF();
+			return entry;
+		}
+
+		private static void writeInts (DataOutputStream output, int[] values) throws IOException {
+			if (values == null) {
+				output.writeInt(-1);
+				return;
+			}
+
+			output.writeInt(values.length);
+			for (int value : values)
+				output.writeInt(value);
+		}
+
+		private static int[] readInts (DataInputStream input) throws IOException {
+			int length = input.readInt();
+			if (length == -1) return null;
+
+			int[] values = new int[length];
+			for (int i = 0; i < length; i++)
+				values[i] = input.readInt();
+			return values;
+		}
+	}
+}
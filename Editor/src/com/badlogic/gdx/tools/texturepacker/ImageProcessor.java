@@ -63,29 +63,7 @@ public class ImageProcessor {
 
 	/** The image won't be kept in-memory during packing if {@link Settings#limitMemory} is true. */
 	public void addImage (File file) {
-		BufferedImage image;
-		try {
-			image = ImageIO.read(file);
-		} catch (IOException ex) {
-			throw new RuntimeException("Error reading image: " + file, ex);
-		}
-		if (image == null) throw new RuntimeException("Unable to read image: " + file);
-
-		String name = file.getAbsolutePath().replace('\\', '/');
-
-		// Strip root dir off front of image path.
-		if (rootPath != null) {
-			if (!name.startsWith(rootPath))
-				throw new RuntimeException("Path '" + name + "' does not start with root: " + rootPath);
-			name = name.substring(rootPath.length());
-		}
-
-		// Strip extension.
-		int dotIndex = name.lastIndexOf('.');
-		if (dotIndex != -1) name = name.substring(0, dotIndex);
-
-		Rect rect = addImage(image, name);
-		if (rect != null && settings.limitMemory) rect.unloadImage(file);
+		addImage(prepareImage(file));
 	}
 
 	/**
@@ -93,28 +71,84 @@ public class ImageProcessor {
 	 * @see #addImage(File)
 	 */
 	public Rect addImage (BufferedImage image, String name) {
-		Rect rect = processImage(image, name);
+		return addImage(prepareImage(image, name));
+	}
+
+	/**
+	 * Adds image processed by {@link #prepareImage(File)} or {@link #prepareImage(BufferedImage, String)}. Images must be
+	 * added in the same order as they would be added using addImage methods.
+	 */
+	public Rect addImage (PreparedImage prepared) {
+		Rect rect = prepared.rect;
 
 		if (rect == null) {
-			if (!settings.silent) System.out.println("Ignoring blank input image: " + name);
+			if (!settings.silent) System.out.println("Ignoring blank input image: " + prepared.name);
 			return null;
 		}
 
 		if (settings.alias) {
-			String crc = hash(rect.getImage(this));
-			Rect existing = crcs.get(crc);
+			Rect existing = crcs.get(prepared.hash);
 			if (existing != null) {
 				if (!settings.silent) System.out.println(rect.name + " (alias of " + existing.name + ")");
 				existing.aliases.add(new Alias(rect));
 				return null;
 			}
-			crcs.put(crc, rect);
+			crcs.put(prepared.hash, rect);
 		}
 
 		rects.add(rect);
 		return rect;
 	}
 
+	/**
+	 * Reads, processes and hashes image without adding it to this processor. This method is thread safe and can be called
+	 * concurrently, prepared image must be later added using {@link #addImage(PreparedImage)}.
+	 */
+	public PreparedImage prepareImage (File file) {
+		String name = file.getAbsolutePath().replace('\\', '/');
+
+		// Strip root dir off front of image path.
+		if (rootPath != null) {
+			if (!name.startsWith(rootPath))
+				throw new RuntimeException("Path '" + name + "' does not start with root: " + rootPath);
+			name = name.substring(rootPath.length());
+		}
+
+		// Strip extension.
+		int dotIndex = name.lastIndexOf('.');
+		if (dotIndex != -1) name = name.substring(0, dotIndex);
+
+		ImageCache cache = settings.limitMemory ? settings.imageCache : null;
+		String cacheSettingsKey = null;
+		if (cache != null) {
+			cacheSettingsKey = getCacheSettingsKey();
+			ImageCache.Entry entry = cache.get(file, cacheSettingsKey);
+			if (entry != null) return prepareCachedImage(entry, file, name);
+		}
+
+		BufferedImage image;
+		try {
+			image = ImageIO.read(file);
+		} catch (IOException ex) {
+			throw new RuntimeException("Error reading image: " + file, ex);
+		}
+		if (image == null) throw new RuntimeException("Unable to read image: " + file);
+
+		PreparedImage prepared = prepareImage(image, name);
+		if (cache != null) cache.put(file, cacheSettingsKey, createCacheEntry(prepared));
+		if (prepared.rect != null && settings.limitMemory) prepared.rect.unloadImage(file);
+		return prepared;
+	}
+
+	/** @see #prepareImage(File) */
+	public PreparedImage prepareImage (BufferedImage image, String name) {
+		PreparedImage prepared = new PreparedImage();
+		prepared.name = name;
+		prepared.rect = processImage(image, name);
+		if (prepared.rect != null && settings.alias) prepared.hash = hash(prepared.rect.getImage(this));
+		return prepared;
+	}
+
 	public void setScale (float scale) {
 		this.scale = scale;
 	}
@@ -184,6 +218,11 @@ public class ImageProcessor {
 			if (rect == null) return null;
 		}
 
+		setRectName(rect, name);
+		return rect;
+	}
+
+	private void setRectName (Rect rect, String name) {
 		// Strip digits off end of name and use as index.
 		int index = -1;
 		if (settings.useIndexes) {
@@ -196,7 +235,55 @@ public class ImageProcessor {
 
 		rect.name = name;
 		rect.index = index;
-		return rect;
+	}
+
+	/** @return key of settings that affects image processing results */
+	private String getCacheSettingsKey () {
+		return scale + "," + settings.stripWhitespaceX + "," + settings.stripWhitespaceY + "," + settings.alphaThreshold + ","
+				+ settings.ignoreBlankImages + "," + settings.alias;
+	}
+
+	private ImageCache.Entry createCacheEntry (PreparedImage prepared) {
+		ImageCache.Entry entry = new ImageCache.Entry();
+		Rect rect = prepared.rect;
+
+		if (rect == null) {
+			entry.blank = true;
+			return entry;
+		}
+
+		entry.isPatch = prepared.name.endsWith(".9");
+		entry.offsetX = rect.offsetX;
+		entry.offsetY = rect.offsetY;
+		entry.regionWidth = rect.regionWidth;
+		entry.regionHeight = rect.regionHeight;
+		entry.originalWidth = rect.originalWidth;
+		entry.originalHeight = rect.originalHeight;
+		entry.splits = rect.splits;
+		entry.pads = rect.pads;
+		entry.hash = prepared.hash;
+		return entry;
+	}
+
+	private PreparedImage prepareCachedImage (ImageCache.Entry entry, File file, String name) {
+		PreparedImage prepared = new PreparedImage();
+		prepared.name = name;
+		if (entry.blank) return prepared;
+
+		if (entry.isPatch) name = name.substring(0, name.length() - 2);
+
+		Rect rect = new Rect(file, entry.offsetX, entry.offsetY, entry.regionWidth, entry.regionHeight, entry.originalWidth,
+				entry.originalHeight, entry.isPatch);
+		if (entry.isPatch) {
+			rect.splits = entry.splits;
+			rect.pads = entry.pads;
+			rect.canRotate = false;
+		}
+		setRectName(rect, name);
+
+		prepared.rect = rect;
+		prepared.hash = entry.hash;
+		return prepared;
 	}
 
 	/** Strips whitespace and returns the rect, or null if the image should be ignored. */
@@ -453,4 +540,11 @@ public class ImageProcessor {
 		digest.update((byte) (value >> 8));
 		digest.update((byte) value);
 	}
+
+	/** Image processed by {@link #prepareImage(File)}, not yet added to processor. */
+	static public class PreparedImage {
+		String name;
+		Rect rect;
+		String hash;
+	}
 }
@@ -23,6 +23,7 @@ import com.badlogic.gdx.graphics.Texture.TextureWrap;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tools.texturepacker.ImageProcessor.PreparedImage;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 
@@ -37,16 +38,17 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /** @author Nathan Sweet */
 public class TexturePacker {
 	private final Settings settings;
-	private final Packer packer;
-	private final ImageProcessor imageProcessor;
 	private final Array<InputImage> inputImages = new Array();
 	private File rootDir;
 
@@ -61,12 +63,6 @@ public class TexturePacker {
 			if (settings.maxHeight != MathUtils.nextPowerOfTwo(settings.maxHeight))
 				throw new RuntimeException("If pot is true, maxHeight must be a power of two: " + settings.maxHeight);
 		}
-
-		if (settings.grid)
-			packer = new GridPacker(settings);
-		else
-			packer = new MaxRectsPacker(settings);
-		imageProcessor = new ImageProcessor(rootDir, settings);
 	}
 
 	public TexturePacker (Settings settings) {
@@ -91,35 +87,98 @@ public class TexturePacker {
 			packFileName = packFileName.substring(0, packFileName.length() - settings.atlasExtension.length());
 		outputDir.mkdirs();
 
-		for (int i = 0, n = settings.scale.length; i < n; i++) {
-			imageProcessor.setScale(settings.scale[i]);
-			for (InputImage inputImage : inputImages) {
+		final File finalOutputDir = outputDir;
+		final String finalPackFileName = packFileName;
+		Runnable packTask = new Runnable() {
+			public void run () {
+				forEachIndex(settings.scale.length, new IndexTask() {
+					public void run (int index) {
+						packScale(finalOutputDir, finalPackFileName, index);
+					}
+				});
+			}
+		};
+
+		// Reuse current pool if packer was called from one.
+		if (settings.threads <= 1 || ForkJoinTask.inForkJoinPool()) {
+			packTask.run();
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(settings.threads);
+		try {
+			pool.invoke(ForkJoinTask.adapt(packTask));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/** Scales are packed independently, each one uses its own image processor and packer. */
+	private void packScale (File outputDir, String packFileName, int scaleIndex) {
+		final ImageProcessor imageProcessor = new ImageProcessor(rootDir, settings);
+		imageProcessor.setScale(settings.scale[scaleIndex]);
+
+		// Images are decoded and hashed concurrently but added in input order, so output is the same as serial packing.
+		final PreparedImage[] preparedImages = new PreparedImage[inputImages.size];
+		forEachIndex(inputImages.size, new IndexTask() {
+			public void run (int index) {
+				InputImage inputImage = inputImages.get(index);
 				if (inputImage.file != null)
-					imageProcessor.addImage(inputImage.file);
+					preparedImages[index] = imageProcessor.prepareImage(inputImage.file);
 				else
-					imageProcessor.addImage(inputImage.image, inputImage.name);
+					preparedImages[index] = imageProcessor.prepareImage(inputImage.image, inputImage.name);
 			}
+		});
 
-			Array<Page> pages = packer.pack(imageProcessor.getImages());
+		for (PreparedImage preparedImage : preparedImages)
+			imageProcessor.addImage(preparedImage);
 
-			String scaledPackFileName = settings.getScaledPackFileName(packFileName, i);
-			writeImages(outputDir, scaledPackFileName, pages);
-			try {
-				writePackFile(outputDir, scaledPackFileName, pages);
-			} catch (IOException ex) {
-				throw new RuntimeException("Error writing pack file.", ex);
+		Packer packer;
+		if (settings.grid)
+			packer = new GridPacker(settings);
+		else
+			packer = new MaxRectsPacker(settings);
+
+		Array<Page> pages = packer.pack(imageProcessor.getImages());
+
+		String scaledPackFileName = settings.getScaledPackFileName(packFileName, scaleIndex);
+		writeImages(outputDir, scaledPackFileName, pages, imageProcessor);
+		try {
+			writePackFile(outputDir, scaledPackFileName, pages);
+		} catch (IOException ex) {
+			throw new RuntimeException("Error writing pack file.", ex);
+		}
+	}
+
+	/** Runs task for every index, concurrently if {@link Settings#threads} is bigger than 1 and called from ForkJoinPool. */
+	private void forEachIndex (int count, final IndexTask task) {
+		if (settings.threads > 1 && count > 1 && ForkJoinTask.inForkJoinPool()) {
+			ArrayList<ForkJoinTask<?>> tasks = new ArrayList(count);
+			for (int i = 0; i < count; i++) {
+				final int index = i;
+				tasks.add(ForkJoinTask.adapt(new Runnable() {
+					public void run () {
+						task.run(index);
+					}
+				}));
 			}
-			imageProcessor.clear();
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			for (int i = 0; i < count; i++)
+				task.run(i);
 		}
 	}
 
-	private void writeImages (File outputDir, String scaledPackFileName, Array<Page> pages) {
+	private void writeImages (File outputDir, String scaledPackFileName, final Array<Page> pages, final ImageProcessor imageProcessor) {
 		File packFileNoExt = new File(outputDir, scaledPackFileName);
 		File packDir = packFileNoExt.getParentFile();
 		String imageName = packFileNoExt.getName();
 
+		// Page sizes and file names are assigned serially, then pages are written concurrently.
+		final File[] outputFiles = new File[pages.size];
 		int fileIndex = 0;
-		for (Page page : pages) {
+		for (int pageIndex = 0; pageIndex < pages.size; pageIndex++) {
+			Page page = pages.get(pageIndex);
 			int width = page.width, height = page.height;
 			int paddingX = settings.paddingX;
 			int paddingY = settings.paddingY;
@@ -151,109 +210,119 @@ public class TexturePacker {
 			}
 			new FileHandle(outputFile).parent().mkdirs();
 			page.imageName = outputFile.getName();
+			outputFiles[pageIndex] = outputFile;
+		}
+
+		forEachIndex(pages.size, new IndexTask() {
+			public void run (int index) {
+				writePage(pages.get(index), outputFiles[index], imageProcessor);
+			}
+		});
+	}
 
-			BufferedImage canvas = new BufferedImage(width, height, getBufferedImageType(settings.format));
-			Graphics2D g = (Graphics2D) canvas.getGraphics();
+	private void writePage (Page page, File outputFile, ImageProcessor imageProcessor) {
+		int width = page.imageWidth, height = page.imageHeight;
+		BufferedImage canvas = new BufferedImage(width, height, getBufferedImageType(settings.format));
+		Graphics2D g = (Graphics2D) canvas.getGraphics();
 
-			if (!settings.silent)
-				System.out.println("Writing " + canvas.getWidth() + "x" + canvas.getHeight() + ": " + outputFile);
+		if (!settings.silent)
+			System.out.println("Writing " + canvas.getWidth() + "x" + canvas.getHeight() + ": " + outputFile);
 
-			for (Rect rect : page.outputRects) {
-				BufferedImage image = rect.getImage(imageProcessor);
-				int iw = image.getWidth();
-				int ih = image.getHeight();
-				int rectX = page.x + rect.x, rectY = page.y + page.height - rect.y - rect.height;
-				if (settings.duplicatePadding) {
-					int amountX = settings.paddingX / 2;
-					int amountY = settings.paddingY / 2;
-					if (rect.rotated) {
-						// Copy corner pixels to fill corners of the padding.
-						for (int i = 1; i <= amountX; i++) {
-							for (int j = 1; j <= amountY; j++) {
-								plot(canvas, rectX - j, rectY + iw - 1 + i, image.getRGB(0, 0));
-								plot(canvas, rectX + ih - 1 + j, rectY + iw - 1 + i, image.getRGB(0, ih - 1));
-								plot(canvas, rectX - j, rectY - i, image.getRGB(iw - 1, 0));
-								plot(canvas, rectX + ih - 1 + j, rectY - i, image.getRGB(iw - 1, ih - 1));
-							}
-						}
-						// Copy edge pixels into padding.
-						for (int i = 1; i <= amountY; i++) {
-							for (int j = 0; j < iw; j++) {
-								plot(canvas, rectX - i, rectY + iw - 1 - j, image.getRGB(j, 0));
-								plot(canvas, rectX + ih - 1 + i, rectY + iw - 1 - j, image.getRGB(j, ih - 1));
-							}
-						}
-						for (int i = 1; i <= amountX; i++) {
-							for (int j = 0; j < ih; j++) {
-								plot(canvas, rectX + j, rectY - i, image.getRGB(iw - 1, j));
-								plot(canvas, rectX + j, rectY + iw - 1 + i, image.getRGB(0, j));
-							}
+		for (Rect rect : page.outputRects) {
+			BufferedImage image = rect.getImage(imageProcessor);
+			int iw = image.getWidth();
+			int ih = image.getHeight();
+			int rectX = page.x + rect.x, rectY = page.y + page.height - rect.y - rect.height;
+			if (settings.duplicatePadding) {
+				int amountX = settings.paddingX / 2;
+				int amountY = settings.paddingY / 2;
+				if (rect.rotated) {
+					// Copy corner pixels to fill corners of the padding.
+					for (int i = 1; i <= amountX; i++) {
+						for (int j = 1; j <= amountY; j++) {
+							plot(canvas, rectX - j, rectY + iw - 1 + i, image.getRGB(0, 0));
+							plot(canvas, rectX + ih - 1 + j, rectY + iw - 1 + i, image.getRGB(0, ih - 1));
+							plot(canvas, rectX - j, rectY - i, image.getRGB(iw - 1, 0));
+							plot(canvas, rectX + ih - 1 + j, rectY - i, image.getRGB(iw - 1, ih - 1));
 						}
-					} else {
-						// Copy corner pixels to fill corners of the padding.
-						for (int i = 1; i <= amountX; i++) {
-							for (int j = 1; j <= amountY; j++) {
-								plot(canvas, rectX - i, rectY - j, image.getRGB(0, 0));
-								plot(canvas, rectX - i, rectY + ih - 1 + j, image.getRGB(0, ih - 1));
-								plot(canvas, rectX + iw - 1 + i, rectY - j, image.getRGB(iw - 1, 0));
-								plot(canvas, rectX + iw - 1 + i, rectY + ih - 1 + j, image.getRGB(iw - 1, ih - 1));
-							}
+					}
+					// Copy edge pixels into padding.
+					for (int i = 1; i <= amountY; i++) {
+						for (int j = 0; j < iw; j++) {
+							plot(canvas, rectX - i, rectY + iw - 1 - j, image.getRGB(j, 0));
+							plot(canvas, rectX + ih - 1 + i, rectY + iw - 1 - j, image.getRGB(j, ih - 1));
 						}
-						// Copy edge pixels into padding.
-						for (int i = 1; i <= amountY; i++) {
-							copy(image, 0, 0, iw, 1, canvas, rectX, rectY - i, rect.rotated);
-							copy(image, 0, ih - 1, iw, 1, canvas, rectX, rectY + ih - 1 + i, rect.rotated);
+					}
+					for (int i = 1; i <= amountX; i++) {
+						for (int j = 0; j < ih; j++) {
+							plot(canvas, rectX + j, rectY - i, image.getRGB(iw - 1, j));
+							plot(canvas, rectX + j, rectY + iw - 1 + i, image.getRGB(0, j));
 						}
-						for (int i = 1; i <= amountX; i++) {
-							copy(image, 0, 0, 1, ih, canvas, rectX - i, rectY, rect.rotated);
-							copy(image, iw - 1, 0, 1, ih, canvas, rectX + iw - 1 + i, rectY, rect.rotated);
+					}
+				} else {
+					// Copy corner pixels to fill corners of the padding.
+					for (int i = 1; i <= amountX; i++) {
+						for (int j = 1; j <= amountY; j++) {
+							plot(canvas, rectX - i, rectY - j, image.getRGB(0, 0));
+							plot(canvas, rectX - i, rectY + ih - 1 + j, image.getRGB(0, ih - 1));
+							plot(canvas, rectX + iw - 1 + i, rectY - j, image.getRGB(iw - 1, 0));
+							plot(canvas, rectX + iw - 1 + i, rectY + ih - 1 + j, image.getRGB(iw - 1, ih - 1));
 						}
 					}
+					// Copy edge pixels into padding.
+					for (int i = 1; i <= amountY; i++) {
+						copy(image, 0, 0, iw, 1, canvas, rectX, rectY - i, rect.rotated);
+						copy(image, 0, ih - 1, iw, 1, canvas, rectX, rectY + ih - 1 + i, rect.rotated);
+					}
+					for (int i = 1; i <= amountX; i++) {
+						copy(image, 0, 0, 1, ih, canvas, rectX - i, rectY, rect.rotated);
+						copy(image, iw - 1, 0, 1, ih, canvas, rectX + iw - 1 + i, rectY, rect.rotated);
+					}
 				}
-				copy(image, 0, 0, iw, ih, canvas, rectX, rectY, rect.rotated);
-				if (settings.debug) {
-					g.setColor(Color.magenta);
-					g.drawRect(rectX, rectY, rect.width - settings.paddingX - 1, rect.height - settings.paddingY - 1);
-				}
-			}
-
-			if (settings.bleed && !settings.premultiplyAlpha && !(settings.outputFormat.equalsIgnoreCase("jpg") || settings.outputFormat.equalsIgnoreCase("jpeg"))) {
-				canvas = new ColorBleedEffect().processImage(canvas, 2);
-				g = (Graphics2D) canvas.getGraphics();
 			}
-
+			copy(image, 0, 0, iw, ih, canvas, rectX, rectY, rect.rotated);
 			if (settings.debug) {
 				g.setColor(Color.magenta);
-				g.drawRect(0, 0, width - 1, height - 1);
+				g.drawRect(rectX, rectY, rect.width - settings.paddingX - 1, rect.height - settings.paddingY - 1);
 			}
+		}
 
-			ImageOutputStream ios = null;
-			try {
-				if (settings.outputFormat.equalsIgnoreCase("jpg") || settings.outputFormat.equalsIgnoreCase("jpeg")) {
-					BufferedImage newImage = new BufferedImage(canvas.getWidth(), canvas.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-					newImage.getGraphics().drawImage(canvas, 0, 0, null);
-					canvas = newImage;
-
-					Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
-					ImageWriter writer = writers.next();
-					ImageWriteParam param = writer.getDefaultWriteParam();
-					param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-					param.setCompressionQuality(settings.jpegQuality);
-					ios = ImageIO.createImageOutputStream(outputFile);
-					writer.setOutput(ios);
-					writer.write(null, new IIOImage(canvas, null, null), param);
-				} else {
-					if (settings.premultiplyAlpha) canvas.getColorModel().coerceData(canvas.getRaster(), true);
-					ImageIO.write(canvas, "png", outputFile);
-				}
-			} catch (IOException ex) {
-				throw new RuntimeException("Error writing file: " + outputFile, ex);
-			} finally {
-				if (ios != null) {
-					try {
-						ios.close();
-					} catch (Exception ignored) {
-					}
+		if (settings.bleed && !settings.premultiplyAlpha && !(settings.outputFormat.equalsIgnoreCase("jpg") || settings.outputFormat.equalsIgnoreCase("jpeg"))) {
+			canvas = new ColorBleedEffect().processImage(canvas, 2);
+			g = (Graphics2D) canvas.getGraphics();
+		}
+
+		if (settings.debug) {
+			g.setColor(Color.magenta);
+			g.drawRect(0, 0, width - 1, height - 1);
+		}
+
+		ImageOutputStream ios = null;
+		try {
+			if (settings.outputFormat.equalsIgnoreCase("jpg") || settings.outputFormat.equalsIgnoreCase("jpeg")) {
+				BufferedImage newImage = new BufferedImage(canvas.getWidth(), canvas.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+				newImage.getGraphics().drawImage(canvas, 0, 0, null);
+				canvas = newImage;
+
+				Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+				ImageWriter writer = writers.next();
+				ImageWriteParam param = writer.getDefaultWriteParam();
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(settings.jpegQuality);
+				ios = ImageIO.createImageOutputStream(outputFile);
+				writer.setOutput(ios);
+				writer.write(null, new IIOImage(canvas, null, null), param);
+			} else {
+				if (settings.premultiplyAlpha) canvas.getColorModel().coerceData(canvas.getRaster(), true);
+				ImageIO.write(canvas, "png", outputFile);
+			}
+		} catch (IOException ex) {
+			throw new RuntimeException("Error writing file: " + outputFile, ex);
+		} finally {
+			if (ios != null) {
+				try {
+					ios.close();
+				} catch (Exception ignored) {
 				}
 			}
 		}
@@ -439,6 +508,21 @@ public class TexturePacker {
 			this.isPatch = isPatch;
 		}
 
+		/** Creates rect which image will be loaded from the specified file by {@link #getImage(ImageProcessor)}. */
+		Rect (File file, int offsetX, int offsetY, int regionWidth, int regionHeight, int originalWidth, int originalHeight,
+				boolean isPatch) {
+			this.file = file;
+			this.offsetX = offsetX;
+			this.offsetY = offsetY;
+			this.regionWidth = regionWidth;
+			this.regionHeight = regionHeight;
+			this.originalWidth = originalWidth;
+			this.originalHeight = originalHeight;
+			width = regionWidth;
+			height = regionHeight;
+			this.isPatch = isPatch;
+		}
+
 		/** Clears the image for this rect, which will be loaded from the specified file by {@link #getImage(ImageProcessor)}. */
 		public void unloadImage (File file) {
 			this.file = file;
@@ -550,6 +634,10 @@ public class TexturePacker {
 		public boolean bleed = true;
 		public boolean limitMemory = true;
 		public boolean grid;
+		/** Max number of threads used for packing, 1 disables parallel packing. Output does not depend on this value. */
+		public int threads = Runtime.getRuntime().availableProcessors();
+		/** Optional persistent cache of processed images, used only if {@link #limitMemory} is true. */
+		public transient ImageCache imageCache;
 		public float[] scale = {1};
 		public String[] scaleSuffix = {""};
 		public String atlasExtension = ".atlas";
@@ -591,6 +679,8 @@ public class TexturePacker {
 			bleed = settings.bleed;
 			limitMemory = settings.limitMemory;
 			grid = settings.grid;
+			threads = settings.threads;
+			imageCache = settings.imageCache;
 			scale = settings.scale;
 			scaleSuffix = settings.scaleSuffix;
 			atlasExtension = settings.atlasExtension;
@@ -688,6 +778,10 @@ public class TexturePacker {
 		public Array<Page> pack (Array<Rect> inputRects);
 	}
 
+	interface IndexTask {
+		void run (int index);
+	}
+
 	static final class InputImage {
 		File file;
 		String name;
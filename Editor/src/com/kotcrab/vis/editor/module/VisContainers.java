@@ -86,6 +86,7 @@ public class VisContainers {
 		projectMC.add(new ExportSettingsModule());
 
 		projectMC.add(new SceneTabsModule());
+		projectMC.add(new SceneAutosaveModule());
 		projectMC.add(new AssetsUIModule());
 		projectMC.addAll(extensionStorage.getContainersExtensions(ProjectModule.class, ExtensionScope.PROJECT));
 	}
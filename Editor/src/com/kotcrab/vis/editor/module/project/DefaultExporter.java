@@ -18,11 +18,17 @@ package com.kotcrab.vis.editor.module.project;
 
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.tools.texturepacker.ImageCache;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker.Settings;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.SerializationException;
+import com.esotericsoftware.kryo.KryoException;
+import com.kotcrab.vis.editor.App;
 import com.kotcrab.vis.editor.Log;
 import com.kotcrab.vis.editor.module.editor.EditorSettingsIOModule;
 import com.kotcrab.vis.editor.module.editor.StatusBarModule;
@@ -33,17 +39,26 @@ import com.kotcrab.vis.editor.scene.Layer;
 import com.kotcrab.vis.editor.ui.dialog.AsyncTaskProgressDialog;
 import com.kotcrab.vis.editor.ui.dialog.DefaultExporterSettingsDialog;
 import com.kotcrab.vis.editor.ui.dialog.UnsavedResourcesDialog;
+import com.kotcrab.vis.editor.util.Holder;
 import com.kotcrab.vis.editor.util.SteppedAsyncTask;
 import com.kotcrab.vis.runtime.data.LayerData;
 import com.kotcrab.vis.runtime.data.SceneData;
+import com.kotcrab.vis.runtime.scene.BinarySceneWriter;
 import com.kotcrab.vis.runtime.scene.SceneLoader;
 import org.apache.commons.io.FileUtils;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.kotcrab.vis.editor.util.FileUtils.replaceAtomically;
+import static com.kotcrab.vis.editor.util.FileUtils.tempSibling;
 
 /**
- * Default VisEditor exporter, exports scenes to JSON format.
+ * Default VisEditor exporter, exports scenes to JSON or binary format.
  * @author Kotcrab
  */
 public class DefaultExporter implements ExporterPlugin {
@@ -55,6 +70,7 @@ public class DefaultExporter implements ExporterPlugin {
 	private TabsModule tabsModule;
 
 	private FileAccessModule fileAccess;
+	private SceneIOModule sceneIO;
 	private SceneCacheModule sceneCache;
 
 	private Stage stage;
@@ -65,9 +81,9 @@ public class DefaultExporter implements ExporterPlugin {
 	private FileHandle visAssetsDir;
 
 	private Settings texturePackerSettings;
-	private boolean firstExportDone;
 
-	private Json json;
+	private Json manifestJson;
+	private FileHandle manifestFile;
 
 	@Override
 	public void init (Project project) {
@@ -82,8 +98,10 @@ public class DefaultExporter implements ExporterPlugin {
 		texturePackerSettings.combineSubdirectories = true;
 		texturePackerSettings.silent = true;
 		texturePackerSettings.useIndexes = false;
+		texturePackerSettings.imageCache = new ImageCache(fileAccess.getModuleFolder(".textureCache").child("exportImages.cache").file());
 
-		json = SceneLoader.getJson();
+		manifestJson = new Json();
+		manifestFile = fileAccess.getModuleFolder(".exportCache").child("exportManifest.json");
 	}
 
 	@Override
@@ -98,7 +116,7 @@ public class DefaultExporter implements ExporterPlugin {
 
 	@Override
 	public boolean isQuickExportSupported () {
-		return false;
+		return true;
 	}
 
 	@Override
@@ -119,60 +137,171 @@ public class DefaultExporter implements ExporterPlugin {
 		stage.addActor(new DefaultExporterSettingsDialog(settingsIO, settings).fadeIn());
 	}
 
-	private void beforeExport (boolean quick) {
+	private Json createSceneJson () {
+		Json json = SceneLoader.getJson();
 		json.setUsePrototypes(settings.skipDefaultValues);
 		if(settings.useMinimalOutputType)
 			json.setOutputType(OutputType.minimal);
 		else
 			json.setOutputType(OutputType.json);
-
-
-		if (firstExportDone == false && quick)
-			Log.info("Requested quick export but normal export hasn't been done since editor launch, performing normal export.");
-
-		if (firstExportDone == false || quick == false)
-			doExport();
-		else
-			doExport(); //TODO do quick export
-
-		firstExportDone = true;
+		return json;
 	}
 
-	private void doExport () {
+	private void beforeExport (boolean quick) {
 		if (project instanceof ProjectLibGDX || project instanceof ProjectGeneric) {
-			exportProject();
+			exportProject(quick);
 			return;
 		}
 
 		throw new UnsupportedOperationException("Not supported project type: " + project.getClass());
 	}
 
-	private void exportProject () {
-		ExportAsyncTask exportTask = new ExportAsyncTask();
+	private void exportProject (boolean quick) {
+		ExportAsyncTask exportTask = new ExportAsyncTask(quick);
 		stage.addActor(new AsyncTaskProgressDialog("Exporting", exportTask).fadeIn());
 	}
 
+	/** @return string describing all settings that affect exported files, if it changes quick export can't reuse old output */
+	private String getSettingsSignature () {
+		return App.VERSION_CODE + ":" + settings.skipDefaultValues + ":" + settings.useMinimalOutputType + ":" + settings.useBinarySceneFormat;
+	}
+
+	private ExportManifest loadManifest () {
+		if (manifestFile.exists() == false) return null;
+
+		try {
+			ExportManifest manifest = manifestJson.fromJson(ExportManifest.class, manifestFile);
+			if (manifest == null || manifest.settings == null || manifest.inputs == null) return null;
+			return manifest;
+		} catch (SerializationException e) {
+			Log.exception(e);
+			return null;
+		}
+	}
+
+	private static String getFingerprint (FileHandle file) {
+		return file.lastModified() + ":" + file.length();
+	}
+
 	private class ExportAsyncTask extends SteppedAsyncTask {
+		private final boolean quick;
+
 		FileHandle outAssetsDir;
+		/** Fingerprints of inputs that will be stored in manifest, inputs that failed to export must be removed from it */
+		ObjectMap<String, String> inputs;
 
-		EditorScene scene;
+		//Json and BinarySceneWriter are not thread safe, each scene export thread needs own instances
+		private final ThreadLocal<Json> sceneJson = ThreadLocal.withInitial(DefaultExporter.this::createSceneJson);
+		private final ThreadLocal<BinarySceneWriter> binaryWriter = ThreadLocal.withInitial(() -> new BinarySceneWriter(sceneJson.get()));
 
-		public ExportAsyncTask () {
+		public ExportAsyncTask (boolean quick) {
 			super("ProjectExporter");
+			this.quick = quick;
 		}
 
 		@Override
-		public void execute () {
+		public void execute () throws Exception {
 			setMessage("Preparing for export...");
+			outAssetsDir = project.getAssetOutputDirectory();
+
+			inputs = new ObjectMap<>();
+			for (FileHandle dir : visAssetsDir.list()) {
+				if (dir.isDirectory()) collectInputs(dir, dir.name(), inputs);
+			}
+
+			String settingsSignature = getSettingsSignature();
+			ExportManifest oldManifest = quick ? loadManifest() : null;
+
+			//until this export finishes old manifest no longer describes content of output directory
+			manifestFile.delete();
+
+			ExportDiff diff = ExportDiff.compute(oldManifest, settingsSignature, inputs);
+
+			if (diff.fullExportRequired == false && outAssetsDir.exists())
+				exportIncremental(diff);
+			else {
+				if (quick)
+					Log.info("Requested quick export but there is no valid manifest of previous export, performing normal export.");
+				exportFull();
+			}
+
+			ExportManifest manifest = new ExportManifest();
+			manifest.settings = settingsSignature;
+			manifest.inputs = inputs;
+			manifestJson.toJson(manifest, manifestFile);
+
+			nextStep();
+			statusBar.setText("Export finished");
+		}
+
+		private void collectInputs (FileHandle dir, String relativePath, ObjectMap<String, String> inputs) {
+			for (FileHandle file : dir.list()) {
+				if (file.name().equals(".vis")) continue;
+
+				String path = relativePath + "/" + file.name();
+
+				if (file.isDirectory())
+					collectInputs(file, path, inputs);
+				else
+					inputs.put(path, getFingerprint(file));
+			}
+		}
+
+		private void exportFull () throws Exception {
 			setTotalSteps(calculateSteps());
 
 			cleanOldAssets();
 			packageTextures();
 			copyAssets();
-			exportScenes(this, visAssetsDir.child("scene"), outAssetsDir.child("scene"));
 
+			Array<FileHandle> sceneFiles = new Array<>();
+			collectScenes(visAssetsDir.child("scene"), sceneFiles);
+			exportScenes(sceneFiles);
+		}
+
+		private void exportIncremental (ExportDiff diff) throws Exception {
+			int steps = 1; //remove stale outputs
+			if (diff.texturesChanged) steps++;
+			steps += diff.changedAssets.size;
+			steps += diff.changedScenes.size;
+			setTotalSteps(steps + 1);
+
+			setMessage("Removing stale assets");
+			for (String path : diff.removedOutputs) {
+				deleteOutput(outAssetsDir.child(path));
+			}
 			nextStep();
-			statusBar.setText("Export finished");
+
+			if (diff.texturesChanged) packageTextures();
+
+			for (String path : diff.changedAssets) {
+				setMessage("Copying asset: " + path);
+
+				try {
+					FileUtils.copyFile(visAssetsDir.child(path).file(), outAssetsDir.child(path).file());
+				} catch (IOException e) {
+					//not recorded in manifest so next quick export will try to copy it again
+					inputs.remove(path);
+					Log.exception(e);
+				}
+				nextStep();
+			}
+
+			Array<FileHandle> sceneFiles = new Array<>(diff.changedScenes.size);
+			for (String path : diff.changedScenes)
+				sceneFiles.add(visAssetsDir.child(path));
+			exportScenes(sceneFiles);
+		}
+
+		/** Deletes output file and all parent directories that became empty */
+		private void deleteOutput (FileHandle file) {
+			file.delete();
+
+			FileHandle dir = file.parent();
+			while (dir.equals(outAssetsDir) == false && dir.exists() && dir.list().length == 0) {
+				dir.delete();
+				dir = dir.parent();
+			}
 		}
 
 		private int calculateSteps () {
@@ -195,7 +324,6 @@ public class DefaultExporter implements ExporterPlugin {
 
 		private void cleanOldAssets () {
 			setMessage("Cleaning old assets");
-			outAssetsDir = project.getAssetOutputDirectory();
 
 			outAssetsDir.deleteDirectory();
 			outAssetsDir.mkdirs();
@@ -207,7 +335,12 @@ public class DefaultExporter implements ExporterPlugin {
 
 		private void packageTextures () {
 			setMessage("Packaging textures");
-			TexturePacker.process(texturePackerSettings, visAssetsDir.child("gfx").path(), outAssetsDir.child("gfx").path(), "textures");
+			//atlas may now have less pages than before, old ones must not stay in output
+			FileHandle outGfxDir = outAssetsDir.child("gfx");
+			outGfxDir.emptyDirectory();
+			outGfxDir.mkdirs();
+			TexturePacker.process(texturePackerSettings, visAssetsDir.child("gfx").path(), outGfxDir.path(), "textures");
+			texturePackerSettings.imageCache.save();
 			nextStep();
 		}
 
@@ -222,47 +355,126 @@ public class DefaultExporter implements ExporterPlugin {
 				try {
 					FileUtils.copyDirectory(file.file(), outAssetsDir.child(file.name()).file(), f -> f.getName().equals(".vis") == false);
 				} catch (IOException e) {
+					//directory may be copied only partially, none of its files can be recorded in manifest
+					ExportDiff.removeInputs(inputs, file.name() + "/");
 					Log.exception(e);
 				}
 				nextStep();
 			}
 		}
 
-		private void exportScenes (ExportAsyncTask task, FileHandle sceneDir, FileHandle outDir) {
-			outDir.mkdirs();
+		private void collectScenes (FileHandle sceneDir, Array<FileHandle> sceneFiles) {
+			for (FileHandle file : sceneDir.list()) {
+				if (file.isDirectory())
+					collectScenes(file, sceneFiles);
+				else if (file.extension().equals("scene"))
+					sceneFiles.add(file);
+				else
+					Log.warn("Unknown file in 'scene' directory: " + file.path());
+			}
+		}
+
+		/** Exports scenes in parallel, scenes are loaded using {@link SceneIOModule#loadHeadless(FileHandle)} so OpenGL thread is not needed */
+		private void exportScenes (Array<FileHandle> sceneFiles) throws Exception {
+			if (sceneFiles.size == 0) return;
+
+			int threads = Math.min(sceneFiles.size, Runtime.getRuntime().availableProcessors());
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
 
-			scene = null;
+			try {
+				Array<Future<?>> results = new Array<>(sceneFiles.size);
+				for (FileHandle file : sceneFiles) {
+					results.add(executor.submit(() -> {
+						exportScene(file);
+						return null;
+					}));
+				}
 
-			for (final FileHandle file : sceneDir.list()) {
-				if (file.isDirectory()) exportScenes(task, file, outDir.child(file.name()));
+				for (Future<?> result : results) {
+					try {
+						result.get();
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+						throw e;
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
 
-				if (file.extension().equals("scene")) {
-					task.setMessage("Exporting scene: " + file.name());
+		private void exportScene (FileHandle file) throws IOException {
+			setMessage("Exporting scene: " + file.name());
 
-					executeOnOpenGL(() -> scene = sceneCache.get(file));
+			EditorScene scene = loadScene(file);
+			SceneData sceneData = new SceneData();
 
-					SceneData sceneData = new SceneData();
+			sceneData.viewport = scene.viewport;
+			sceneData.width = scene.width;
+			sceneData.height = scene.height;
+			sceneData.pixelsPerUnit = scene.pixelsPerUnit;
+			sceneData.physicsSettings = scene.physicsSettings;
 
-					sceneData.viewport = scene.viewport;
-					sceneData.width = scene.width;
-					sceneData.height = scene.height;
-					sceneData.pixelsPerUnit = scene.pixelsPerUnit;
-					sceneData.physicsSettings = scene.physicsSettings;
+			sceneData.groupIds = new IntMap<>(scene.getGroups());
 
-					sceneData.groupIds = new IntMap<>(scene.getGroups());
+			for (Layer layer : scene.getLayers()) {
+				sceneData.layers.add(new LayerData(layer.cordsSystem, layer.name, layer.id));
+			}
 
-					for (Layer layer : scene.getLayers()) {
-						sceneData.layers.add(new LayerData(layer.cordsSystem, layer.name, layer.id));
-					}
+			scene.getSchemes().forEach(scheme -> sceneData.entities.add(scheme.toData()));
 
-					scene.getSchemes().forEach(scheme -> sceneData.entities.add(scheme.toData()));
+			//write to temporary file first so interrupted export never leaves partially written scene
+			FileHandle outFile = outAssetsDir.child(fileAccess.relativizeToAssetsFolder(file));
+			FileHandle tempFile = tempSibling(outFile);
+			outFile.parent().mkdirs();
 
-					json.toJson(sceneData, outDir.child(file.name()));
-					task.nextStep();
+			if (settings.useBinarySceneFormat)
+				binaryWriter.get().write(sceneData, tempFile);
+			else
+				sceneJson.get().toJson(sceneData, tempFile);
 
-				} else
-					Log.warn("Unknown file in 'scene' directory: " + file.path());
+			replaceAtomically(tempFile, outFile);
+			nextStep();
+		}
+
+		private EditorScene loadScene (FileHandle file) {
+			try {
+				return sceneIO.loadHeadless(file);
+			} catch (KryoException e) {
+				//other errors, such as corrupted scene file, would also happen when loading on OpenGL thread
+				if (isUnregisteredClass(e) == false) throw e;
+
+				//scene uses components that can't be loaded headlessly (eg. provided by plugins), it must be loaded on OpenGL thread
+				Log.debug("Scene " + file.name() + " can't be loaded headlessly, loading from scene cache: " + e.getMessage());
+				Holder<EditorScene> scene = new Holder<>();
+				executeOnOpenGL(() -> scene.value = sceneCache.get(file));
+				if (scene.value == null) throw new IllegalStateException("Scene can't be loaded: " + file.path(), e);
+				return scene.value;
+			}
+		}
+
+		/** @return true if exception was caused by class that is not registered in headless Kryo */
+		private boolean isUnregisteredClass (KryoException e) {
+			for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+				String message = cause.getMessage();
+				if (message != null && message.contains("Encountered unregistered class ID")) return true;
 			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * Describes state of assets during last export, used by quick export to find out what must be exported again.
+	 * Output paths are relative to assets folder and are same as input paths, except for gfx folder that is always packed as one atlas.
+	 */
+	public static class ExportManifest {
+		/** Signature of settings used during export */
+		public String settings;
+		/** Maps asset path (relative to assets folder) to its modification time and size */
+		public ObjectMap<String, String> inputs;
+
+		public ExportManifest () {
 		}
 	}
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.editor.module.project;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectMap.Entry;
+import com.kotcrab.vis.editor.module.project.DefaultExporter.ExportManifest;
+
+/**
+ * Compares assets fingerprints recorded in manifest of previous export with current ones and decides what quick export
+ * must do. All paths are relative to assets folder. This class does not perform any IO.
+ * @author Kotcrab
+ */
+public class ExportDiff {
+	/** True if previous export can't be reused and everything must be exported again */
+	public boolean fullExportRequired;
+	/** True if any texture was changed, added or removed, texture atlas must be packed again */
+	public boolean texturesChanged;
+	/** Assets that must be copied to output */
+	public final Array<String> changedAssets = new Array<>();
+	/** Scenes that must be exported */
+	public final Array<String> changedScenes = new Array<>();
+	/** Outputs of assets that were removed and must be deleted */
+	public final Array<String> removedOutputs = new Array<>();
+
+	/**
+	 * @param oldManifest manifest of previous export, may be null
+	 * @param settingsSignature signature of current export settings
+	 * @param inputs current assets mapped to their fingerprints
+	 */
+	public static ExportDiff compute (ExportManifest oldManifest, String settingsSignature, ObjectMap<String, String> inputs) {
+		ExportDiff diff = new ExportDiff();
+
+		if (oldManifest == null || oldManifest.settings.equals(settingsSignature) == false) {
+			diff.fullExportRequired = true;
+			return diff;
+		}
+
+		ObjectMap<String, String> oldInputs = oldManifest.inputs;
+
+		for (Entry<String, String> entry : inputs) {
+			if (entry.value.equals(oldInputs.get(entry.key))) continue;
+
+			if (entry.key.startsWith("gfx/"))
+				diff.texturesChanged = true;
+			else if (entry.key.startsWith("scene/")) {
+				if (entry.key.endsWith(".scene")) diff.changedScenes.add(entry.key);
+			} else
+				diff.changedAssets.add(entry.key);
+		}
+
+		for (String path : oldInputs.keys()) {
+			if (inputs.containsKey(path)) continue;
+
+			if (path.startsWith("gfx/"))
+				diff.texturesChanged = true;
+			else
+				diff.removedOutputs.add(path);
+		}
+
+		return diff;
+	}
+
+	/**
+	 * Removes all inputs with paths starting with given prefix, used when assets failed to export. Such inputs won't be
+	 * recorded in manifest so next quick export will export them again.
+	 */
+	public static void removeInputs (ObjectMap<String, String> inputs, String pathPrefix) {
+		Array<String> removed = new Array<>();
+		for (String path : inputs.keys()) {
+			if (path.startsWith(pathPrefix)) removed.add(path);
+		}
+
+		for (String path : removed)
+			inputs.remove(path);
+	}
+}
@@ -50,6 +50,10 @@ public class ExportersManagerModule extends ProjectModule {
 		if (event.type == ProjectMenuBarEventType.EXPORT) {
 			export(false);
 		}
+
+		if (event.type == ProjectMenuBarEventType.QUICK_EXPORT) {
+			export(true);
+		}
 	}
 
 	@Override
@@ -80,14 +84,15 @@ public class ExportersManagerModule extends ProjectModule {
 	}
 
 	public void export (boolean quickExport) {
-		exporters.get(exportSettings.getCurrentExporterUUID()).export(quickExport);
+		ExporterPlugin exporter = exporters.get(exportSettings.getCurrentExporterUUID());
+		exporter.export(quickExport && exporter.isQuickExportSupported());
 	}
 
 	private class ExportInputListener extends ModalInputListener {
 		@Override
 		public boolean keyDown (InputEvent event, int keycode) {
 			if (UIUtils.ctrl() && keycode == Keys.E) {
-				export(false);
+				export(UIUtils.shift());
 				return true;
 			}
 
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.editor.module.project;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Timer;
+import com.badlogic.gdx.utils.Timer.Task;
+import com.esotericsoftware.kryo.KryoException;
+import com.kotcrab.vis.editor.Log;
+import com.kotcrab.vis.editor.ui.scene.SceneTab;
+import com.kotcrab.vis.editor.util.FileUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Periodically autosaves dirty scenes. Snapshot of scene is taken on OpenGL thread, writing it to disk is done on background
+ * thread. Last {@link #GENERATIONS} autosaves are kept for each scene, they can be used to recover scene after editor crash.
+ * @author Kotcrab
+ */
+public class SceneAutosaveModule extends ProjectModule {
+	private static final String TAG = "SceneAutosave";
+
+	/** Autosave interval in seconds */
+	private static final float AUTOSAVE_INTERVAL = 60;
+	private static final int GENERATIONS = 5;
+
+	private FileAccessModule fileAccess;
+	private SceneIOModule sceneIO;
+	private SceneTabsModule sceneTabs;
+
+	private FileHandle autosaveFolder;
+
+	private ExecutorService executor;
+	private Task autosaveTask;
+
+	@Override
+	public void init () {
+		autosaveFolder = fileAccess.getModuleFolder(".autosave");
+
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "SceneAutosave");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		autosaveTask = new Task() {
+			@Override
+			public void run () {
+				autosave();
+			}
+		};
+
+		Timer.schedule(autosaveTask, AUTOSAVE_INTERVAL, AUTOSAVE_INTERVAL);
+	}
+
+	@Override
+	public void dispose () {
+		autosaveTask.cancel();
+		executor.shutdown();
+
+		try {
+			//let pending autosaves finish
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Log.exception(e);
+		}
+	}
+
+	/** Autosaves all dirty scenes. Must be called from OpenGL thread, only scene snapshots are taken there. */
+	public void autosave () {
+		for (SceneTab tab : sceneTabs.getLoadedTabs()) {
+			if (tab.isDirty() == false) continue;
+			autosave(tab.getScene().path, tab::createAutosaveSnapshot);
+		}
+	}
+
+	/**
+	 * Takes snapshot of single scene on calling thread and schedules writing it to disk on autosave thread.
+	 * @param scenePath path of scene relative to assets folder
+	 * @return time in nanoseconds for which calling thread was blocked or -1 if snapshot could not be taken
+	 */
+	public long autosave (String scenePath, Supplier<byte[]> snapshotProvider) {
+		long start = System.nanoTime();
+		byte[] snapshot;
+
+		try {
+			snapshot = snapshotProvider.get();
+		} catch (KryoException e) {
+			Log.exception(e);
+			return -1;
+		}
+
+		executor.execute(() -> write(scenePath, snapshot));
+
+		long blockedTime = System.nanoTime() - start;
+		Log.debug(TAG, "Snapshot of " + scenePath + " blocked OpenGL thread for " + blockedTime / 1000000 + " ms");
+		return blockedTime;
+	}
+
+	private void write (String scenePath, byte[] snapshot) {
+		FileHandle target = getOldestGeneration(scenePath);
+		target.parent().mkdirs();
+
+		try {
+			sceneIO.writeSceneFile(target, snapshot, snapshot.length, null);
+		} catch (IOException e) {
+			Log.exception(e);
+		}
+	}
+
+	/**
+	 * @param sceneFile full path to scene file
+	 * @return newest autosave of provided scene if it's newer than scene file itself, null otherwise
+	 */
+	public FileHandle getRecoverableAutosave (FileHandle sceneFile) {
+		String scenePath = fileAccess.relativizeToAssetsFolder(sceneFile);
+
+		FileHandle newest = null;
+		for (int i = 0; i < GENERATIONS; i++) {
+			FileHandle file = getGenerationFile(scenePath, i);
+			if (file.exists() == false) continue;
+			if (newest == null || file.lastModified() > newest.lastModified()) newest = file;
+		}
+
+		if (newest != null && newest.lastModified() > sceneFile.lastModified())
+			return newest;
+
+		return null;
+	}
+
+	/** Replaces scene file with provided autosave, current scene file is copied to scene backup folder first */
+	public void restore (FileHandle sceneFile, FileHandle autosave) throws IOException {
+		String scenePath = fileAccess.relativizeToAssetsFolder(sceneFile);
+		FileHandle backupTarget = sceneIO.getSceneBackupFolder().child(scenePath);
+		sceneFile.copyTo(backupTarget.sibling(sceneFile.name() + ".beforeRestoreBak"));
+
+		FileHandle tempFile = FileUtils.tempSibling(sceneFile);
+		autosave.copyTo(tempFile);
+		FileUtils.replaceAtomically(tempFile, sceneFile);
+	}
+
+	/** @return file of generation that does not exist yet or the oldest one if all generations exists */
+	private FileHandle getOldestGeneration (String scenePath) {
+		FileHandle oldest = null;
+
+		for (int i = 0; i < GENERATIONS; i++) {
+			FileHandle file = getGenerationFile(scenePath, i);
+			if (file.exists() == false) return file;
+			if (oldest == null || file.lastModified() < oldest.lastModified()) oldest = file;
+		}
+
+		return oldest;
+	}
+
+	private FileHandle getGenerationFile (String scenePath, int generation) {
+		return autosaveFolder.child(scenePath + ".autosave" + generation);
+	}
+}
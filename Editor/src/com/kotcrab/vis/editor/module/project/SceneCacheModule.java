@@ -16,44 +16,215 @@
 
 package com.kotcrab.vis.editor.module.project;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.kotcrab.vis.editor.Log;
 import com.kotcrab.vis.editor.scene.EditorScene;
+import com.kotcrab.vis.editor.ui.scene.SceneTab;
 import com.kotcrab.vis.editor.util.DirectoryWatcher.WatchListener;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
- * Caches loaded scenes, so only one instance of each scene is loaded in editor.
+ * Caches loaded scenes, so only one instance of each scene is loaded in editor. Cache is bounded by memory budget, when it is
+ * exceeded least recently used scenes are evicted. Scenes opened in tabs are never evicted. Cached scene is reloaded when
+ * its file was modified outside of editor. After project is opened most recently modified scenes are preloaded in background.
  * @author Kotcrab
  */
 public class SceneCacheModule extends ProjectModule implements WatchListener {
+	private static final String TAG = "SceneCache";
+
+	/** Default memory budget in bytes of estimated scene size */
+	public static final long DEFAULT_MEMORY_BUDGET = 128 * 1024 * 1024;
+	/** Estimated ratio between size of loaded scene and size of its file */
+	private static final int IN_MEMORY_SIZE_FACTOR = 8;
+	/** Maximum number of scenes preloaded after project was opened */
+	private static final int PRELOAD_LIMIT = 8;
+
 	private SceneIOModule sceneIO;
+	private SceneTabsModule sceneTabs;
+	private SceneAutosaveModule sceneAutosave;
+	private FileAccessModule fileAccess;
 	private AssetsWatcherModule assetsWatcherModule;
 
-	private ObjectMap<FileHandle, EditorScene> scenes = new ObjectMap<>();
+	/** Scenes in access order, first entry is least recently used */
+	private LinkedHashMap<FileHandle, CachedScene> scenes = new LinkedHashMap<>(16, 0.75f, true);
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+	private long usedMemory;
+
+	private ExecutorService preloadExecutor;
+	private volatile boolean disposed;
 
 	public EditorScene get (FileHandle fullPath) {
-		EditorScene scene = scenes.get(fullPath);
+		CachedScene cached = scenes.get(fullPath);
+
+		if (cached != null) {
+			if (isOpenInTab(cached.scene)) {
+				//file of opened scene is modified by editor itself when scene is saved
+				cached.lastModified = fullPath.lastModified();
+				return cached.scene;
+			}
+
+			if (cached.lastModified == fullPath.lastModified()) return cached.scene;
 
-		if (scene == null) {
-			scene = sceneIO.load(fullPath);
-			scenes.put(fullPath, scene);
+			Log.debug(TAG, "Scene modified outside of editor, reloading: " + cached.scene.path);
+			remove(fullPath);
 		}
 
-		return scene;
+		//modification time must be read before file, if file is modified while loading, it will be reloaded on next access
+		long lastModified = fullPath.lastModified();
+		return put(fullPath, sceneIO.load(fullPath), lastModified).scene;
+	}
+
+	/** @return true if scene was already loaded and is cached */
+	public boolean isLoaded (FileHandle fullPath) {
+		return scenes.containsKey(fullPath);
+	}
+
+	/**
+	 * Sets memory budget of this cache. Size of scene is estimated from size of its file. If budget is exceeded least
+	 * recently used scenes will be evicted, except for scenes opened in tabs.
+	 */
+	public void setMemoryBudget (long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		evict(null);
+	}
+
+	public long getMemoryBudget () {
+		return memoryBudget;
+	}
+
+	/** @return estimated size of all cached scenes in bytes */
+	public long getUsedMemory () {
+		return usedMemory;
 	}
 
 	@Override
 	public void init () {
 		assetsWatcherModule.addListener(this);
+
+		preloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "ScenePreloader");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public void postInit () {
+		Array<FileHandle> sceneFiles = fileAccess.getSceneFiles();
+		sceneFiles.sort((file1, file2) -> Long.compare(file2.lastModified(), file1.lastModified()));
+
+		long preloadBudget = memoryBudget / 2;
+		long preloadSize = 0;
+
+		for (int i = 0; i < Math.min(sceneFiles.size, PRELOAD_LIMIT); i++) {
+			FileHandle file = sceneFiles.get(i);
+			//scene will be probably restored from autosave when opened, preloading it would be wasted
+			if (sceneAutosave.getRecoverableAutosave(file) != null) continue;
+
+			preloadSize += estimateSize(file);
+			if (preloadSize > preloadBudget) break;
+
+			preloadExecutor.execute(() -> preload(file));
+		}
 	}
 
 	@Override
 	public void dispose () {
+		disposed = true;
+		preloadExecutor.shutdownNow();
 		assetsWatcherModule.removeListener(this);
 	}
 
 	@Override
 	public void fileDeleted (FileHandle file) {
-		scenes.remove(file);
+		remove(file);
+	}
+
+	/** Reads scene file on preloader thread, scene is then deserialized on OpenGL thread */
+	private void preload (FileHandle file) {
+		if (disposed) return;
+
+		long lastModified = file.lastModified();
+		Input sceneData;
+		try {
+			sceneData = sceneIO.readSceneFile(file);
+		} catch (KryoException | GdxRuntimeException e) {
+			Log.exception(e);
+			return;
+		}
+
+		Gdx.app.postRunnable(() -> {
+			if (disposed || isLoaded(file)) return;
+
+			try {
+				put(file, sceneIO.load(file, sceneData), lastModified);
+				Log.debug(TAG, "Preloaded scene: " + file.path());
+			} catch (KryoException e) {
+				Log.exception(e);
+			}
+		});
+	}
+
+	/** @param lastModified modification time of scene file read before scene was loaded from it */
+	private CachedScene put (FileHandle fullPath, EditorScene scene, long lastModified) {
+		CachedScene cached = new CachedScene(scene, lastModified, estimateSize(fullPath));
+		scenes.put(fullPath, cached);
+		usedMemory += cached.size;
+		evict(cached);
+		return cached;
+	}
+
+	private void remove (FileHandle fullPath) {
+		CachedScene cached = scenes.remove(fullPath);
+		if (cached != null) usedMemory -= cached.size;
+	}
+
+	/**
+	 * Evicts least recently used scenes until cache fits in memory budget
+	 * @param keep scene that can't be evicted because it was just added, may be null
+	 */
+	private void evict (CachedScene keep) {
+		Iterator<CachedScene> iterator = scenes.values().iterator();
+
+		while (usedMemory > memoryBudget && iterator.hasNext()) {
+			CachedScene cached = iterator.next();
+			if (cached == keep || isOpenInTab(cached.scene)) continue;
+
+			Log.debug(TAG, "Evicting scene: " + cached.scene.path);
+			iterator.remove();
+			usedMemory -= cached.size;
+		}
+	}
+
+	private boolean isOpenInTab (EditorScene scene) {
+		for (SceneTab tab : sceneTabs.getLoadedTabs())
+			if (tab.getScene() == scene) return true;
+
+		return false;
+	}
+
+	private long estimateSize (FileHandle file) {
+		return file.length() * IN_MEMORY_SIZE_FACTOR;
+	}
+
+	private static class CachedScene {
+		final EditorScene scene;
+		final long size;
+		long lastModified;
+
+		public CachedScene (EditorScene scene, long lastModified, long size) {
+			this.scene = scene;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
 	}
 }
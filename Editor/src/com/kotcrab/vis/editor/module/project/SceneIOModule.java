@@ -35,6 +35,7 @@ import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Kryo.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
@@ -52,6 +53,7 @@ import com.kotcrab.vis.editor.scene.EditorScene;
 import com.kotcrab.vis.editor.scene.Layer;
 import com.kotcrab.vis.editor.serializer.*;
 import com.kotcrab.vis.editor.ui.scene.NewSceneDialog;
+import com.kotcrab.vis.editor.util.FileUtils;
 import com.kotcrab.vis.editor.util.vis.ProtoEntity;
 import com.kotcrab.vis.runtime.assets.*;
 import com.kotcrab.vis.runtime.component.*;
@@ -61,10 +63,11 @@ import com.kotcrab.vis.runtime.scene.SceneViewport;
 import com.kotcrab.vis.runtime.util.EntityEngine;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.zip.CRC32;
 
 /**
  * Allows to load VisEditor scenes. This API should not be used directly. See {@link SceneCacheModule}
@@ -77,7 +80,16 @@ public class SceneIOModule extends ProjectModule {
 	public static final int KRYO_PLUGINS_RESERVED_ID_BEGIN = 401;
 	public static final int KRYO_PLUGINS_RESERVED_ID_END = 800;
 
+	/**
+	 * Scene files start with this magic number (int) followed by length (int) and CRC32 checksum (long) of serialized scene.
+	 * Header is placed at the beginning so truncated file can be detected.
+	 */
+	private static final int SCENE_HEADER_MAGIC = 0x56495343;
+	private static final int SCENE_HEADER_SIZE = 16;
+
 	protected Kryo kryo;
+	/** Kryo instances used for headless loading, Kryo is not thread safe so each thread has separate one */
+	private final ThreadLocal<Kryo> headlessKryo = ThreadLocal.withInitial(this::createHeadlessKryo);
 
 	protected FileAccessModule fileAccessModule;
 	protected Stage stage;
@@ -93,6 +105,9 @@ public class SceneIOModule extends ProjectModule {
 
 	private Array<EntityComponentSerializer> entityComponentSerializers = new Array<>();
 
+	private Output saveBuffer = new Output(64 * 1024, -1);
+	private Output componentsBuffer = new Output(4 * 1024, -1);
+
 	@Override
 	public void added () {
 		kryo = new Kryo();
@@ -115,6 +130,18 @@ public class SceneIOModule extends ProjectModule {
 
 	protected void setupKryo () {
 		kryo.setClassLoader(Thread.currentThread().getContextClassLoader());
+		registerTypes(kryo, false);
+	}
+
+	private Kryo createHeadlessKryo () {
+		Kryo headlessKryo = new Kryo();
+		headlessKryo.setClassLoader(kryo.getClassLoader());
+		registerTypes(headlessKryo, true);
+		return headlessKryo;
+	}
+
+	/** @param headless if true components requiring loaded assets will be registered using {@link HeadlessComponentSerializers} */
+	private void registerTypes (Kryo kryo, boolean headless) {
 		kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
 		kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
 		kryo.setRegistrationRequired(true);
@@ -148,49 +175,62 @@ public class SceneIOModule extends ProjectModule {
 		kryo.register(EditorScene.class, new EditorSceneSerializer(kryo), 31);
 		kryo.register(EntityScheme.class, new EntitySchemeSerializer(kryo, this), 32);
 		kryo.register(SceneViewport.class, 33);
-		registerTagged(Layer.class, 34);
+		registerTagged(kryo, Layer.class, 34);
 		kryo.register(BitmapFontParameter.class, 35);
 		kryo.register(TextureFilter.class, 36);
 		kryo.register(LayerCordsSystem.class, 37);
-		registerTagged(EditorPhysicsSettings.class, 38);
-		registerTagged(PhysicsSettings.class, 39);
-
-		registerTagged(PathAsset.class, 61);
-		registerTagged(TextureRegionAsset.class, 62);
-		registerTagged(AtlasRegionAsset.class, 63);
-		registerTagged(BmpFontAsset.class, 64);
-		registerTagged(TtfFontAsset.class, 65);
-		registerTagged(ShaderAsset.class, 66);
-		registerTagged(SpriterAsset.class, 67);
-
-		registerEntityComponentSerializer(SpriteComponent.class, new SpriteComponentSerializer(kryo, textureCache), 201);
-		registerEntityComponentSerializer(MusicComponent.class, new MusicComponentSerializer(kryo), 202);
-		registerTagged(SoundComponent.class, 203);
-		registerEntityComponentSerializer(ParticleComponent.class, new ParticleComponentSerializer(kryo, particleCache), 204);
-		registerEntityComponentSerializer(TextComponent.class, new TextComponentSerializer(kryo, fontCache), 205);
-		registerEntityComponentSerializer(ShaderComponent.class, new ShaderComponentSerializer(kryo, shaderCache), 226);
-		registerEntityComponentSerializer(SpriterComponent.class, new SpriterComponentSerializer(kryo, spriterCache), 230);
-
-		registerTagged(EditorPositionComponent.class, 206);
-		registerTagged(ExporterDropsComponent.class, 207);
-		registerTagged(PixelsPerUnitComponent.class, 208);
-		registerTagged(UUIDComponent.class, 209);
-
-		registerTagged(AssetComponent.class, 220);
-		registerTagged(GroupComponent.class, 221);
-		registerTagged(IDComponent.class, 222);
-		registerTagged(InvisibleComponent.class, 223);
-		registerTagged(LayerComponent.class, 224);
-		registerTagged(RenderableComponent.class, 225);
-		registerTagged(PolygonComponent.class, 227);
-		registerTagged(PhysicsPropertiesComponent.class, 228);
-		registerTagged(VariablesComponent.class, 229);
-		registerTagged(SpriterPropertiesComponent.class, 231);
-		registerTagged(PointComponent.class, 232);
-		registerTagged(PositionComponent.class, 233);
+		registerTagged(kryo, EditorPhysicsSettings.class, 38);
+		registerTagged(kryo, PhysicsSettings.class, 39);
+
+		registerTagged(kryo, PathAsset.class, 61);
+		registerTagged(kryo, TextureRegionAsset.class, 62);
+		registerTagged(kryo, AtlasRegionAsset.class, 63);
+		registerTagged(kryo, BmpFontAsset.class, 64);
+		registerTagged(kryo, TtfFontAsset.class, 65);
+		registerTagged(kryo, ShaderAsset.class, 66);
+		registerTagged(kryo, SpriterAsset.class, 67);
+
+		if (headless) {
+			kryo.register(SpriteComponent.class, new HeadlessComponentSerializers.SpriteSerializer(kryo), 201);
+			kryo.register(MusicComponent.class, new MusicComponentSerializer(kryo), 202);
+			kryo.register(ParticleComponent.class, new HeadlessComponentSerializers.ParticleSerializer(kryo), 204);
+			kryo.register(TextComponent.class, new HeadlessComponentSerializers.TextSerializer(kryo), 205);
+			kryo.register(ShaderComponent.class, new HeadlessComponentSerializers.ShaderSerializer(kryo), 226);
+			kryo.register(SpriterComponent.class, new HeadlessComponentSerializers.SpriterSerializer(kryo), 230);
+		} else {
+			registerEntityComponentSerializer(SpriteComponent.class, new SpriteComponentSerializer(kryo, textureCache), 201);
+			registerEntityComponentSerializer(MusicComponent.class, new MusicComponentSerializer(kryo), 202);
+			registerEntityComponentSerializer(ParticleComponent.class, new ParticleComponentSerializer(kryo, particleCache), 204);
+			registerEntityComponentSerializer(TextComponent.class, new TextComponentSerializer(kryo, fontCache), 205);
+			registerEntityComponentSerializer(ShaderComponent.class, new ShaderComponentSerializer(kryo, shaderCache), 226);
+			registerEntityComponentSerializer(SpriterComponent.class, new SpriterComponentSerializer(kryo, spriterCache), 230);
+		}
+		registerTagged(kryo, SoundComponent.class, 203);
+
+		registerTagged(kryo, EditorPositionComponent.class, 206);
+		registerTagged(kryo, ExporterDropsComponent.class, 207);
+		registerTagged(kryo, PixelsPerUnitComponent.class, 208);
+		registerTagged(kryo, UUIDComponent.class, 209);
+
+		registerTagged(kryo, AssetComponent.class, 220);
+		registerTagged(kryo, GroupComponent.class, 221);
+		registerTagged(kryo, IDComponent.class, 222);
+		registerTagged(kryo, InvisibleComponent.class, 223);
+		registerTagged(kryo, LayerComponent.class, 224);
+		registerTagged(kryo, RenderableComponent.class, 225);
+		registerTagged(kryo, PolygonComponent.class, 227);
+		registerTagged(kryo, PhysicsPropertiesComponent.class, 228);
+		registerTagged(kryo, VariablesComponent.class, 229);
+		registerTagged(kryo, SpriterPropertiesComponent.class, 231);
+		registerTagged(kryo, PointComponent.class, 232);
+		registerTagged(kryo, PositionComponent.class, 233);
 	}
 
 	protected <T> void registerTagged (Class<T> clazz, int id) {
+		registerTagged(kryo, clazz, id);
+	}
+
+	private <T> void registerTagged (Kryo kryo, Class<T> clazz, int id) {
 		kryo.register(clazz, new DefaultTaggedFieldSerializer<T>(kryo, clazz), id);
 	}
 
@@ -244,39 +284,181 @@ public class SceneIOModule extends ProjectModule {
 		return clonedComponents;
 	}
 
+	/**
+	 * Serializes entity components, {@link InvisibleComponent} is skipped. Serialized components takes much less memory than
+	 * cloned ones, this is used to store entities state in undo history and clipboard.
+	 * @see #deserializeComponents(byte[])
+	 */
+	public byte[] serializeComponents (Bag<Component> components) {
+		Bag<Component> serializedComponents = new Bag<>(components.size());
+		components.forEach(component -> {
+			if (component instanceof InvisibleComponent) return;
+			serializedComponents.add(component);
+		});
+
+		setEngineSerializationContext(components);
+		try {
+			componentsBuffer.clear();
+			kryo.writeObject(componentsBuffer, serializedComponents);
+		} finally {
+			setEngineSerializationContext(null);
+		}
+
+		return componentsBuffer.toBytes();
+	}
+
+	@SuppressWarnings("unchecked")
+	public Bag<Component> deserializeComponents (byte[] data) {
+		return kryo.readObject(new Input(data), Bag.class);
+	}
+
+	/**
+	 * Serializes single component of entity.
+	 * @param entityComponents all components of entity that component belongs to, used as serialization context
+	 * @see #deserializeComponent(byte[])
+	 */
+	public byte[] serializeComponent (ImmutableBag<Component> entityComponents, Component component) {
+		setEngineSerializationContext(entityComponents);
+		try {
+			componentsBuffer.clear();
+			kryo.writeClassAndObject(componentsBuffer, component);
+		} finally {
+			setEngineSerializationContext(null);
+		}
+
+		return componentsBuffer.toBytes();
+	}
+
+	public Component deserializeComponent (byte[] data) {
+		return (Component) kryo.readClassAndObject(new Input(data));
+	}
+
 	/** Use only when you need kryo instance for creating serializers. For (de)serialization use methods inside this class. */
 	public Kryo getKryo () {
 		return kryo;
 	}
 
 	public EditorScene load (FileHandle fullPathFile) {
-		try {
-			Input input = new Input(new FileInputStream(fullPathFile.file()));
-			EditorScene scene = kryo.readObject(input, EditorScene.class);
-			scene.path = fileAccessModule.relativizeToAssetsFolder(fullPathFile);
-			input.close();
+		return load(fullPathFile, readSceneFile(fullPathFile));
+	}
 
-			return scene;
-		} catch (FileNotFoundException e) {
-			Log.exception(e);
-		}
+	/**
+	 * Loads scene from data that was already read using {@link #readSceneFile(FileHandle)}. Allows to perform file IO on
+	 * different thread, this method itself must be called from OpenGL thread.
+	 */
+	public EditorScene load (FileHandle fullPathFile, Input sceneData) {
+		EditorScene scene = kryo.readObject(sceneData, EditorScene.class);
+		scene.path = fileAccessModule.relativizeToAssetsFolder(fullPathFile);
+		return scene;
+	}
 
-		throw new IllegalStateException("There was an unknown error during scene loading");
+	/**
+	 * Loads scene without creating any assets, this method is thread safe and does not require OpenGL context. Components
+	 * that require assets are loaded as their {@link ProtoComponent}, scene loaded this way can be only used for exporting.
+	 * Components provided by plugins are not supported and will cause {@link KryoException}, such scene must be loaded using
+	 * {@link SceneCacheModule}.
+	 */
+	public EditorScene loadHeadless (FileHandle fullPathFile) {
+		EditorScene scene = headlessKryo.get().readObject(readSceneFile(fullPathFile), EditorScene.class);
+		scene.path = fileAccessModule.relativizeToAssetsFolder(fullPathFile);
+		return scene;
+	}
+
+	/**
+	 * Reads scene file and verifies its length and checksum. Scenes saved before checksum was added are loaded without
+	 * verification. This method does not use Kryo and can be called from any thread.
+	 * @throws KryoException if scene file is truncated or corrupted
+	 */
+	public Input readSceneFile (FileHandle file) {
+		byte[] data = file.readBytes();
+
+		if (data.length < 4 || ByteBuffer.wrap(data, 0, 4).getInt() != SCENE_HEADER_MAGIC)
+			return new Input(data);
+
+		if (data.length < SCENE_HEADER_SIZE)
+			throw new KryoException("Scene file is truncated: " + file.path());
+
+		ByteBuffer header = ByteBuffer.wrap(data, 4, SCENE_HEADER_SIZE - 4);
+		int length = header.getInt();
+		long expectedChecksum = header.getLong();
+
+		if (data.length - SCENE_HEADER_SIZE != length)
+			throw new KryoException("Scene file is truncated, expected " + length + " bytes of scene data but found "
+					+ (data.length - SCENE_HEADER_SIZE) + ": " + file.path());
+
+		CRC32 checksum = new CRC32();
+		checksum.update(data, SCENE_HEADER_SIZE, length);
+		if (checksum.getValue() != expectedChecksum)
+			throw new KryoException("Scene file is corrupted, checksum does not match: " + file.path());
+
+		return new Input(data, SCENE_HEADER_SIZE, length);
 	}
 
 	public boolean save (EditorScene scene) {
+		return save(scene, null);
+	}
+
+	/**
+	 * Saves scene. Scene is serialized into reusable buffer and written to temporary file which is then atomically moved
+	 * in place of old scene file, so if saving fails old scene file is left untouched.
+	 * @param backupFile if not null, previous version of scene file will be kept in this file
+	 */
+	public boolean save (EditorScene scene, FileHandle backupFile) {
 		try {
-			Output output = new Output(new FileOutputStream(getFileHandleForScene(scene).file()));
-			kryo.writeObject(output, scene);
-			output.close();
+			saveBuffer.clear();
+			kryo.writeObject(saveBuffer, scene);
+			writeSceneFile(getFileHandleForScene(scene), saveBuffer.getBuffer(), saveBuffer.position(), backupFile);
 			return true;
-		} catch (FileNotFoundException e) {
+		} catch (IOException | KryoException e) {
 			Log.exception(e);
 		}
 
 		return false;
 	}
 
+	/**
+	 * Serializes scene into byte array, this does not perform any IO so it can be used to take snapshot of scene which will be
+	 * written later using {@link #writeSceneFile(FileHandle, byte[], int, FileHandle)}
+	 */
+	public byte[] serialize (EditorScene scene) {
+		saveBuffer.clear();
+		kryo.writeObject(saveBuffer, scene);
+		return saveBuffer.toBytes();
+	}
+
+	/**
+	 * Writes serialized scene to file along with its length and checksum. Data is first written to temporary file which is then atomically
+	 * moved in place of target file. This method does not use Kryo and can be called from any thread.
+	 * @param backupFile if not null, previous version of file will be kept in this file
+	 */
+	public void writeSceneFile (FileHandle file, byte[] data, int length, FileHandle backupFile) throws IOException {
+		CRC32 checksum = new CRC32();
+		checksum.update(data, 0, length);
+
+		ByteBuffer header = ByteBuffer.allocate(SCENE_HEADER_SIZE);
+		header.putInt(SCENE_HEADER_MAGIC);
+		header.putInt(length);
+		header.putLong(checksum.getValue());
+
+		FileHandle tempFile = FileUtils.tempSibling(file);
+		FileOutputStream stream = new FileOutputStream(tempFile.file());
+		try {
+			stream.write(header.array());
+			stream.write(data, 0, length);
+			stream.getFD().sync();
+		} finally {
+			stream.close();
+		}
+
+		//old file is linked or copied instead of moved so scene file exists at all times
+		if (backupFile != null && file.exists()) {
+			backupFile.parent().mkdirs();
+			FileUtils.createBackup(file, backupFile);
+		}
+
+		FileUtils.replaceAtomically(tempFile, file);
+	}
+
 	public void setEngineSerializationContext (ImmutableBag<Component> components) {
 		entityComponentSerializers.forEach(entityComponentSerializer -> entityComponentSerializer.setComponents(components));
 	}
@@ -16,8 +16,10 @@
 
 package com.kotcrab.vis.editor.module.project;
 
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.esotericsoftware.kryo.KryoException;
 import com.google.common.eventbus.Subscribe;
 import com.kotcrab.vis.editor.Log;
@@ -28,8 +30,12 @@ import com.kotcrab.vis.editor.scene.EditorScene;
 import com.kotcrab.vis.editor.ui.scene.SceneTab;
 import com.kotcrab.vis.editor.util.gdx.VisTabbedPaneListener;
 import com.kotcrab.vis.ui.util.dialog.DialogUtils;
+import com.kotcrab.vis.ui.util.dialog.DialogUtils.OptionDialogType;
+import com.kotcrab.vis.ui.util.dialog.OptionDialogAdapter;
 import com.kotcrab.vis.ui.widget.tabbedpane.Tab;
 
+import java.io.IOException;
+
 /**
  * Module for managing {@link SceneTab}. Ensures that only one tab is created for each tab.
  * @author Kotcrab
@@ -40,8 +46,11 @@ public class SceneTabsModule extends ProjectModule implements VisTabbedPaneListe
 	private Stage stage;
 
 	private SceneCacheModule sceneCache;
+	private SceneAutosaveModule sceneAutosave;
 
 	private Array<SceneTab> loadedTabs;
+	/** Scenes that were already checked for recoverable autosave during this session */
+	private ObjectSet<FileHandle> autosaveCheckedScenes = new ObjectSet<>();
 
 	@Override
 	public void init () {
@@ -56,8 +65,39 @@ public class SceneTabsModule extends ProjectModule implements VisTabbedPaneListe
 
 	@Subscribe
 	public void handleOpenSceneRequest (OpenSceneRequest request) {
+		FileHandle sceneFile = request.sceneFile;
+
+		//when scene is opened for first time check if it can be recovered from autosave, scene may be already preloaded by cache
+		FileHandle autosave = autosaveCheckedScenes.add(sceneFile) ? sceneAutosave.getRecoverableAutosave(sceneFile) : null;
+		if (autosave == null) {
+			open(sceneFile);
+			return;
+		}
+
+		DialogUtils.showOptionDialog(stage, "Autosave", "Autosave newer than last saved version of this scene was found, editor\n" +
+				"probably wasn't closed properly. Do you want to restore scene from autosave?", OptionDialogType.YES_NO, new OptionDialogAdapter() {
+			@Override
+			public void yes () {
+				try {
+					sceneAutosave.restore(sceneFile, autosave);
+				} catch (IOException e) {
+					DialogUtils.showErrorDialog(stage, "Failed to restore scene from autosave.", e);
+					Log.exception(e);
+				}
+
+				open(sceneFile);
+			}
+
+			@Override
+			public void no () {
+				open(sceneFile);
+			}
+		});
+	}
+
+	private void open (FileHandle sceneFile) {
 		try {
-			EditorScene scene = sceneCache.get(request.sceneFile);
+			EditorScene scene = sceneCache.get(sceneFile);
 			open(scene);
 		} catch (KryoException e) {
 			DialogUtils.showErrorDialog(stage, "Failed to load scene due to corrupted file.", e);
@@ -77,6 +117,10 @@ public class SceneTabsModule extends ProjectModule implements VisTabbedPaneListe
 			tabsModule.switchTab(oldTab);
 	}
 
+	public Array<SceneTab> getLoadedTabs () {
+		return loadedTabs;
+	}
+
 	public SceneTab getTabByScene (EditorScene scene) {
 		if (scene == null) return null;
 
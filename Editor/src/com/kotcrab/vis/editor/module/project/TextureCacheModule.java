@@ -20,11 +20,15 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.tools.texturepacker.ImageCache;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker.Settings;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectMap.Entry;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.utils.Timer.Task;
 import com.kotcrab.vis.editor.App;
@@ -41,10 +45,15 @@ import com.kotcrab.vis.runtime.assets.VisAssetDescriptor;
 import com.kotcrab.vis.runtime.util.UnsupportedAssetDescriptorException;
 import org.apache.commons.io.FilenameUtils;
 
+import java.io.IOException;
+
 /**
  * Allows to get loaded textures from project 'gfx' assets directory and allows to get loaded atlases from project 'atlas' asset directory.
  * Live reloading is fully supported, however it requires listening for {@link ResourceReloadedEvent} and manually updating
  * textures.
+ * <p>
+ * When only existing textures were modified and they still fit in their place in cache, they are redrawn directly into
+ * cache page textures instead of repacking whole 'gfx' directory. Cache files on disk are regenerated during next full repack.
  * @author Kotcrab
  */
 public class TextureCacheModule extends ProjectModule implements WatchListener {
@@ -74,6 +83,9 @@ public class TextureCacheModule extends ProjectModule implements WatchListener {
 
 	private boolean packagingEnabled = true;
 
+	/** Textures modified since cache was last updated, accessed only from OpenGL thread */
+	private ObjectSet<FileHandle> changedTextures = new ObjectSet<>();
+
 	@Override
 	public void init () {
 		settings = new Settings();
@@ -90,6 +102,7 @@ public class TextureCacheModule extends ProjectModule implements WatchListener {
 		FileHandle out = fileAccess.getModuleFolder(".textureCache");
 		cachePath = out.path();
 		cacheFile = out.child("cache.atlas");
+		settings.imageCache = new ImageCache(out.child("images.cache").file());
 
 		gfxPath = fileAccess.getAssetsFolder().child("gfx").path();
 		atlasesFolder = fileAccess.getAssetsFolder().child("atlas");
@@ -119,12 +132,86 @@ public class TextureCacheModule extends ProjectModule implements WatchListener {
 	}
 
 	private void updateCache () {
-		new Thread(this::packageAndReloadCache, "TextureCache").start();
+		Array<TextureRegionUpdate> updates = collectRegionUpdates();
+		changedTextures.clear();
+
+		if (updates == null)
+			new Thread(this::packageAndReloadCache, "TextureCache").start();
+		else
+			new Thread(() -> prepareRegionUpdates(updates), "TextureCache").start();
+	}
+
+	/** @return updates for changed textures or null if full repack is required */
+	private Array<TextureRegionUpdate> collectRegionUpdates () {
+		if (cache == null || packagingEnabled == false || changedTextures.size == 0) return null;
+
+		Array<TextureRegionUpdate> updates = new Array<>(changedTextures.size);
+
+		for (FileHandle file : changedTextures) {
+			String relativePath = fileAccess.relativizeToAssetsFolder(file);
+			TextureRegionUpdate update = TextureRegionUpdate.create(cache, FileUtils.removeFirstSeparator(FilenameUtils.removeExtension(relativePath)), file);
+			if (update == null) return null;
+
+			updates.add(update);
+		}
+
+		return updates;
+	}
+
+	private void prepareRegionUpdates (Array<TextureRegionUpdate> updates) {
+		for (TextureRegionUpdate update : updates) {
+			boolean loaded = false;
+
+			try {
+				loaded = update.load(settings.bleed);
+			} catch (IOException e) {
+				Log.exception(e);
+			}
+
+			if (loaded == false) {
+				//texture does not fit in old place, fallback to full repack
+				for (TextureRegionUpdate u : updates)
+					u.dispose();
+
+				packageAndReloadCache();
+				return;
+			}
+		}
+
+		Gdx.app.postRunnable(() -> applyRegionUpdates(updates));
+	}
+
+	private void applyRegionUpdates (Array<TextureRegionUpdate> updates) {
+		for (TextureRegionUpdate update : updates) {
+			//cache was reloaded in the meantime, those textures must be updated again
+			if (update.isStale(cache)) {
+				changedTextures.add(update.getFile());
+				continue;
+			}
+
+			update.apply();
+
+			AtlasRegion region = update.getRegion();
+			for (Entry<String, TextureRegion> e : regions.entries()) {
+				TextureRegion cachedRegion = e.value;
+				if (cachedRegion != region && region.name.equals(FileUtils.removeFirstSeparator(FilenameUtils.removeExtension(e.key))))
+					cachedRegion.setRegion(region);
+			}
+		}
+
+		for (TextureRegionUpdate update : updates)
+			update.dispose();
+
+		if (changedTextures.size > 0) updateCache();
+
+		App.eventBus.post(new ResourceReloadedEvent(ResourceReloadedEvent.RESOURCE_TEXTURES));
 	}
 
 	private void packageAndReloadCache () {
-		if (packagingEnabled)
+		if (packagingEnabled) {
 			TexturePacker.process(settings, gfxPath, cachePath, "cache");
+			settings.imageCache.save();
+		}
 
 		Gdx.app.postRunnable(this::reloadCache);
 	}
@@ -195,13 +282,17 @@ public class TextureCacheModule extends ProjectModule implements WatchListener {
 		String relativePath = fileAccess.relativizeToAssetsFolder(file);
 
 		if (ProjectPathUtils.isTexture(relativePath, file.extension())) {
-			cacheWaitTimer.clear();
-			cacheWaitTimer.scheduleTask(new Task() {
-				@Override
-				public void run () {
-					updateCache();
-				}
-			}, 0.5f);
+			//called on watcher thread, changed textures set is only accessed from OpenGL thread
+			Gdx.app.postRunnable(() -> {
+				changedTextures.add(file);
+				cacheWaitTimer.clear();
+				cacheWaitTimer.scheduleTask(new Task() {
+					@Override
+					public void run () {
+						updateCache();
+					}
+				}, 0.5f);
+			});
 		}
 
 		if (ProjectPathUtils.isTextureAtlas(file, relativePath)) {
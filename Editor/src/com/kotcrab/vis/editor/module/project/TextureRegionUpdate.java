@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.editor.module.project;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.tools.texturepacker.ColorBleedEffect;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Redraws single modified texture into its existing place in texture cache page. Used by {@link TextureCacheModule} to avoid
+ * repacking whole cache when texture was only modified. Update is created on main thread, loaded on packer thread and then
+ * applied back on main thread.
+ * @author Kotcrab
+ */
+public class TextureRegionUpdate {
+	private final FileHandle file;
+	private final AtlasRegion region;
+	private final int x, y, width, height;
+
+	private int newWidth, newHeight;
+	private Pixmap pixmap;
+
+	private TextureRegionUpdate (FileHandle file, AtlasRegion region) {
+		this.file = file;
+		this.region = region;
+		x = region.getRegionX();
+		y = region.getRegionY();
+		width = region.packedWidth;
+		height = region.packedHeight;
+	}
+
+	/**
+	 * @param cache currently loaded texture cache
+	 * @param regionName name of region in cache that file was packed into
+	 * @param file modified texture file
+	 * @return update for this texture or null if it can't be updated in place and full repack is required
+	 */
+	public static TextureRegionUpdate create (TextureAtlas cache, String regionName, FileHandle file) {
+		if (file.exists() == false) return null;
+
+		AtlasRegion region = cache.findRegion(regionName);
+		if (region == null || region.rotate || region.splits != null) return null;
+
+		return new TextureRegionUpdate(file, region);
+	}
+
+	/**
+	 * Loads new texture content, may be called from any thread.
+	 * @param bleed whether color bleeding should be applied to transparent pixels, same as packer {@code bleed} setting
+	 * @return true if texture was loaded, false if new texture does not fit in old region and full repack is required
+	 */
+	public boolean load (boolean bleed) throws IOException {
+		BufferedImage image = ImageIO.read(file.file());
+		if (image == null || image.getWidth() > width || image.getHeight() > height) return false;
+
+		newWidth = image.getWidth();
+		newHeight = image.getHeight();
+
+		BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		canvas.getGraphics().drawImage(image, 0, 0, null);
+		if (bleed) canvas = new ColorBleedEffect().processImage(canvas, 2);
+
+		int[] argb = canvas.getRGB(0, 0, width, height, null, 0, width);
+
+		pixmap = new Pixmap(width, height, Format.RGBA8888);
+		ByteBuffer pixels = pixmap.getPixels();
+		for (int value : argb) {
+			pixels.put((byte) (value >> 16));
+			pixels.put((byte) (value >> 8));
+			pixels.put((byte) value);
+			pixels.put((byte) (value >>> 24));
+		}
+		pixels.position(0);
+
+		return true;
+	}
+
+	/** @return true if cache was reloaded since this update was created, such update can't be applied */
+	public boolean isStale (TextureAtlas cache) {
+		return cache == null || cache.findRegion(region.name) != region;
+	}
+
+	/** Uploads loaded texture into cache page and updates region bounds, must be called on main thread after {@link #load(boolean)} */
+	public void apply () {
+		//Texture#draw can't be used, cache pages are loaded from file so they are managed
+		Texture texture = region.getTexture();
+		texture.bind();
+		Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+		Gdx.gl.glTexSubImage2D(texture.glTarget, 0, x, y, pixmap.getWidth(), pixmap.getHeight(),
+				pixmap.getGLFormat(), pixmap.getGLType(), pixmap.getPixels());
+
+		region.setRegion(x, y, newWidth, newHeight);
+		region.packedWidth = region.originalWidth = newWidth;
+		region.packedHeight = region.originalHeight = newHeight;
+	}
+
+	public void dispose () {
+		if (pixmap != null) pixmap.dispose();
+		pixmap = null;
+	}
+
+	public FileHandle getFile () {
+		return file;
+	}
+
+	public AtlasRegion getRegion () {
+		return region;
+	}
+
+	/** @return loaded pixels of whole old region area or null if not loaded yet */
+	public Pixmap getPixmap () {
+		return pixmap;
+	}
+}
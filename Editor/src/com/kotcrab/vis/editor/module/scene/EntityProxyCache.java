@@ -52,25 +52,32 @@ public class EntityProxyCache extends Manager {
 			@Override
 			public void inserted (IntBag entities) {
 				ObjectMap<Entity, EntityProxy> tmpCache = new ObjectMap<>();
+				Array<EntityProxy> added = new Array<>(entities.size());
 
 				int[] data = entities.getData();
 				for (int i = 0; i < entities.size(); i++) {
 					int entityId = data[i];
 					Entity entity = world.getEntity(entityId);
-					tmpCache.put(entity, getProxy(entity));
+					EntityProxy proxy = getProxy(entity);
+					tmpCache.put(entity, proxy);
+					added.add(proxy);
 				}
 
 				cache.putAll(tmpCache);
-				listeners.forEach(EntityProxyCacheListener::cacheChanged);
+				listeners.forEach(listener -> listener.proxiesAdded(added));
 			}
 
 			@Override
 			public void removed (IntBag entities) {
+				Array<EntityProxy> removed = new Array<>(entities.size());
+
 				int[] data = entities.getData();
 				for (int i = 0; i < entities.size(); i++) {
-					cache.remove(world.getEntity(data[i]));
+					EntityProxy proxy = cache.remove(world.getEntity(data[i]));
+					if (proxy != null) removed.add(proxy);
 				}
-				listeners.forEach(EntityProxyCacheListener::cacheChanged);
+
+				listeners.forEach(listener -> listener.proxiesRemoved(removed));
 			}
 		});
 	}
@@ -140,6 +147,10 @@ public class EntityProxyCache extends Manager {
 	}
 
 	public interface EntityProxyCacheListener {
-		void cacheChanged ();
+		/** Called when new entities were inserted into cache */
+		void proxiesAdded (Array<EntityProxy> proxies);
+
+		/** Called when entities were removed from cache, removed entities are already deleted from entity engine */
+		void proxiesRemoved (Array<EntityProxy> proxies);
 	}
 }
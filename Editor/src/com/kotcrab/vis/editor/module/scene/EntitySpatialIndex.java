@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.editor.module.scene;
+
+import com.artemis.*;
+import com.artemis.EntitySubscription.SubscriptionListener;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongMap;
+import com.kotcrab.vis.editor.proxy.EntityProxy;
+import com.kotcrab.vis.runtime.component.LayerComponent;
+import com.kotcrab.vis.runtime.component.RenderableComponent;
+
+/**
+ * Uniform grid index of entities bounds, used to speed up picking and selection queries. Entities are reindexed lazily
+ * before next query. Changes made using {@link EntityProxy} setters are reported automatically, other changes must be
+ * reported using {@link #markDirty(Entity)} or {@link #invalidate()}. Entities with dynamic bounds and entities spanning
+ * too many cells are not stored in grid, instead they are checked during every query.
+ * @author Kotcrab
+ */
+@Wire
+public class EntitySpatialIndex extends Manager {
+	private static final float CELL_SIZE_PIXELS = 256;
+	private static final int MAX_CELLS_PER_ENTITY = 64;
+
+	private EntityProxyCache proxyCache;
+
+	private AspectSubscriptionManager subscriptionManager;
+
+	private final float cellSize;
+
+	private LongMap<IntArray> cells = new LongMap<>();
+	private IntMap<IndexEntry> entries = new IntMap<>();
+	private IntArray unindexedEntities = new IntArray();
+	private IntArray dirtyEntities = new IntArray();
+	private boolean invalidated;
+
+	private int queryId;
+
+	public EntitySpatialIndex (float pixelsPerUnit) {
+		cellSize = CELL_SIZE_PIXELS / pixelsPerUnit;
+	}
+
+	@Override
+	protected void initialize () {
+		EntitySubscription subscription = subscriptionManager.get(Aspect.all(LayerComponent.class, RenderableComponent.class));
+
+		subscription.addSubscriptionListener(new SubscriptionListener() {
+			@Override
+			public void inserted (IntBag entities) {
+				int[] data = entities.getData();
+				for (int i = 0; i < entities.size(); i++) {
+					if (entries.containsKey(data[i]) == false) entries.put(data[i], new IndexEntry());
+					markDirty(data[i]);
+				}
+			}
+
+			@Override
+			public void removed (IntBag entities) {
+				int[] data = entities.getData();
+				for (int i = 0; i < entities.size(); i++) {
+					IndexEntry entry = entries.remove(data[i]);
+					if (entry != null) removeFromCells(data[i], entry);
+				}
+			}
+		});
+	}
+
+	public void markDirty (Entity entity) {
+		markDirty(entity.getId());
+	}
+
+	public void markDirty (int entityId) {
+		IndexEntry entry = entries.get(entityId);
+		if (entry == null || entry.dirty) return;
+
+		entry.dirty = true;
+		dirtyEntities.add(entityId);
+	}
+
+	/** Marks all entities as dirty, they will be reindexed before next query. */
+	public void invalidate () {
+		invalidated = true;
+	}
+
+	/**
+	 * Finds entities which bounds overlaps or touches given area.
+	 * @return passed output array
+	 */
+	public Array<EntityProxy> query (Rectangle area, Array<EntityProxy> out) {
+		update();
+		queryId++;
+
+		int minX = cellIndex(area.x);
+		int minY = cellIndex(area.y);
+		int maxX = cellIndex(area.x + area.width);
+		int maxY = cellIndex(area.y + area.height);
+
+		if ((long) (maxX - minX + 1) * (maxY - minY + 1) > cells.size) {
+			//query area is bigger than whole index, faster to check all cells
+			for (LongMap.Entry<IntArray> cell : cells.entries())
+				queryCell(cell.value, area, out);
+		} else {
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++) {
+					IntArray cell = cells.get(cellKey(x, y));
+					if (cell != null) queryCell(cell, area, out);
+				}
+			}
+		}
+
+		queryCell(unindexedEntities, area, out);
+		return out;
+	}
+
+	/**
+	 * Finds entities which bounds contains given point.
+	 * @return passed output array
+	 */
+	public Array<EntityProxy> query (float x, float y, Array<EntityProxy> out) {
+		update();
+
+		IntArray cell = cells.get(cellKey(cellIndex(x), cellIndex(y)));
+		if (cell != null) queryPoint(cell, x, y, out);
+		queryPoint(unindexedEntities, x, y, out);
+
+		return out;
+	}
+
+	private void queryCell (IntArray cell, Rectangle area, Array<EntityProxy> out) {
+		for (int i = 0; i < cell.size; i++) {
+			int entityId = cell.get(i);
+			IndexEntry entry = entries.get(entityId);
+			if (entry.queryId == queryId) continue;
+			entry.queryId = queryId;
+
+			EntityProxy proxy = proxyCache.get(entityId);
+			Rectangle bounds = proxy.getBoundingRectangle();
+			if (bounds.x <= area.x + area.width && bounds.x + bounds.width >= area.x &&
+					bounds.y <= area.y + area.height && bounds.y + bounds.height >= area.y)
+				out.add(proxy);
+		}
+	}
+
+	private void queryPoint (IntArray cell, float x, float y, Array<EntityProxy> out) {
+		for (int i = 0; i < cell.size; i++) {
+			EntityProxy proxy = proxyCache.get(cell.get(i));
+			if (proxy.getBoundingRectangle().contains(x, y)) out.add(proxy);
+		}
+	}
+
+	private void update () {
+		if (invalidated) {
+			invalidated = false;
+			dirtyEntities.clear();
+
+			for (IntMap.Entry<IndexEntry> entry : entries.entries())
+				reindex(entry.key, entry.value);
+
+			return;
+		}
+
+		for (int i = 0; i < dirtyEntities.size; i++) {
+			int entityId = dirtyEntities.get(i);
+			IndexEntry entry = entries.get(entityId);
+			if (entry != null && entry.dirty) reindex(entityId, entry);
+		}
+
+		dirtyEntities.clear();
+	}
+
+	private void reindex (int entityId, IndexEntry entry) {
+		removeFromCells(entityId, entry);
+		entry.dirty = false;
+
+		EntityProxy proxy = proxyCache.get(entityId);
+		Rectangle bounds = proxy.getBoundingRectangle();
+
+		int minX = cellIndex(bounds.x);
+		int minY = cellIndex(bounds.y);
+		int maxX = cellIndex(bounds.x + bounds.width);
+		int maxY = cellIndex(bounds.y + bounds.height);
+
+		if (proxy.hasDynamicBounds() || (long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS_PER_ENTITY) {
+			entry.unindexed = true;
+			unindexedEntities.add(entityId);
+			return;
+		}
+
+		entry.indexed = true;
+		entry.minX = minX;
+		entry.minY = minY;
+		entry.maxX = maxX;
+		entry.maxY = maxY;
+
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				long key = cellKey(x, y);
+				IntArray cell = cells.get(key);
+
+				if (cell == null) {
+					cell = new IntArray(8);
+					cells.put(key, cell);
+				}
+
+				cell.add(entityId);
+			}
+		}
+	}
+
+	private void removeFromCells (int entityId, IndexEntry entry) {
+		if (entry.unindexed) {
+			unindexedEntities.removeValue(entityId);
+			entry.unindexed = false;
+		}
+
+		if (entry.indexed == false) return;
+
+		for (int x = entry.minX; x <= entry.maxX; x++) {
+			for (int y = entry.minY; y <= entry.maxY; y++) {
+				long key = cellKey(x, y);
+				IntArray cell = cells.get(key);
+				cell.removeValue(entityId);
+				if (cell.size == 0) cells.remove(key);
+			}
+		}
+
+		entry.indexed = false;
+	}
+
+	private int cellIndex (float value) {
+		return (int) Math.floor(value / cellSize);
+	}
+
+	private static long cellKey (int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	private static class IndexEntry {
+		boolean dirty;
+		boolean indexed;
+		boolean unindexed;
+		int minX, minY, maxX, maxY;
+		int queryId;
+	}
+}
@@ -83,6 +83,7 @@ public class SceneModuleContainer extends ModuleContainer<SceneModule> implement
 		config.setManager(new SpriterReloaderManager(projectModuleContainer.get(SpriterCacheModule.class)));
 		config.setManager(new VisUUIDManager());
 		config.setManager(new EntityCounterManager());
+		config.setManager(new EntitySpatialIndex(scene.pixelsPerUnit));
 
 		config.setSystem(new GroupIdProviderSystem(), true);
 		config.setSystem(new GroupProxyProviderSystem(), true);
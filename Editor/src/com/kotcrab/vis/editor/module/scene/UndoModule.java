@@ -19,7 +19,6 @@ package com.kotcrab.vis.editor.module.scene;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.UIUtils;
-import com.badlogic.gdx.utils.Array;
 import com.kotcrab.vis.editor.App;
 import com.kotcrab.vis.editor.event.RedoEvent;
 import com.kotcrab.vis.editor.event.UndoEvent;
@@ -27,49 +26,45 @@ import com.kotcrab.vis.editor.module.editor.InputModule;
 import com.kotcrab.vis.editor.module.editor.MenuBarModule;
 import com.kotcrab.vis.editor.module.editor.StatusBarModule;
 import com.kotcrab.vis.editor.util.gdx.ModalInputListener;
+import com.kotcrab.vis.editor.util.undo.UndoHistory;
 import com.kotcrab.vis.editor.util.undo.UndoableAction;
 
 /**
- * Manages undoable actions and provides ctrl+z + ctrl+y key shortcuts.
+ * Manages undoable actions and provides ctrl+z + ctrl+y key shortcuts. Undo history is limited by memory budget, when it's
+ * exceeded oldest actions are discarded.
  * @author Kotcrab
  */
 public class UndoModule extends SceneModule {
+	public static final long DEFAULT_MEMORY_BUDGET = 64 * 1024 * 1024;
+
 	private MenuBarModule menuBar;
 	private StatusBarModule statusBar;
 
-	private Array<UndoableAction> undoList;
-	private Array<UndoableAction> redoList;
+	private UndoHistory history;
 
 	private boolean tabActive;
 
 	@Override
 	public void added () {
-		undoList = new Array<>();
-		redoList = new Array<>();
+		history = new UndoHistory(DEFAULT_MEMORY_BUDGET);
 
 		InputModule input = container.get(InputModule.class);
 		input.addListener(new UndoInputListener());
 	}
 
 	public void undo () {
-		if (undoList.size > 0) {
-			UndoableAction action = undoList.pop();
-			action.undo();
-			redoList.add(action);
+		if (history.undo())
 			App.eventBus.post(new UndoEvent(sceneContainer));
-		} else
+		else
 			statusBar.setText("Can't undo more!");
 
 		menuBar.updateUndoButtonText();
 	}
 
 	public void redo () {
-		if (redoList.size > 0) {
-			UndoableAction action = redoList.pop();
-			action.execute();
-			undoList.add(action);
+		if (history.redo())
 			App.eventBus.post(new RedoEvent(sceneContainer));
-		} else
+		else
 			statusBar.setText("Can't redo more!");
 	}
 
@@ -79,21 +74,30 @@ public class UndoModule extends SceneModule {
 	}
 
 	public void add (UndoableAction action) {
-		undoList.add(action);
-		redoList.clear();
+		history.add(action);
 		sceneTab.dirty();
 		menuBar.updateUndoButtonText();
 	}
 
 	public int getUndoSize () {
-		return undoList.size;
+		return history.getUndoSize();
+	}
+
+	/** @return true if some actions were discarded from undo history because of its memory budget */
+	public boolean isHistoryTruncated () {
+		return history.getEvictedCount() > 0;
+	}
+
+	public void setMemoryBudget (long memoryBudget) {
+		history.setMemoryBudget(memoryBudget);
 	}
 
 	public String getNextUndoActionName () {
-		if (undoList.size == 0)
+		UndoableAction action = history.peekUndo();
+		if (action == null)
 			return null;
 
-		return undoList.peek().getActionName();
+		return action.getActionName();
 	}
 
 	@Override
@@ -19,7 +19,6 @@ package com.kotcrab.vis.editor.module.scene;
 import com.artemis.Manager;
 import com.artemis.annotations.Wire;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ObjectMap.Values;
 import com.kotcrab.vis.editor.module.scene.action.ChangeZIndexAction;
 import com.kotcrab.vis.editor.module.scene.entitymanipulator.EntityManipulatorModule;
 import com.kotcrab.vis.editor.proxy.EntityProxy;
@@ -34,7 +33,7 @@ public class ZIndexManipulatorManager extends Manager {
 	private EntityManipulatorModule entityManipulator;
 
 	private RenderBatchingSystem renderBatchingSystem;
-	private EntityProxyCache proxyCache;
+	private EntitySpatialIndex spatialIndex;
 
 	private UndoableActionGroup actionGroup;
 
@@ -75,7 +74,7 @@ public class ZIndexManipulatorManager extends Manager {
 	}
 
 	private Array<EntityProxy> getOverlappingEntities (EntityProxy baseEntity, boolean up) {
-		Values<EntityProxy> entities = proxyCache.getCache().values();
+		Array<EntityProxy> entities = spatialIndex.query(baseEntity.getBoundingRectangle(), new Array<>());
 		Array<EntityProxy> overlapping = new Array<>();
 
 		for (EntityProxy entity : entities) {
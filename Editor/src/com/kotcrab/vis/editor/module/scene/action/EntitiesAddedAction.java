@@ -56,9 +56,7 @@ public class EntitiesAddedAction implements UndoableAction {
 	public void execute () {
 		entities.clear();
 
-		protoEntities.forEach(protoEntity -> {
-			entities.add(protoEntity.build()); //build will also add to entity engine
-		});
+		ProtoEntity.build(protoEntities).forEach(entities::add); //build will also add to entity engine
 
 		entityManipulator.resetSelection();
 		entities.forEach(entityManipulator::selectAppend);
@@ -78,6 +76,14 @@ public class EntitiesAddedAction implements UndoableAction {
 		entityManipulator.markSceneDirty();
 	}
 
+	@Override
+	public long getRetainedSize () {
+		long size = 64;
+		for (ProtoEntity protoEntity : protoEntities)
+			size += protoEntity.getRetainedSize();
+		return size;
+	}
+
 	@Override
 	public String getActionName () {
 		return entities.size == 1 ? "Add Entity" : "Add Entities";
@@ -69,15 +69,21 @@ public class EntitiesRemovedAction implements UndoableAction {
 	public void undo () {
 		entities.clear();
 
-		protoEntities.forEach(protoEntity -> {
-			entities.add(protoEntity.build()); //build will also add to entity engine
-		});
+		ProtoEntity.build(protoEntities).forEach(entities::add); //build will also add to entity engine
 
 		entityManipulator.resetSelection();
 		entities.forEach(entityManipulator::selectAppend);
 		entityManipulator.markSceneDirty();
 	}
 
+	@Override
+	public long getRetainedSize () {
+		long size = 64;
+		for (ProtoEntity protoEntity : protoEntities)
+			size += protoEntity.getRetainedSize();
+		return size;
+	}
+
 	@Override
 	public String getActionName () {
 		return entities.size == 1 ? "Remove Entity" : "Remove Entities";
@@ -101,6 +101,7 @@ public class EntityManipulatorModule extends SceneModule {
 	private ComponentMapper<GroupComponent> groupCm;
 
 	private EntityProxyCache entityProxyCache;
+	private EntitySpatialIndex spatialIndex;
 	private ZIndexManipulatorManager zIndexManipulator;
 	private GroupIdProviderSystem groupIdProvider;
 	private GroupProxyProviderSystem groupProxyProvider;
@@ -302,8 +303,7 @@ public class EntityManipulatorModule extends SceneModule {
 			IntIntMap groupIdRemap = new IntIntMap();
 			Holder<Integer> freeGidHolder = new Holder<>(groupIdProvider.getFreeGroupId());
 
-			entitiesClipboard.forEach(protoEntity -> {
-				Entity entity = protoEntity.build();
+			ProtoEntity.build(entitiesClipboard).forEach(entity -> {
 				entities.add(entity);
 				if (scene.getActiveLayer().visible == false) entity.edit().add(new InvisibleComponent());
 				proxies.add(entityProxyCache.get(entity));
@@ -352,7 +352,7 @@ public class EntityManipulatorModule extends SceneModule {
 
 			undoModule.add(new EntitiesAddedAction(sceneContainer, entityEngine, entities));
 
-			sceneOutline.rebuildOutline();
+			sceneOutline.updateOutline();
 			selectedEntitiesChanged();
 		} else
 			statusBar.setText("Nothing to paste!");
@@ -658,6 +658,11 @@ public class EntityManipulatorModule extends SceneModule {
 	 * was added or selection itself changed you must call {@link #selectedEntitiesChanged()}
 	 */
 	public void selectedEntitiesValuesChanged () {
+		for (EntityProxy proxy : selectedEntities) {
+			for (Entity entity : proxy.getEntities())
+				spatialIndex.markDirty(entity);
+		}
+
 		entityProperties.selectedEntitiesValuesChanged();
 		currentTool.selectedEntitiesValuesChanged();
 		markSceneDirty();
@@ -673,7 +678,7 @@ public class EntityManipulatorModule extends SceneModule {
 
 		undoModule.execute(new GroupAction(selectedEntities, gid, currentSelectionGid, true));
 
-		sceneOutline.rebuildOutline();
+		sceneOutline.updateOutline();
 
 		GroupEntityProxy groupProxy = new GroupEntityProxy(selectedEntities, gid);
 		resetSelection();
@@ -705,7 +710,7 @@ public class EntityManipulatorModule extends SceneModule {
 			groupBreadcrumb.resetHierarchy();
 			currentSelectionGid = -1;
 
-			sceneOutline.rebuildOutline();
+			sceneOutline.updateOutline();
 
 			resetSelection();
 			selectionProxy.getProxies().forEach(this::selectAppend);
@@ -744,7 +749,8 @@ public class EntityManipulatorModule extends SceneModule {
 
 	@Subscribe
 	public void handleUndoableModuleEvent (UndoableModuleEvent event) {
-		sceneOutline.rebuildOutline();
+		spatialIndex.invalidate();
+		sceneOutline.updateOutline();
 		renderBatchingSystem.markDirty();
 	}
 
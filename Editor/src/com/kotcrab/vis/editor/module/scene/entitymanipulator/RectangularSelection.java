@@ -23,7 +23,7 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
-import com.kotcrab.vis.editor.module.scene.EntityProxyCache;
+import com.kotcrab.vis.editor.module.scene.EntitySpatialIndex;
 import com.kotcrab.vis.editor.proxy.EntityProxy;
 import com.kotcrab.vis.editor.scene.EditorScene;
 
@@ -34,15 +34,15 @@ import com.kotcrab.vis.editor.scene.EditorScene;
 public class RectangularSelection {
 	private EditorScene scene;
 	private EntityManipulatorModule entityManipulatorModule;
-	private EntityProxyCache proxyCache;
+	private EntitySpatialIndex spatialIndex;
 
 	private Rectangle currentRect = null;
 	private Rectangle rectToDraw = null;
 
-	public RectangularSelection (EditorScene scene, EntityManipulatorModule entityManipulatorModule, EntityProxyCache proxyCache) {
+	public RectangularSelection (EditorScene scene, EntityManipulatorModule entityManipulatorModule, EntitySpatialIndex spatialIndex) {
 		this.scene = scene;
 		this.entityManipulatorModule = entityManipulatorModule;
-		this.proxyCache = proxyCache;
+		this.spatialIndex = spatialIndex;
 	}
 
 	public void render (ShapeRenderer shapeRenderer) {
@@ -64,7 +64,7 @@ public class RectangularSelection {
 	public void findContainedComponents () {
 		Array<EntityProxy> matchingEntities = new Array<>();
 
-		for (EntityProxy entity : proxyCache.getCache().values())
+		for (EntityProxy entity : spatialIndex.query(rectToDraw, new Array<>()))
 			if (rectToDraw.contains(entity.getBoundingRectangle()) && entity.getLayerID() == scene.getActiveLayerId())
 				matchingEntities.add(entity);
 
@@ -23,6 +23,7 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.UIUtils;
 import com.badlogic.gdx.utils.Array;
+import com.kotcrab.vis.editor.module.scene.EntitySpatialIndex;
 import com.kotcrab.vis.editor.module.scene.action.MoveEntityAction;
 import com.kotcrab.vis.editor.module.scene.entitymanipulator.RectangularSelection;
 import com.kotcrab.vis.editor.proxy.EntityProxy;
@@ -34,6 +35,8 @@ import com.kotcrab.vis.editor.proxy.EntityProxy;
  * @see SelectionTool
  */
 public abstract class BaseSelectionTool extends Tool {
+	protected EntitySpatialIndex spatialIndex;
+
 	protected float lastTouchX, lastTouchY;
 	protected float dragStartX, dragStartY;
 
@@ -47,9 +50,11 @@ public abstract class BaseSelectionTool extends Tool {
 
 	protected Array<MoveEntityAction> moveActions = new Array<>();
 
+	private Array<EntityProxy> queryResult = new Array<>();
+
 	@Override
 	public void init () {
-		rectangularSelection = new RectangularSelection(scene, entityManipulator, entityProxyCache);
+		rectangularSelection = new RectangularSelection(scene, entityManipulator, spatialIndex);
 	}
 
 	@Override
@@ -152,22 +157,20 @@ public abstract class BaseSelectionTool extends Tool {
 		EntityProxy matchingEntity = null;
 		float lastSurfaceArea = Float.MAX_VALUE;
 
-		for (EntityProxy entity : entityProxyCache.getCache().values()) {
+		for (EntityProxy entity : spatialIndex.query(x, y, queryResult)) {
 			Rectangle entityBoundingRectangle = entity.getBoundingRectangle();
-			if (entityBoundingRectangle.contains(x, y)) {
-
-				float currentSurfaceArea = entityBoundingRectangle.width * entityBoundingRectangle.height;
+			float currentSurfaceArea = entityBoundingRectangle.width * entityBoundingRectangle.height;
 
-				if (currentSurfaceArea < lastSurfaceArea) {
-					if (scene.getLayerById(entity.getLayerID()).locked)
-						continue;
+			if (currentSurfaceArea < lastSurfaceArea) {
+				if (scene.getLayerById(entity.getLayerID()).locked)
+					continue;
 
-					matchingEntity = entity;
-					lastSurfaceArea = currentSurfaceArea;
-				}
+				matchingEntity = entity;
+				lastSurfaceArea = currentSurfaceArea;
 			}
 		}
 
+		queryResult.clear();
 		return matchingEntity;
 	}
 
@@ -34,7 +34,7 @@ public interface ExporterPlugin {
 
 	String getName ();
 
-	/** Not used for now */
+	/** If false, quick export requests will be performed as normal export */
 	boolean isQuickExportSupported ();
 
 	void export (boolean quickExport);
@@ -26,6 +26,7 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntArray;
 import com.kotcrab.vis.editor.entity.EntityScheme;
 import com.kotcrab.vis.editor.entity.UUIDComponent;
+import com.kotcrab.vis.editor.module.scene.EntitySpatialIndex;
 import com.kotcrab.vis.editor.module.scene.VisUUIDManager;
 import com.kotcrab.vis.editor.module.scene.entitymanipulator.tool.PolygonTool;
 import com.kotcrab.vis.editor.util.polygon.Clipper;
@@ -42,6 +43,7 @@ public abstract class EntityProxy {
 
 	protected Entity entity;
 	protected VisUUIDManager uuidManager;
+	protected EntitySpatialIndex spatialIndex;
 	protected UUID uuid;
 
 	protected BasicPropertiesAccessor basicAccessor;
@@ -59,6 +61,7 @@ public abstract class EntityProxy {
 
 		if (entity != null) {
 			uuidManager = entity.getWorld().getManager(VisUUIDManager.class);
+			spatialIndex = entity.getWorld().getManager(EntitySpatialIndex.class);
 			uuid = entity.getComponent(UUIDComponent.class).getUUID();
 
 			polygonCm = entity.getWorld().getMapper(PolygonComponent.class);
@@ -188,6 +191,7 @@ public abstract class EntityProxy {
 	public void setX (float x) {
 		updatePolygon(x, getY());
 		basicAccessor.setX(x);
+		boundsChanged();
 	}
 
 	public float getY () {
@@ -197,11 +201,13 @@ public abstract class EntityProxy {
 	public void setY (float y) {
 		updatePolygon(getX(), y);
 		basicAccessor.setY(y);
+		boundsChanged();
 	}
 
 	public void setPosition (float x, float y) {
 		updatePolygon(x, y);
 		basicAccessor.setPosition(x, y);
+		boundsChanged();
 	}
 
 	protected void updatePolygon (float x, float y) {
@@ -229,6 +235,16 @@ public abstract class EntityProxy {
 		return basicAccessor.getBoundingRectangle();
 	}
 
+	/** @return true if entity bounds may change without using this proxy, for example because of playing animation */
+	public boolean hasDynamicBounds () {
+		return false;
+	}
+
+	/** Notifies {@link EntitySpatialIndex} that bounds of this entity has changed */
+	protected void boundsChanged () {
+		if (spatialIndex != null) spatialIndex.markDirty(entity);
+	}
+
 	//resize properties
 
 	protected void enableResize (SizePropertiesAccessor sizeAccessor) {
@@ -241,6 +257,7 @@ public abstract class EntityProxy {
 
 	public void setSize (float width, float height) {
 		sizeAccessor.setSize(width, height);
+		boundsChanged();
 	}
 
 	//origin properties
@@ -263,6 +280,7 @@ public abstract class EntityProxy {
 
 	public void setOrigin (float x, float y) {
 		originAccessor.setOrigin(x, y);
+		boundsChanged();
 	}
 
 	//scale properties
@@ -285,6 +303,7 @@ public abstract class EntityProxy {
 
 	public void setScale (float x, float y) {
 		scaleAccessor.setScale(x, y);
+		boundsChanged();
 	}
 
 	//color properties
@@ -321,6 +340,7 @@ public abstract class EntityProxy {
 
 	public void setRotation (float rotation) {
 		rotationAccessor.setRotation(rotation);
+		boundsChanged();
 	}
 
 	//flip properties
@@ -343,6 +363,7 @@ public abstract class EntityProxy {
 
 	public void setFlip (boolean x, boolean y) {
 		flipAccessor.setFlip(x, y);
+		boundsChanged();
 	}
 
 	//others
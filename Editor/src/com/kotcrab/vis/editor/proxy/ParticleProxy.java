@@ -43,6 +43,11 @@ public class ParticleProxy extends EntityProxy {
 		return "ParticleEntity";
 	}
 
+	@Override
+	public boolean hasDynamicBounds () {
+		return true;
+	}
+
 	@Override
 	public boolean isAssetsDescriptorSupported (VisAssetDescriptor assetDescriptor) {
 		return assetDescriptor instanceof PathAsset;
@@ -42,6 +42,11 @@ public class SpriterProxy extends EntityProxy {
 		return "SpriterEntity";
 	}
 
+	@Override
+	public boolean hasDynamicBounds () {
+		return true;
+	}
+
 	@Override
 	public boolean isAssetsDescriptorSupported (VisAssetDescriptor assetDescriptor) {
 		return assetDescriptor instanceof SpriterAsset;
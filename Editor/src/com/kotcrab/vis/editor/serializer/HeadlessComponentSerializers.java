@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.editor.serializer;
+
+import com.artemis.Component;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.kotcrab.vis.editor.module.project.SceneIOModule;
+import com.kotcrab.vis.runtime.component.*;
+
+/**
+ * Read only serializers used by {@link SceneIOModule#loadHeadless}. Components that normally require loaded assets (textures,
+ * fonts, particle effects, Spriter data) are read directly as their {@link ProtoComponent} so scene can be loaded on any
+ * thread without OpenGL context. Such scene can be only used for exporting. Component properties are read using the same code as
+ * normal component serializers, only reading of assets is skipped.
+ * @author Kotcrab
+ */
+public class HeadlessComponentSerializers {
+	private abstract static class HeadlessSerializer extends EntityComponentSerializer<Component> {
+		public HeadlessSerializer (Kryo kryo, Class type) {
+			super(kryo, type);
+		}
+
+		@Override
+		public void write (Kryo kryo, Output output, Component object) {
+			throw new UnsupportedOperationException("Headless serializers can't be used for writing");
+		}
+
+		@Override
+		public Component copy (Kryo kryo, Component original) {
+			throw new UnsupportedOperationException("Headless serializers can't be used for copying");
+		}
+	}
+
+	/** @see SpriteComponentSerializer */
+	public static class SpriteSerializer extends HeadlessSerializer {
+		public SpriteSerializer (Kryo kryo) {
+			super(kryo, SpriteComponent.class);
+		}
+
+		@Override
+		public Component read (Kryo kryo, Input input, Class<Component> type) {
+			super.read(kryo, input, type);
+			input.readInt(); //version code
+
+			kryo.readClassAndObject(input); //asset, exported from AssetComponent
+
+			return SpriteComponentSerializer.readProperties(kryo, input);
+		}
+	}
+
+	/** @see ParticleComponentSerializer */
+	public static class ParticleSerializer extends HeadlessSerializer {
+		public ParticleSerializer (Kryo kryo) {
+			super(kryo, ParticleComponent.class);
+		}
+
+		@Override
+		public Component read (Kryo kryo, Input input, Class<Component> type) {
+			super.read(kryo, input, type);
+			ParticleComponent component = (ParticleComponent) parentRead(kryo, input, type);
+
+			input.readInt(); //version code
+
+			kryo.readClassAndObject(input); //asset
+			input.readFloat(); //scale
+
+			return ParticleComponentSerializer.readProperties(input, component);
+		}
+	}
+
+	/** @see TextComponentSerializer */
+	public static class TextSerializer extends HeadlessSerializer {
+		public TextSerializer (Kryo kryo) {
+			super(kryo, TextComponent.class);
+		}
+
+		@Override
+		public Component read (Kryo kryo, Input input, Class<Component> type) {
+			super.read(kryo, input, type);
+			//font is not set so text layout is not calculated, all properties used by proto component are serialized
+			TextComponent component = (TextComponent) parentRead(kryo, input, type);
+
+			input.readInt(); //version code
+
+			kryo.readClassAndObject(input); //asset
+			input.readFloat(); //pixels per units
+
+			return new TextProtoComponent(component);
+		}
+	}
+
+	/** @see ShaderComponentSerializer */
+	public static class ShaderSerializer extends HeadlessSerializer {
+		public ShaderSerializer (Kryo kryo) {
+			super(kryo, ShaderComponent.class);
+		}
+
+		@Override
+		public Component read (Kryo kryo, Input input, Class<Component> type) {
+			super.read(kryo, input, type);
+			ShaderComponent component = (ShaderComponent) parentRead(kryo, input, type);
+
+			input.readInt(); //version code
+
+			return new ShaderProtoComponent(component.asset);
+		}
+	}
+
+	/** @see SpriterComponentSerializer */
+	public static class SpriterSerializer extends HeadlessSerializer {
+		public SpriterSerializer (Kryo kryo) {
+			super(kryo, SpriterComponent.class);
+		}
+
+		@Override
+		public Component read (Kryo kryo, Input input, Class<Component> type) {
+			super.read(kryo, input, type);
+			input.readInt(); //version code
+
+			kryo.readClassAndObject(input); //asset
+
+			return SpriterComponentSerializer.readProperties(input);
+		}
+	}
+}
@@ -25,6 +25,7 @@ import com.kotcrab.vis.editor.module.project.ParticleCacheModule;
 import com.kotcrab.vis.runtime.assets.VisAssetDescriptor;
 import com.kotcrab.vis.runtime.component.AssetComponent;
 import com.kotcrab.vis.runtime.component.ParticleComponent;
+import com.kotcrab.vis.runtime.component.ParticleProtoComponent;
 
 /**
  * @author Kotcrab
@@ -65,13 +66,23 @@ public class ParticleComponentSerializer extends EntityComponentSerializer<Parti
 
 		float scale = input.readFloat();
 
+		ParticleProtoComponent proto = readProperties(input, component);
 		ParticleEffect effect = getNewEffect(asset, scale);
-		effect.setPosition(input.readFloat(), input.readFloat());
+		effect.setPosition(proto.x, proto.y);
 		component.effect = effect;
 
 		return component;
 	}
 
+	/** Reads particle properties stored after scale, also used by {@link HeadlessComponentSerializers.ParticleSerializer} */
+	static ParticleProtoComponent readProperties (Input input, ParticleComponent component) {
+		ParticleProtoComponent proto = new ParticleProtoComponent();
+		proto.x = input.readFloat();
+		proto.y = input.readFloat();
+		proto.active = component.active;
+		return proto;
+	}
+
 	@Override
 	public ParticleComponent copy (Kryo kryo, ParticleComponent original) {
 		super.copy(kryo, original);
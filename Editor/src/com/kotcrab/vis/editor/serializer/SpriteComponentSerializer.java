@@ -25,6 +25,7 @@ import com.kotcrab.vis.editor.module.project.TextureCacheModule;
 import com.kotcrab.vis.runtime.assets.VisAssetDescriptor;
 import com.kotcrab.vis.runtime.component.AssetComponent;
 import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.component.SpriteProtoComponent;
 
 /**
  * Kryo serializer for {@link SpriteComponent}
@@ -75,17 +76,36 @@ public class SpriteComponentSerializer extends EntityComponentSerializer<SpriteC
 		VisAssetDescriptor asset = (VisAssetDescriptor) kryo.readClassAndObject(input);
 		SpriteComponent obj = new SpriteComponent(textureCache.getSprite(asset, 1));
 
-		obj.setPosition(input.readFloat(), input.readFloat());
-		obj.setSize(input.readFloat(), input.readFloat());
-		obj.setScale(input.readFloat(), input.readFloat());
-		obj.setOrigin(input.readFloat(), input.readFloat());
-		obj.setRotation(input.readFloat());
-		obj.setColor(kryo.readObject(input, Color.class));
-		obj.setFlip(input.readBoolean(), input.readBoolean());
+		SpriteProtoComponent proto = readProperties(kryo, input);
+		obj.setPosition(proto.x, proto.y);
+		obj.setSize(proto.width, proto.height);
+		obj.setScale(proto.scaleX, proto.scaleY);
+		obj.setOrigin(proto.originX, proto.originY);
+		obj.setRotation(proto.rotation);
+		obj.setColor(proto.tint);
+		obj.setFlip(proto.flipX, proto.flipY);
 
 		return obj;
 	}
 
+	/** Reads sprite properties stored after asset, also used by {@link HeadlessComponentSerializers.SpriteSerializer} */
+	static SpriteProtoComponent readProperties (Kryo kryo, Input input) {
+		SpriteProtoComponent proto = new SpriteProtoComponent();
+		proto.x = input.readFloat();
+		proto.y = input.readFloat();
+		proto.width = input.readFloat();
+		proto.height = input.readFloat();
+		proto.scaleX = input.readFloat();
+		proto.scaleY = input.readFloat();
+		proto.originX = input.readFloat();
+		proto.originY = input.readFloat();
+		proto.rotation = input.readFloat();
+		proto.tint = kryo.readObject(input, Color.class);
+		proto.flipX = input.readBoolean();
+		proto.flipY = input.readBoolean();
+		return proto;
+	}
+
 	@Override
 	public SpriteComponent copy (Kryo kryo, SpriteComponent original) {
 		super.copy(kryo, original);
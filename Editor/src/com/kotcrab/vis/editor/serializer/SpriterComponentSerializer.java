@@ -24,6 +24,7 @@ import com.kotcrab.vis.runtime.assets.SpriterAsset;
 import com.kotcrab.vis.runtime.component.AssetComponent;
 import com.kotcrab.vis.runtime.component.ShaderComponent;
 import com.kotcrab.vis.runtime.component.SpriterComponent;
+import com.kotcrab.vis.runtime.component.SpriterProtoComponent;
 
 /**
  * Kryo serializer for {@link SpriterComponent}
@@ -69,16 +70,25 @@ public class SpriterComponentSerializer extends EntityComponentSerializer<Sprite
 		SpriterAsset asset = (SpriterAsset) kryo.readClassAndObject(input);
 
 		SpriterComponent comp = cache.createComponent(asset, 1);
-
-		comp.setPosition(input.readFloat(), input.readFloat());
-		comp.player.setScale(input.readFloat());
-		comp.setRotation(input.readFloat());
-		comp.setFlip(input.readBoolean(), input.readBoolean());
-		comp.onDeserialize(input.readBoolean(), input.readInt());
+		readProperties(input).fill(comp);
 
 		return comp;
 	}
 
+	/** Reads Spriter properties stored after asset, also used by {@link HeadlessComponentSerializers.SpriterSerializer} */
+	static SpriterProtoComponent readProperties (Input input) {
+		SpriterProtoComponent proto = new SpriterProtoComponent();
+		proto.x = input.readFloat();
+		proto.y = input.readFloat();
+		proto.scale = input.readFloat();
+		proto.rotation = input.readFloat();
+		proto.flipX = input.readBoolean();
+		proto.flipY = input.readBoolean();
+		proto.playOnStart = input.readBoolean();
+		proto.defaultAnimation = input.readInt();
+		return proto;
+	}
+
 	@Override
 	public SpriterComponent copy (Kryo kryo, SpriterComponent original) {
 		super.copy(kryo, original);
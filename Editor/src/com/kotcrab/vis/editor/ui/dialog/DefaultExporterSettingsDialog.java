@@ -32,6 +32,7 @@ public class DefaultExporterSettingsDialog extends VisWindow {
 
 	private final VisCheckBox skipDefaultCheck;
 	private final VisCheckBox miniamlOutputCheck;
+	private final VisCheckBox binaryFormatCheck;
 
 	public DefaultExporterSettingsDialog (EditorSettingsIOModule settingsIO, DefaultExporterSettings settings) {
 		super("Settings");
@@ -70,6 +71,15 @@ public class DefaultExporterSettingsDialog extends VisWindow {
 		add(miniamlOutputCheck);
 		add(minimalOutputHelpImage).size(22).row();
 
+		binaryFormatCheck = new VisCheckBox("Use binary scene format");
+
+		VisImage binaryFormatHelpImage = new VisImage(Icons.QUESTION.drawable());
+		new Tooltip(binaryFormatHelpImage, "If checked scenes will be exported in compact binary format which loads faster\n" +
+				"than JSON, especially for large scenes. Runtime detects scene format automatically.\n" +
+				"Binary scenes can't be inspected or edited by hand.", Align.left);
+		add(binaryFormatCheck);
+		add(binaryFormatHelpImage).size(22).row();
+
 		add(buttonTable).right().colspan(2);
 
 		cancelButton.addListener(new VisChangeListener((event1, actor1) -> {
@@ -91,11 +101,13 @@ public class DefaultExporterSettingsDialog extends VisWindow {
 	private void setUIFromSettings () {
 		skipDefaultCheck.setChecked(settings.skipDefaultValues);
 		miniamlOutputCheck.setChecked(settings.useMinimalOutputType);
+		binaryFormatCheck.setChecked(settings.useBinarySceneFormat);
 	}
 
 	private void setToSettings () {
 		settings.skipDefaultValues = skipDefaultCheck.isChecked();
 		settings.useMinimalOutputType = miniamlOutputCheck.isChecked();
+		settings.useBinarySceneFormat = binaryFormatCheck.isChecked();
 		settingsIO.save(settings, DefaultExporter.SETTINGS_FILE_NAME);
 	}
 }
@@ -16,15 +16,12 @@
 
 package com.kotcrab.vis.editor.ui.scene;
 
-import com.artemis.Entity;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Touchable;
 import com.badlogic.gdx.scenes.scene2d.ui.Tree.Node;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.ObjectMap.Values;
 import com.kotcrab.vis.editor.module.scene.EntityProxyCache;
 import com.kotcrab.vis.editor.module.scene.EntityProxyCache.EntityProxyCacheListener;
 import com.kotcrab.vis.editor.module.scene.GroupProxyProviderSystem;
@@ -32,6 +29,7 @@ import com.kotcrab.vis.editor.module.scene.SceneModuleContainer;
 import com.kotcrab.vis.editor.module.scene.entitymanipulator.EntityManipulatorModule;
 import com.kotcrab.vis.editor.proxy.EntityProxy;
 import com.kotcrab.vis.editor.proxy.GroupEntityProxy;
+import com.kotcrab.vis.editor.ui.scene.SceneOutlineModel.OutlineNode;
 import com.kotcrab.vis.editor.util.gdx.EventStopper;
 import com.kotcrab.vis.ui.VisUI;
 import com.kotcrab.vis.ui.widget.VisLabel;
@@ -40,7 +38,7 @@ import com.kotcrab.vis.ui.widget.VisTable;
 import com.kotcrab.vis.ui.widget.VisTree;
 
 /**
- * Scene outline with all scene entities.
+ * Scene outline with all scene entities. Outline is updated incrementally, only nodes of changed entities are modified.
  * @author Kotcrab
  */
 public class SceneOutline extends VisTable implements EntityProxyCacheListener {
@@ -50,8 +48,8 @@ public class SceneOutline extends VisTable implements EntityProxyCacheListener {
 	private EntityProxyCache proxyCache;
 	private GroupProxyProviderSystem groupProxyProvider;
 
-	private IntArray expandedNodes = new IntArray();
 	private VisTree tree;
+	private SceneOutlineModel model;
 
 	public SceneOutline (SceneModuleContainer sceneMC, Array<EntityProxy> selectedEntities) {
 		super(true);
@@ -65,6 +63,7 @@ public class SceneOutline extends VisTable implements EntityProxyCacheListener {
 		tree.getSelection().setMultiple(true);
 		tree.getSelection().setRequired(false);
 		tree.getSelection().setProgrammaticChangeEvents(false);
+		model = new SceneOutlineModel(tree, text -> new VisLabel(text, "small"));
 
 		tree.addListener(new ClickListener() {
 			OutlineNode selection;
@@ -77,7 +76,7 @@ public class SceneOutline extends VisTable implements EntityProxyCacheListener {
 				}
 
 				if (getTapCount() == 2 && selection != null) {
-					sceneMC.getSceneTab().centerAround(selection.proxy);
+					sceneMC.getSceneTab().centerAround(getNodeProxy(selection));
 					selection = null;
 				}
 			}
@@ -95,123 +94,59 @@ public class SceneOutline extends VisTable implements EntityProxyCacheListener {
 		add(scrollPane).expand().fill();
 		pack();
 
-		cacheChanged(); //do first update
+		rebuildOutline(); //do first update
 	}
 
 	public void selectedEntitiesChanged () {
 		tree.getSelection().clear();
 		for (EntityProxy proxy : selectedEntities) {
-			highlightProxy(tree.getNodes(), proxy);
+			highlightProxy(proxy);
 		}
 	}
 
-	private boolean highlightProxy (Array<Node> nodes, EntityProxy proxy) {
-		for (Node n : nodes) {
-			OutlineNode node = (OutlineNode) n;
-			if (node.proxy.compareProxyByID(proxy)) {
-				tree.getSelection().add(n);
-				return true;
-			}
+	private void highlightProxy (EntityProxy proxy) {
+		OutlineNode node;
 
-			if (n.getChildren().size > 0) {
-				boolean wasExpanded = n.isExpanded();
-				n.setExpanded(true);
-				if (highlightProxy(n.getChildren(), proxy)) return true;
-				if (wasExpanded == false) n.setExpanded(false);
-			}
-		}
-
-		return false;
-	}
+		if (proxy instanceof GroupEntityProxy)
+			node = model.getGroupNode(((GroupEntityProxy) proxy).getGroupId());
+		else
+			node = model.getEntityNode(proxy.getEntities().first().getId());
 
-	private void buildGroupNodeState (Array<Node> nodes) {
-		for (Node n : nodes) {
-			OutlineNode node = (OutlineNode) n;
+		if (node == null) return;
 
-			if (node.getChildren().size > 0) {
-				GroupEntityProxy groupProxy = (GroupEntityProxy) node.proxy;
+		tree.getSelection().add(node);
 
-				if (node.isExpanded()) {
-					expandedNodes.add(groupProxy.getGroupId());
-				}
-
-				buildGroupNodeState(node.getChildren());
-			}
-		}
+		for (Node parent = node.getParent(); parent != null; parent = parent.getParent())
+			parent.setExpanded(true);
 	}
 
+	/** Rebuilds whole outline tree, in most cases {@link #updateOutline()} should be used instead. */
 	public void rebuildOutline () {
-		buildGroupNodeState(tree.getNodes());
-
-		tree.clearChildren();
-
-		Values<EntityProxy> proxies = proxyCache.getCache().values();
-
-		Array<Entity> ignoreEntities = new Array<>();
-
-		for (EntityProxy proxy : proxies) {
-			if (ignoreEntities.contains(proxy.getEntities().get(0), true)) {
-				continue;
-			}
-
-			int gid = proxy.getLastGroupId();
-			if (gid != -1) {
-				GroupEntityProxy groupProxy = groupProxyProvider.getGroupEntityProxy(gid);
-				ignoreEntities.addAll(groupProxy.getEntities());
-				buildTreeRecursively(groupProxy, null);
-				continue;
-			}
-
-			tree.add(new OutlineNode(proxy));
-		}
+		model.rebuild(proxyCache.getCache().values());
+	}
 
-		expandedNodes.clear();
+	/**
+	 * Synchronizes outline with {@link EntityProxyCache}. Nodes of entities that were added, removed or had their groups
+	 * changed are updated, rest of tree is not modified.
+	 */
+	public void updateOutline () {
+		model.update(proxyCache.getCache());
 	}
 
 	@Override
-	public void cacheChanged () {
-		rebuildOutline();
+	public void proxiesAdded (Array<EntityProxy> proxies) {
+		for (EntityProxy proxy : proxies)
+			model.addProxy(proxy);
 	}
 
-	private void buildTreeRecursively (GroupEntityProxy groupProxy, Node parent) {
-		OutlineNode groupRoot = new OutlineNode(groupProxy);
-		if (parent == null) {
-			tree.add(groupRoot);
-		} else {
-			parent.add(groupRoot);
-		}
-
-		if (expandedNodes.contains(groupProxy.getGroupId())) {
-			groupRoot.setExpanded(true);
-		}
-
-		Array<Entity> ignoreEntities = new Array<>();
-
-		for (Entity entity : groupProxy.getEntities()) {
-			EntityProxy proxy = proxyCache.get(entity);
-
-			if (ignoreEntities.contains(proxy.getEntities().get(0), true)) {
-				continue;
-			}
-
-			int gidBefore = proxy.getGroupIdBefore(groupProxy.getGroupId());
-			if (gidBefore != -1) {
-				GroupEntityProxy nestedGroupProxy = groupProxyProvider.getGroupEntityProxy(gidBefore);
-				ignoreEntities.addAll(nestedGroupProxy.getEntities());
-				buildTreeRecursively(nestedGroupProxy, groupRoot);
-				continue;
-			}
-
-			groupRoot.add(new OutlineNode(proxy));
-		}
+	@Override
+	public void proxiesRemoved (Array<EntityProxy> proxies) {
+		for (EntityProxy proxy : proxies)
+			model.removeProxy(proxy);
 	}
 
-	private static class OutlineNode extends Node {
-		private EntityProxy proxy;
-
-		public OutlineNode (EntityProxy proxy) {
-			super(new VisLabel(proxy.getEntityName(), "small"));
-			this.proxy = proxy;
-		}
+	private EntityProxy getNodeProxy (OutlineNode node) {
+		if (node.getProxy() != null) return node.getProxy();
+		return groupProxyProvider.getGroupEntityProxy(node.getGroupId());
 	}
 }
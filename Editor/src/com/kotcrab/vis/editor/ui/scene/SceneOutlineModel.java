@@ -0,0 +1,215 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.ui.scene;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.ui.Tree;
+import com.badlogic.gdx.scenes.scene2d.ui.Tree.Node;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.kotcrab.vis.editor.proxy.EntityProxy;
+import com.kotcrab.vis.runtime.component.GroupComponent;
+
+import java.util.function.Function;
+
+/**
+ * Maintains {@link Tree} nodes of {@link SceneOutline}. Entities are placed under nodes of their groups, group nodes are
+ * nested in the same order as groups of entity. Group nodes are created when needed and removed when they become empty.
+ * @author Kotcrab
+ */
+public class SceneOutlineModel {
+	private final Tree tree;
+	private final Function<String, Actor> labelFactory;
+
+	private IntArray expandedNodes = new IntArray();
+
+	private IntMap<OutlineNode> entityNodes = new IntMap<>();
+	private IntMap<OutlineNode> groupNodes = new IntMap<>();
+	private Array<OutlineNode> staleNodes = new Array<>();
+
+	/** @param labelFactory creates label actor of node from its text */
+	public SceneOutlineModel (Tree tree, Function<String, Actor> labelFactory) {
+		this.tree = tree;
+		this.labelFactory = labelFactory;
+	}
+
+	/** Rebuilds whole tree, expanded state of group nodes is preserved. */
+	public void rebuild (Iterable<EntityProxy> proxies) {
+		for (OutlineNode node : groupNodes.values()) {
+			if (node.isExpanded()) expandedNodes.add(node.groupId);
+		}
+
+		tree.clearChildren();
+		entityNodes.clear();
+		groupNodes.clear();
+
+		for (EntityProxy proxy : proxies)
+			addProxy(proxy);
+
+		expandedNodes.clear();
+	}
+
+	/**
+	 * Synchronizes tree with proxies cache. Nodes of entities that were added, removed or had their groups changed are
+	 * updated, rest of tree is not modified.
+	 */
+	public void update (ObjectMap<Entity, EntityProxy> proxies) {
+		for (OutlineNode node : entityNodes.values()) {
+			if (proxies.get(node.entity) != node.proxy) staleNodes.add(node);
+		}
+
+		for (OutlineNode node : staleNodes)
+			removeNode(node);
+		staleNodes.clear();
+
+		for (EntityProxy proxy : proxies.values()) {
+			OutlineNode node = entityNodes.get(proxy.getEntities().first().getId());
+			if (node == null || node.proxy != proxy || node.isGroupsChanged())
+				addProxy(proxy);
+		}
+	}
+
+	/** Adds node of proxy, if proxy entity already had node it is replaced. */
+	public void addProxy (EntityProxy proxy) {
+		Entity entity = proxy.getEntities().first();
+
+		OutlineNode oldNode = entityNodes.get(entity.getId());
+		if (oldNode != null) removeNode(oldNode);
+
+		GroupComponent groupComponent = entity.getComponent(GroupComponent.class);
+		IntArray groupIds = groupComponent == null ? new IntArray(0) : new IntArray(groupComponent.groupIds);
+
+		//last group id is the outermost group
+		OutlineNode parent = null;
+		for (int i = groupIds.size - 1; i >= 0; i--)
+			parent = getOrCreateGroupNode(groupIds.get(i), parent);
+
+		OutlineNode node = new OutlineNode(labelFactory.apply(proxy.getEntityName()), proxy, entity, groupIds);
+		entityNodes.put(entity.getId(), node);
+		addNode(node, parent);
+	}
+
+	/** Removes node of proxy if it exists. */
+	public void removeProxy (EntityProxy proxy) {
+		OutlineNode node = entityNodes.get(proxy.getEntities().first().getId());
+		if (node != null && node.proxy == proxy) removeNode(node);
+	}
+
+	/** @return node of entity or null if entity has no node */
+	public OutlineNode getEntityNode (int entityId) {
+		return entityNodes.get(entityId);
+	}
+
+	/** @return node of group or null if group has no node */
+	public OutlineNode getGroupNode (int groupId) {
+		return groupNodes.get(groupId);
+	}
+
+	private OutlineNode getOrCreateGroupNode (int gid, OutlineNode parent) {
+		OutlineNode node = groupNodes.get(gid);
+
+		if (node == null) {
+			node = new OutlineNode(labelFactory.apply("Group"), gid);
+			groupNodes.put(gid, node);
+			addNode(node, parent);
+
+			if (expandedNodes.contains(gid)) node.setExpanded(true);
+		} else if (node.getParent() != parent) {
+			//group was nested into other group or its outer group was removed, node is moved with all of its children
+			Node oldParent = node.getParent();
+			removeFromParent(node);
+			addNode(node, parent);
+			removeEmptyGroups(oldParent);
+		}
+
+		return node;
+	}
+
+	private void addNode (OutlineNode node, Node parent) {
+		if (parent == null)
+			tree.add(node);
+		else
+			parent.add(node);
+	}
+
+	private void removeNode (OutlineNode node) {
+		entityNodes.remove(node.entity.getId());
+
+		Node parent = node.getParent();
+		removeFromParent(node);
+		removeEmptyGroups(parent);
+	}
+
+	/** Removes given group node and its parents if they don't have any children */
+	private void removeEmptyGroups (Node parent) {
+		while (parent != null && parent.getChildren().size == 0) {
+			OutlineNode groupNode = (OutlineNode) parent;
+			parent = groupNode.getParent();
+			groupNodes.remove(groupNode.groupId);
+			removeFromParent(groupNode);
+		}
+	}
+
+	private void removeFromParent (Node node) {
+		if (node.getParent() == null)
+			tree.remove(node);
+		else
+			node.getParent().remove(node);
+	}
+
+	public static class OutlineNode extends Node {
+		private EntityProxy proxy;
+		private Entity entity;
+		private IntArray groupIds;
+
+		private int groupId = -1;
+
+		/** Creates entity node */
+		OutlineNode (Actor label, EntityProxy proxy, Entity entity, IntArray groupIds) {
+			super(label);
+			this.proxy = proxy;
+			this.entity = entity;
+			this.groupIds = groupIds;
+		}
+
+		/** Creates group node */
+		OutlineNode (Actor label, int groupId) {
+			super(label);
+			this.groupId = groupId;
+		}
+
+		boolean isGroupsChanged () {
+			GroupComponent groupComponent = entity.getComponent(GroupComponent.class);
+			if (groupComponent == null) return groupIds.size != 0;
+			return groupIds.equals(groupComponent.groupIds) == false;
+		}
+
+		/** @return proxy of entity or null if this is group node */
+		public EntityProxy getProxy () {
+			return proxy;
+		}
+
+		/** @return id of group or -1 if this is entity node */
+		public int getGroupId () {
+			return groupId;
+		}
+	}
+}
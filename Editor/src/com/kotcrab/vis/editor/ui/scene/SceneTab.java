@@ -256,6 +256,8 @@ public class SceneTab extends MainContentTab implements DragAndDropTarget, Close
 		if ((event.resourceType & ResourceReloadedEvent.RESOURCE_SPRITER_DATA) != 0) {
 			sceneMC.getEntityEngine().getManager(SpriterReloaderManager.class).reloadSpriterData();
 		}
+
+		sceneMC.getEntityEngine().getManager(EntitySpatialIndex.class).invalidate();
 	}
 
 	@Subscribe
@@ -306,7 +308,7 @@ public class SceneTab extends MainContentTab implements DragAndDropTarget, Close
 
 	@Subscribe
 	public void handleUndoEvent (UndoEvent event) {
-		if (event.origin == sceneMC && undoModule.getUndoSize() == 0 && savedAtLeastOnce == false) {
+		if (event.origin == sceneMC && undoModule.getUndoSize() == 0 && undoModule.isHistoryTruncated() == false && savedAtLeastOnce == false) {
 			setDirty(false);
 		}
 	}
@@ -319,15 +321,14 @@ public class SceneTab extends MainContentTab implements DragAndDropTarget, Close
 			FileHandle sceneFile = sceneIOModule.getFileHandleForScene(scene);
 			FileHandle backupTarget = sceneIOModule.getSceneBackupFolder().child(scene.path);
 
-			if (lastSaveFailed == false) {
-				sceneFile.copyTo(backupTarget.sibling(sceneFile.name() + ".bak"));
-			}
-
 			if (savedAtLeastOnce == false) {
 				sceneFile.copyTo(backupTarget.sibling(sceneFile.name() + ".firstSaveBak"));
 			}
 
-			if (sceneIOModule.save(scene)) {
+			//old scene file is linked to backup right before new one replaces it, no need to copy it
+			FileHandle backupFile = lastSaveFailed ? null : backupTarget.sibling(sceneFile.name() + ".bak");
+
+			if (sceneIOModule.save(scene, backupFile)) {
 				setDirty(false);
 				sceneMC.save();
 				savedAtLeastOnce = true;
@@ -347,6 +348,12 @@ public class SceneTab extends MainContentTab implements DragAndDropTarget, Close
 		return false;
 	}
 
+	/** Takes snapshot of current scene state that can be written to disk later, see {@link SceneAutosaveModule} */
+	public byte[] createAutosaveSnapshot () {
+		scene.setSchemes(entityProxyCache.getSchemes());
+		return sceneIOModule.serialize(scene);
+	}
+
 	@Override
 	public void dispose () {
 		sceneMC.dispose();
@@ -17,6 +17,7 @@
 package com.kotcrab.vis.editor.ui.scene.entityproperties;
 
 import com.artemis.Component;
+import com.artemis.Entity;
 import com.artemis.EntityEdit;
 import com.artemis.utils.Bag;
 import com.badlogic.gdx.Gdx;
@@ -35,6 +36,7 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Array.ArrayIterable;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.google.common.eventbus.Subscribe;
 import com.kotcrab.vis.editor.App;
 import com.kotcrab.vis.editor.Log;
@@ -82,8 +84,8 @@ import com.kotcrab.vis.ui.widget.color.ColorPicker;
 import com.kotcrab.vis.ui.widget.color.ColorPickerAdapter;
 import com.kotcrab.vis.ui.widget.color.ColorPickerListener;
 import com.kotcrab.vis.ui.widget.tabbedpane.Tab;
-import org.apache.commons.lang3.builder.EqualsBuilder;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -720,57 +722,123 @@ public class EntityProperties extends VisTable implements Disposable {
 		}
 	}
 
+	/**
+	 * Stores entity components that has changed between two snapshots. Components are compared and stored in serialized
+	 * form, unchanged components are not retained at all.
+	 */
 	private class SnapshotUndoableAction implements UndoableAction {
 		private EntityProxy proxy;
 
-		private IntMap<Bag<Component>> snapshot1 = new IntMap<>();
-		private IntMap<Bag<Component>> snapshot2 = new IntMap<>();
+		/** Serialized components of entities when first snapshot was taken, released after taking second snapshot */
+		private IntMap<ObjectMap<Class, byte[]>> firstSnapshot;
+		private Array<ComponentDelta> deltas = new Array<>();
 
 		public SnapshotUndoableAction (EntityProxy proxy) {
 			this.proxy = proxy;
-			createSnapshot(snapshot1);
+			firstSnapshot = createSnapshot();
 		}
 
 		public void takeSecondSnapshot () {
-			createSnapshot(snapshot2);
+			IntMap<ObjectMap<Class, byte[]>> secondSnapshot = createSnapshot();
+
+			for (IntMap.Entry<ObjectMap<Class, byte[]>> entry : secondSnapshot) {
+				ObjectMap<Class, byte[]> oldComponents = firstSnapshot.get(entry.key, new ObjectMap<>());
+
+				for (ObjectMap.Entry<Class, byte[]> component : entry.value) {
+					byte[] oldData = oldComponents.remove(component.key);
+					if (Arrays.equals(oldData, component.value) == false)
+						deltas.add(new ComponentDelta(entry.key, component.key, oldData, component.value));
+				}
+
+				//components that no longer exist
+				for (ObjectMap.Entry<Class, byte[]> component : oldComponents)
+					deltas.add(new ComponentDelta(entry.key, component.key, component.value, null));
+			}
+
+			firstSnapshot = null;
 		}
 
-		private void createSnapshot (IntMap<Bag<Component>> target) {
-			proxy.getEntities().forEach(entity -> target.put(entity.getId(), sceneIO.cloneEntityComponents(entity.getComponents(new Bag<>()))));
+		private IntMap<ObjectMap<Class, byte[]>> createSnapshot () {
+			IntMap<ObjectMap<Class, byte[]>> snapshot = new IntMap<>();
+
+			for (Entity entity : proxy.getEntities()) {
+				Bag<Component> components = entity.getComponents(new Bag<>());
+				ObjectMap<Class, byte[]> serializedComponents = new ObjectMap<>(components.size());
+
+				for (Component component : components) {
+					if (component instanceof InvisibleComponent) continue;
+					serializedComponents.put(component.getClass(), sceneIO.serializeComponent(components, component));
+				}
+
+				snapshot.put(entity.getId(), serializedComponents);
+			}
+
+			return snapshot;
 		}
 
 		public boolean isSnapshotsEquals () {
-			return EqualsBuilder.reflectionEquals(snapshot1, snapshot2, true);
+			return deltas.size == 0;
 		}
 
 		@Override
 		public void execute () {
 			proxy.reload();
-			replaceComponents(snapshot2);
+			replaceComponents(false);
 		}
 
 		@Override
 		public void undo () {
 			proxy.reload();
-			replaceComponents(snapshot1);
+			replaceComponents(true);
 		}
 
-		private void replaceComponents (IntMap<Bag<Component>> source) {
-			proxy.getEntities().forEach(entity -> {
-				Bag<Component> oldComponents = new Bag<>();
-				entity.getComponents(oldComponents);
-				EntityEdit editor = entity.edit();
-				oldComponents.forEach(editor::remove);
+		private void replaceComponents (boolean undo) {
+			for (Entity entity : proxy.getEntities()) {
+				EntityEdit editor = null;
+
+				for (ComponentDelta delta : deltas) {
+					if (delta.entityId != entity.getId()) continue;
+					if (editor == null) editor = entity.edit();
+
+					editor.remove(delta.componentClass);
+					byte[] data = undo ? delta.oldData : delta.newData;
+					if (data != null) editor.add(sceneIO.deserializeComponent(data));
+				}
+			}
 
-				Bag<Component> newComponent = source.get(entity.getId());
-				newComponent.forEach(editor::add);
-			});
 			proxy.reload();
 		}
 
+		@Override
+		public long getRetainedSize () {
+			long size = 64;
+			for (ComponentDelta delta : deltas)
+				size += delta.getRetainedSize();
+			return size;
+		}
+
 		@Override
 		public String getActionName () {
 			return "Change Entity Property";
 		}
 	}
+
+	private static class ComponentDelta {
+		final int entityId;
+		final Class<? extends Component> componentClass;
+		/** Serialized component before and after change, null if component didn't exist */
+		final byte[] oldData;
+		final byte[] newData;
+
+		public ComponentDelta (int entityId, Class<? extends Component> componentClass, byte[] oldData, byte[] newData) {
+			this.entityId = entityId;
+			this.componentClass = componentClass;
+			this.oldData = oldData;
+			this.newData = newData;
+		}
+
+		public int getRetainedSize () {
+			return 32 + (oldData == null ? 0 : oldData.length) + (newData == null ? 0 : newData.length);
+		}
+	}
 }
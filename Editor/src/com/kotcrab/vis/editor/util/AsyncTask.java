@@ -97,11 +97,12 @@ public abstract class AsyncTask {
 		}
 	}
 
-	public int getProgressPercent () {
+	public synchronized int getProgressPercent () {
 		return progressPercent;
 	}
 
-	public void setProgressPercent (int progressPercent) {
+	/** May be called from any thread, listener is notified on calling thread */
+	public synchronized void setProgressPercent (int progressPercent) {
 		this.progressPercent = progressPercent;
 		if (listener != null) listener.progressChanged(progressPercent);
 	}
@@ -110,11 +111,12 @@ public abstract class AsyncTask {
 		this.runnable = runnable;
 	}
 
-	public String getMessage () {
+	public synchronized String getMessage () {
 		return message;
 	}
 
-	public void setMessage (String message) {
+	/** May be called from any thread, listener is notified on calling thread */
+	public synchronized void setMessage (String message) {
 		this.message = message;
 		if (listener != null) listener.messageChanged(message);
 	}
@@ -25,8 +25,11 @@ import com.kotcrab.vis.editor.util.vis.CancelableConsumer;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 /**
  * File related utils.
@@ -116,6 +119,39 @@ public class FileUtils {
 		return builder.toString();
 	}
 
+	/** @return file that can be used to write new content of provided file before calling {@link #replaceAtomically(FileHandle, FileHandle)} */
+	public static FileHandle tempSibling (FileHandle file) {
+		return file.sibling(file.name() + ".tmp");
+	}
+
+	/**
+	 * Moves source file in place of target file. If file system supports it move is atomic so target file is never
+	 * left partially written, otherwise target is simply replaced.
+	 */
+	public static void replaceAtomically (FileHandle source, FileHandle target) throws IOException {
+		try {
+			Files.move(source.file().toPath(), target.file().toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.file().toPath(), target.file().toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Creates backup of file without removing or modifying it, so file is never missing. Backup is created as hard link if
+	 * file system supports it, otherwise file is copied. Existing backup file is replaced.
+	 */
+	public static void createBackup (FileHandle file, FileHandle backupFile) throws IOException {
+		Path source = file.file().toPath();
+		Path target = backupFile.file().toPath();
+		Files.deleteIfExists(target);
+
+		try {
+			Files.createLink(target, source);
+		} catch (UnsupportedOperationException | IOException e) {
+			Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
 	public static String relativize (FileHandle base, String absolute) {
 		Path pathAbsolute = Paths.get(absolute);
 		Path pathBase = Paths.get(base.path());
@@ -31,7 +31,7 @@ public abstract class SteppedAsyncTask extends AsyncTask {
 		setProgressPercent(0);
 	}
 
-	protected void nextStep () {
+	protected synchronized void nextStep () {
 		setProgressPercent(++step * 100 / totalSteps);
 	}
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.editor.util.undo;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * Undo and redo lists with memory budget. Each action reports its retained size (see {@link UndoableAction#getRetainedSize()}),
+ * when total retained size exceeds budget oldest undoable actions are evicted. Most recent action is never evicted.
+ * @author Kotcrab
+ */
+public class UndoHistory {
+	private final Array<UndoableAction> undoList = new Array<>();
+	private final Array<UndoableAction> redoList = new Array<>();
+
+	/** Retained sizes of actions, kept in parallel to undo and redo lists */
+	private final LongArray undoSizes = new LongArray();
+	private final LongArray redoSizes = new LongArray();
+
+	private long memoryBudget;
+	private long retainedSize;
+	private int evictedCount;
+
+	public UndoHistory (long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+
+	/** Adds already executed action to history, clears redo list */
+	public void add (UndoableAction action) {
+		for (int i = 0; i < redoSizes.size; i++)
+			retainedSize -= redoSizes.get(i);
+		redoList.clear();
+		redoSizes.clear();
+
+		push(undoList, undoSizes, action);
+		evict();
+	}
+
+	/** @return true if action was undone, false if there was nothing to undo */
+	public boolean undo () {
+		if (undoList.size == 0) return false;
+
+		UndoableAction action = undoList.pop();
+		retainedSize -= undoSizes.pop();
+		action.undo();
+		push(redoList, redoSizes, action);
+		return true;
+	}
+
+	/** @return true if action was redone, false if there was nothing to redo */
+	public boolean redo () {
+		if (redoList.size == 0) return false;
+
+		UndoableAction action = redoList.pop();
+		retainedSize -= redoSizes.pop();
+		action.execute();
+		push(undoList, undoSizes, action);
+		evict();
+		return true;
+	}
+
+	private void push (Array<UndoableAction> list, LongArray sizes, UndoableAction action) {
+		//size is measured when action enters list because executing or undoing action may change it
+		long size = action.getRetainedSize();
+		list.add(action);
+		sizes.add(size);
+		retainedSize += size;
+	}
+
+	private void evict () {
+		while (retainedSize > memoryBudget && undoList.size > 1) {
+			undoList.removeIndex(0);
+			retainedSize -= undoSizes.removeIndex(0);
+			evictedCount++;
+		}
+	}
+
+	public void setMemoryBudget (long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		evict();
+	}
+
+	public long getMemoryBudget () {
+		return memoryBudget;
+	}
+
+	/** @return sum of retained sizes of all actions in undo and redo lists */
+	public long getRetainedSize () {
+		return retainedSize;
+	}
+
+	/** @return number of actions that were evicted from this history because of memory budget */
+	public int getEvictedCount () {
+		return evictedCount;
+	}
+
+	public int getUndoSize () {
+		return undoList.size;
+	}
+
+	public int getRedoSize () {
+		return redoList.size;
+	}
+
+	/** @return next action that would be undone or null if there is none */
+	public UndoableAction peekUndo () {
+		return undoList.size == 0 ? null : undoList.peek();
+	}
+}
@@ -32,4 +32,13 @@ public interface UndoableAction {
 	default String getActionName () {
 		return null;
 	}
+
+	/**
+	 * @return approximate number of bytes retained by this action, used by {@link UndoHistory} to keep history within its
+	 * memory budget. Default implementation returns small constant suitable for actions storing only few values, actions
+	 * storing entities or components state should override it.
+	 */
+	default long getRetainedSize () {
+		return 64;
+	}
 }
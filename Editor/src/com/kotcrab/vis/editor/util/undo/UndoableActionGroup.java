@@ -91,6 +91,14 @@ public class UndoableActionGroup implements UndoableAction {
 		add(action);
 	}
 
+	@Override
+	public long getRetainedSize () {
+		long size = 64;
+		for (UndoableAction action : actions)
+			size += action.getRetainedSize();
+		return size;
+	}
+
 	@Override
 	public String getActionName () {
 		return size() == 1 ? singularActionName : pluralActionName;
@@ -21,6 +21,7 @@ import com.artemis.Entity;
 import com.artemis.InvocationStrategy;
 import com.artemis.utils.Bag;
 import com.artemis.utils.EntityBuilder;
+import com.badlogic.gdx.utils.Array;
 import com.kotcrab.vis.editor.entity.UUIDComponent;
 import com.kotcrab.vis.editor.module.project.SceneIOModule;
 import com.kotcrab.vis.editor.util.NoneInvocationStrategy;
@@ -28,7 +29,8 @@ import com.kotcrab.vis.runtime.util.EntityEngine;
 
 /**
  * Entity blueprint that can be used to create clones of entity. Linked to specified {@link EntityEngine} and cannot
- * be used outside current scene. ProtoEntity instances should be obtained from {@link SceneIOModule#createProtoEntity(EntityEngine, Entity, boolean)}
+ * be used outside current scene. Entity components are stored in serialized form. ProtoEntity instances should be obtained
+ * from {@link SceneIOModule#createProtoEntity(EntityEngine, Entity, boolean)}
  * @author Kotcrab
  */
 public class ProtoEntity {
@@ -39,21 +41,53 @@ public class ProtoEntity {
 	private EntityEngine entityEngine;
 	private boolean preserveUUID;
 
-	private Bag<Component> components = new Bag<>();
+	private byte[] components;
 
 	public ProtoEntity (SceneIOModule sceneIOModule, EntityEngine entityEngine, Entity entity, boolean preserveUUID) {
 		this.sceneIOModule = sceneIOModule;
 		this.entityEngine = entityEngine;
 		this.preserveUUID = preserveUUID;
 
-		entity.getComponents(components);
-		components = sceneIOModule.cloneEntityComponents(components);
+		this.components = sceneIOModule.serializeComponents(entity.getComponents(new Bag<>()));
 	}
 
 	public Entity build () {
+		EntityBuilder builder = createBuilder();
+		registerComponents(entityEngine);
+		return builder.build();
+	}
+
+	/**
+	 * Builds entities from all proto entities using single entity engine pass, this is much faster than calling {@link #build()}
+	 * for each proto entity separately. All proto entities must be linked to the same {@link EntityEngine}.
+	 * @return built entities in the same order as proto entities
+	 */
+	public static Array<Entity> build (Array<ProtoEntity> protoEntities) {
+		Array<Entity> entities = new Array<>(protoEntities.size);
+		if (protoEntities.size == 0) return entities;
+
+		EntityEngine entityEngine = protoEntities.first().entityEngine;
+
+		Array<EntityBuilder> builders = new Array<>(protoEntities.size);
+		for (ProtoEntity protoEntity : protoEntities) {
+			if (protoEntity.entityEngine != entityEngine)
+				throw new IllegalArgumentException("All proto entities must be linked to the same EntityEngine");
+
+			builders.add(protoEntity.createBuilder());
+		}
+
+		registerComponents(entityEngine);
+
+		for (EntityBuilder builder : builders)
+			entities.add(builder.build());
+
+		return entities;
+	}
+
+	private EntityBuilder createBuilder () {
 		EntityBuilder builder = new EntityBuilder(entityEngine);
 
-		Bag<Component> components = sceneIOModule.cloneEntityComponents(this.components);
+		Bag<Component> components = sceneIOModule.deserializeComponents(this.components);
 
 		components.forEach((component) -> {
 			if (preserveUUID == false && component instanceof UUIDComponent) {
@@ -63,10 +97,18 @@ public class ProtoEntity {
 			}
 		});
 
+		return builder;
+	}
+
+	/** Makes sure that entity components will be registered so they can be retrieved, instantly after entity creation */
+	private static void registerComponents (EntityEngine entityEngine) {
 		entityEngine.setInvocationStrategy(noneInvStrategy);
-		entityEngine.process(); //makes sure that entity components will be registered so they can be retrieved, instantly after entity creation
+		entityEngine.process();
 		entityEngine.setInvocationStrategy(stdInvStrategy);
+	}
 
-		return builder.build();
+	/** @return size of serialized entity components in bytes */
+	public int getRetainedSize () {
+		return components.length;
 	}
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.kotcrab.vis.editor.entity.UUIDComponent;
+import com.kotcrab.vis.editor.module.scene.EntityProxyCache;
+import com.kotcrab.vis.editor.module.scene.EntitySpatialIndex;
+import com.kotcrab.vis.editor.proxy.EntityProxy;
+import com.kotcrab.vis.editor.proxy.SpriteProxy;
+import com.kotcrab.vis.runtime.component.LayerComponent;
+import com.kotcrab.vis.runtime.component.RenderableComponent;
+import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class EntitySpatialIndexTest {
+	/** Index cell size is 256 pixels, with 1 pixel per unit entity bigger than 8 cells in both axes is not stored in grid */
+	private static final float LARGE_ENTITY_SIZE = 3000;
+	private static final float WORLD_SIZE = 4000;
+
+	private EntityEngine engine;
+	private EntityProxyCache proxyCache;
+	private EntitySpatialIndex spatialIndex;
+	private Array<Entity> entities = new Array<>();
+	private Random random;
+
+	@Before
+	public void setUp () {
+		EntityEngineConfiguration config = new EntityEngineConfiguration();
+		config.setManager(proxyCache = new EntityProxyCache(1));
+		config.setManager(spatialIndex = new EntitySpatialIndex(1));
+		engine = new EntityEngine(config);
+		random = new Random(42);
+	}
+
+	@Test
+	public void testAreaQueryMatchesBruteForce () {
+		createRandomEntities(500, 20);
+
+		for (int i = 0; i < 200; i++)
+			assertAreaQuery(randomArea());
+	}
+
+	@Test
+	public void testPointQueryMatchesBruteForce () {
+		createRandomEntities(500, 20);
+
+		for (int i = 0; i < 500; i++)
+			assertPointQuery(randomCoordinate(), randomCoordinate());
+	}
+
+	@Test
+	public void testQueryCoveringWholeIndex () {
+		createRandomEntities(200, 5);
+
+		assertAreaQuery(new Rectangle(-WORLD_SIZE * 2, -WORLD_SIZE * 2, WORLD_SIZE * 4, WORLD_SIZE * 4));
+	}
+
+	@Test
+	public void testLargeEntitiesSpanningTooManyCells () {
+		Entity large = createSprite(-1500, -1500, LARGE_ENTITY_SIZE, LARGE_ENTITY_SIZE);
+		createSprite(0, 0, 10, 10);
+
+		assertAreaQuery(new Rectangle(1400, 1400, 10, 10));
+		assertPointQuery(1490, -1490);
+		assertPointQuery(5, 5);
+
+		//large entity shrinks and is stored in grid
+		getSprite(large).setSize(100, 100);
+		spatialIndex.markDirty(large);
+		assertAreaQuery(new Rectangle(1400, 1400, 10, 10));
+		assertPointQuery(-1450, -1450);
+
+		//and grows again
+		getSprite(large).setSize(LARGE_ENTITY_SIZE, LARGE_ENTITY_SIZE);
+		spatialIndex.markDirty(large);
+		assertAreaQuery(new Rectangle(1400, 1400, 10, 10));
+	}
+
+	@Test
+	public void testMovedEntitiesAfterMarkDirty () {
+		createRandomEntities(300, 10);
+
+		for (int i = 0; i < 100; i++) {
+			Entity entity = entities.get(random.nextInt(entities.size));
+			getSprite(entity).setPosition(randomCoordinate(), randomCoordinate());
+			spatialIndex.markDirty(entity);
+		}
+
+		for (int i = 0; i < 100; i++)
+			assertAreaQuery(randomArea());
+	}
+
+	@Test
+	public void testMovedEntitiesAfterInvalidate () {
+		createRandomEntities(300, 10);
+		assertAreaQuery(randomArea());
+
+		for (Entity entity : entities)
+			getSprite(entity).setPosition(randomCoordinate(), randomCoordinate());
+		spatialIndex.invalidate();
+
+		for (int i = 0; i < 100; i++)
+			assertAreaQuery(randomArea());
+	}
+
+	@Test
+	public void testDynamicBoundsAreCheckedOnEveryQuery () {
+		createRandomEntities(200, 0);
+
+		Array<Entity> dynamicEntities = new Array<>();
+		for (int i = 0; i < 20; i++) {
+			Entity entity = createSprite(randomCoordinate(), randomCoordinate(), 50, 50);
+			proxyCache.getCache().put(entity, new DynamicSpriteProxy(entity));
+			dynamicEntities.add(entity);
+		}
+
+		assertAreaQuery(randomArea());
+
+		for (int i = 0; i < 10; i++) {
+			//bounds are changed without notifying index, like particle effect or animation would do
+			for (Entity entity : dynamicEntities)
+				getSprite(entity).setPosition(randomCoordinate(), randomCoordinate());
+
+			for (int j = 0; j < 20; j++) {
+				assertAreaQuery(randomArea());
+				assertPointQuery(randomCoordinate(), randomCoordinate());
+			}
+		}
+	}
+
+	@Test
+	public void testRemovedEntities () {
+		createRandomEntities(300, 10);
+		assertAreaQuery(randomArea());
+
+		for (int i = 0; i < 150; i++) {
+			Entity entity = entities.removeIndex(random.nextInt(entities.size));
+			entity.deleteFromWorld();
+		}
+		engine.process();
+
+		for (int i = 0; i < 100; i++)
+			assertAreaQuery(randomArea());
+	}
+
+	private void assertAreaQuery (Rectangle area) {
+		IntArray expected = new IntArray();
+		for (Entity entity : entities) {
+			Rectangle bounds = proxyCache.get(entity).getBoundingRectangle();
+			if (bounds.x <= area.x + area.width && bounds.x + bounds.width >= area.x &&
+					bounds.y <= area.y + area.height && bounds.y + bounds.height >= area.y)
+				expected.add(entity.getId());
+		}
+
+		assertEquals("Query area: " + area, sorted(expected), toSortedIds(spatialIndex.query(area, new Array<>())));
+	}
+
+	private void assertPointQuery (float x, float y) {
+		IntArray expected = new IntArray();
+		for (Entity entity : entities) {
+			if (proxyCache.get(entity).getBoundingRectangle().contains(x, y))
+				expected.add(entity.getId());
+		}
+
+		assertEquals("Query point: " + x + ", " + y, sorted(expected), toSortedIds(spatialIndex.query(x, y, new Array<>())));
+	}
+
+	private IntArray toSortedIds (Array<EntityProxy> proxies) {
+		IntArray ids = new IntArray(proxies.size);
+		for (EntityProxy proxy : proxies)
+			ids.add(proxy.getEntities().first().getId());
+		return sorted(ids);
+	}
+
+	private IntArray sorted (IntArray array) {
+		array.sort();
+		return array;
+	}
+
+	private void createRandomEntities (int count, int largeCount) {
+		for (int i = 0; i < count; i++)
+			createSprite(randomCoordinate(), randomCoordinate(), 1 + random.nextFloat() * 300, 1 + random.nextFloat() * 300);
+
+		for (int i = 0; i < largeCount; i++)
+			createSprite(randomCoordinate(), randomCoordinate(), LARGE_ENTITY_SIZE, LARGE_ENTITY_SIZE);
+	}
+
+	private Entity createSprite (float x, float y, float width, float height) {
+		Sprite sprite = new Sprite();
+		sprite.setBounds(x, y, width, height);
+
+		Entity entity = engine.createEntity();
+		entity.edit()
+				.add(new SpriteComponent(sprite))
+				.add(new LayerComponent(0))
+				.add(new RenderableComponent(0))
+				.add(new UUIDComponent());
+		engine.process();
+
+		entities.add(entity);
+		return entity;
+	}
+
+	private Sprite getSprite (Entity entity) {
+		return entity.getComponent(SpriteComponent.class).sprite;
+	}
+
+	private Rectangle randomArea () {
+		float size = random.nextFloat() < 0.2f ? random.nextFloat() * WORLD_SIZE : random.nextFloat() * 500;
+		return new Rectangle(randomCoordinate(), randomCoordinate(), size, random.nextFloat() * size);
+	}
+
+	private float randomCoordinate () {
+		return (random.nextFloat() - 0.5f) * WORLD_SIZE;
+	}
+
+	private static class DynamicSpriteProxy extends SpriteProxy {
+		public DynamicSpriteProxy (Entity entity) {
+			super(entity);
+		}
+
+		@Override
+		public boolean hasDynamicBounds () {
+			return true;
+		}
+	}
+}
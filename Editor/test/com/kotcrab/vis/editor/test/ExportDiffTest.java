@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.badlogic.gdx.utils.ObjectMap;
+import com.kotcrab.vis.editor.module.project.DefaultExporter.ExportManifest;
+import com.kotcrab.vis.editor.module.project.ExportDiff;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** @author Kotcrab */
+public class ExportDiffTest {
+	private static final String SETTINGS = "1:true:false:true";
+
+	private ObjectMap<String, String> inputs;
+
+	@Before
+	public void setUp () {
+		inputs = new ObjectMap<>();
+		inputs.put("gfx/player.png", "100:10");
+		inputs.put("gfx/ui/button.png", "100:20");
+		inputs.put("sound/jump.wav", "100:30");
+		inputs.put("music/theme.ogg", "100:40");
+		inputs.put("scene/level1.scene", "100:50");
+		inputs.put("scene/level2.scene", "100:60");
+	}
+
+	@Test
+	public void testNothingChanged () {
+		ExportDiff diff = ExportDiff.compute(manifest(SETTINGS), SETTINGS, inputs);
+
+		assertFalse(diff.fullExportRequired);
+		assertFalse(diff.texturesChanged);
+		assertEquals(0, diff.changedAssets.size);
+		assertEquals(0, diff.changedScenes.size);
+		assertEquals(0, diff.removedOutputs.size);
+	}
+
+	@Test
+	public void testChangedAsset () {
+		ExportManifest manifest = manifest(SETTINGS);
+		inputs.put("sound/jump.wav", "200:30");
+		inputs.put("sound/new.wav", "200:35");
+
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		assertFalse(diff.texturesChanged);
+		assertEquals(2, diff.changedAssets.size);
+		assertTrue(diff.changedAssets.contains("sound/jump.wav", false));
+		assertTrue(diff.changedAssets.contains("sound/new.wav", false));
+		assertEquals(0, diff.removedOutputs.size);
+	}
+
+	@Test
+	public void testRemovedAsset () {
+		ExportManifest manifest = manifest(SETTINGS);
+		inputs.remove("music/theme.ogg");
+
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		assertFalse(diff.texturesChanged);
+		assertEquals(0, diff.changedAssets.size);
+		assertEquals(1, diff.removedOutputs.size);
+		assertEquals("music/theme.ogg", diff.removedOutputs.first());
+	}
+
+	@Test
+	public void testRemovedTexture () {
+		ExportManifest manifest = manifest(SETTINGS);
+		inputs.remove("gfx/ui/button.png");
+
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		//textures are packed into single atlas, removed texture has no output of its own
+		assertTrue(diff.texturesChanged);
+		assertEquals(0, diff.removedOutputs.size);
+		assertEquals(0, diff.changedAssets.size);
+	}
+
+	@Test
+	public void testChangedTexture () {
+		ExportManifest manifest = manifest(SETTINGS);
+		inputs.put("gfx/player.png", "200:10");
+
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		assertTrue(diff.texturesChanged);
+		assertEquals(0, diff.changedAssets.size);
+	}
+
+	@Test
+	public void testChangedScene () {
+		ExportManifest manifest = manifest(SETTINGS);
+		inputs.put("scene/level2.scene", "200:60");
+		//only scene files are exported from scene directory
+		inputs.put("scene/notes.txt", "200:1");
+
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		assertFalse(diff.texturesChanged);
+		assertEquals(1, diff.changedScenes.size);
+		assertEquals("scene/level2.scene", diff.changedScenes.first());
+		assertEquals(0, diff.changedAssets.size);
+	}
+
+	@Test
+	public void testSettingsChangeRequiresFullExport () {
+		ExportDiff diff = ExportDiff.compute(manifest("1:false:false:true"), SETTINGS, inputs);
+		assertTrue(diff.fullExportRequired);
+	}
+
+	@Test
+	public void testMissingManifestRequiresFullExport () {
+		assertTrue(ExportDiff.compute(null, SETTINGS, inputs).fullExportRequired);
+	}
+
+	@Test
+	public void testFailedCopyExportedAgain () {
+		//copy of changed asset failed during previous export so it was not recorded in manifest
+		ObjectMap<String, String> exported = new ObjectMap<>(inputs);
+		exported.remove("sound/jump.wav");
+
+		ExportManifest manifest = new ExportManifest();
+		manifest.settings = SETTINGS;
+		manifest.inputs = exported;
+
+		inputs.put("sound/jump.wav", "200:30");
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		assertEquals(1, diff.changedAssets.size);
+		assertEquals("sound/jump.wav", diff.changedAssets.first());
+		assertEquals(0, diff.removedOutputs.size);
+	}
+
+	@Test
+	public void testFailedDirectoryCopyExportedAgain () {
+		inputs.put("sound/ui/click.wav", "100:70");
+		ObjectMap<String, String> exported = new ObjectMap<>(inputs);
+		ExportDiff.removeInputs(exported, "sound/");
+		assertFalse(exported.containsKey("sound/jump.wav"));
+		assertFalse(exported.containsKey("sound/ui/click.wav"));
+		assertTrue(exported.containsKey("music/theme.ogg"));
+
+		ExportManifest manifest = new ExportManifest();
+		manifest.settings = SETTINGS;
+		manifest.inputs = exported;
+
+		ExportDiff diff = ExportDiff.compute(manifest, SETTINGS, inputs);
+		assertEquals(2, diff.changedAssets.size);
+		assertTrue(diff.changedAssets.contains("sound/jump.wav", false));
+		assertTrue(diff.changedAssets.contains("sound/ui/click.wav", false));
+	}
+
+	/** @return manifest describing export of current inputs */
+	private ExportManifest manifest (String settings) {
+		ExportManifest manifest = new ExportManifest();
+		manifest.settings = settings;
+		manifest.inputs = new ObjectMap<>(inputs);
+		return manifest;
+	}
+}
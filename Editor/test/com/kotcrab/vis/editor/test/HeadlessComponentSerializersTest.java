@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.artemis.Component;
+import com.artemis.utils.Bag;
+import com.badlogic.gdx.assets.loaders.BitmapFontLoader.BitmapFontParameter;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Json;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Kryo.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.CompatibleFieldSerializer;
+import com.kotcrab.vis.editor.entity.PixelsPerUnitComponent;
+import com.kotcrab.vis.editor.module.project.FontCacheModule;
+import com.kotcrab.vis.editor.module.project.ParticleCacheModule;
+import com.kotcrab.vis.editor.module.project.ShaderCacheModule;
+import com.kotcrab.vis.editor.module.project.TextureCacheModule;
+import com.kotcrab.vis.editor.serializer.*;
+import com.kotcrab.vis.runtime.assets.*;
+import com.kotcrab.vis.runtime.component.*;
+import com.kotcrab.vis.runtime.util.UsesProtoComponent;
+import org.junit.Before;
+import org.junit.Test;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that components loaded by {@link HeadlessComponentSerializers} are exported exactly the same as components loaded
+ * by normal serializers that create assets on OpenGL thread.
+ * @author Kotcrab
+ */
+public class HeadlessComponentSerializersTest {
+	private BitmapFont font;
+
+	private Kryo kryo;
+	private Kryo headlessKryo;
+
+	private SpriteComponentSerializer spriteSerializer;
+	private ParticleComponentSerializer particleSerializer;
+	private TextComponentSerializer textSerializer;
+	private ShaderComponentSerializer shaderSerializer;
+
+	private Json json = new Json();
+
+	@Before
+	public void setUp () {
+		HeadlessGdx.init();
+		font = HeadlessGdx.createFont();
+
+		kryo = createKryo();
+		spriteSerializer = new SpriteComponentSerializer(kryo, new TextureCacheModule() {
+			@Override
+			public Sprite getSprite (VisAssetDescriptor descriptor, float pixelsPerUnit) {
+				return new Sprite();
+			}
+		});
+		particleSerializer = new ParticleComponentSerializer(kryo, new ParticleCacheModule() {
+			@Override
+			public ParticleEffect get (VisAssetDescriptor assetDescriptor, float scaleFactor) {
+				return createEffect();
+			}
+		});
+		textSerializer = new TextComponentSerializer(kryo, new FontCacheModule() {
+			@Override
+			public BitmapFont getGeneric (VisAssetDescriptor asset, float pixelsPerUnit) {
+				return font;
+			}
+		});
+		shaderSerializer = new ShaderComponentSerializer(kryo, new ShaderCacheModule() {
+			@Override
+			public ShaderProgram get (ShaderAsset asset) {
+				return null;
+			}
+		});
+
+		kryo.register(SpriteComponent.class, spriteSerializer, 201);
+		kryo.register(ParticleComponent.class, particleSerializer, 204);
+		kryo.register(TextComponent.class, textSerializer, 205);
+		kryo.register(ShaderComponent.class, shaderSerializer, 226);
+
+		headlessKryo = createKryo();
+		headlessKryo.register(SpriteComponent.class, new HeadlessComponentSerializers.SpriteSerializer(headlessKryo), 201);
+		headlessKryo.register(ParticleComponent.class, new HeadlessComponentSerializers.ParticleSerializer(headlessKryo), 204);
+		headlessKryo.register(TextComponent.class, new HeadlessComponentSerializers.TextSerializer(headlessKryo), 205);
+		headlessKryo.register(ShaderComponent.class, new HeadlessComponentSerializers.ShaderSerializer(headlessKryo), 226);
+	}
+
+	private Kryo createKryo () {
+		Kryo kryo = new Kryo();
+		kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+		kryo.setDefaultSerializer(CompatibleFieldSerializer.class);
+		return kryo;
+	}
+
+	private ParticleEffect createEffect () {
+		ParticleEffect effect = new ParticleEffect();
+		effect.getEmitters().add(new ParticleEmitter());
+		return effect;
+	}
+
+	@Test
+	public void testSprite () {
+		Sprite sprite = new Sprite();
+		sprite.setPosition(10, 20);
+		sprite.setSize(30, 40);
+		sprite.setScale(2, 3);
+		sprite.setOrigin(5, 6);
+		sprite.setRotation(45);
+		sprite.setColor(Color.RED);
+		sprite.setFlip(true, false);
+
+		assertSameExport(spriteSerializer, new SpriteComponent(sprite), new AssetComponent(new TextureRegionAsset("gfx/player.png")));
+	}
+
+	@Test
+	public void testParticle () {
+		ParticleComponent component = new ParticleComponent(createEffect());
+		component.setPosition(7, 8);
+		component.active = false;
+
+		assertSameExport(particleSerializer, component, new AssetComponent(new PathAsset("particle/fire.p")), new PixelsPerUnitComponent(100));
+	}
+
+	@Test
+	public void testText () {
+		TextComponent component = new TextComponent(font, "Headless");
+		component.setPosition(1, 2);
+		component.setRotation(30);
+		component.setScale(2, 2);
+		component.setColor(Color.GREEN);
+		component.setDistanceFieldShaderEnabled(true);
+
+		assertSameExport(textSerializer, component,
+				new AssetComponent(new BmpFontAsset("bmpfont/arial.fnt", new BitmapFontParameter())), new PixelsPerUnitComponent(100));
+	}
+
+	@Test
+	public void testTextWithCustomOrigin () {
+		TextComponent component = new TextComponent(font, "Origin");
+		component.setAutoSetOriginToCenter(false);
+		component.setOrigin(3, 4);
+
+		assertSameExport(textSerializer, component,
+				new AssetComponent(new BmpFontAsset("bmpfont/arial.fnt", new BitmapFontParameter())), new PixelsPerUnitComponent(100));
+	}
+
+	@Test
+	public void testShader () {
+		ShaderComponent component = new ShaderComponent(new ShaderAsset("shader/wave.vert", "shader/wave.frag"), null);
+		assertSameExport(shaderSerializer, component);
+	}
+
+	private void assertSameExport (EntityComponentSerializer serializer, Component component, Component... context) {
+		Bag<Component> components = new Bag<>();
+		components.add(component);
+		for (Component c : context)
+			components.add(c);
+
+		Output output = new Output(4096, -1);
+		serializer.setComponents(components);
+		kryo.writeClassAndObject(output, component);
+		serializer.setComponents(null);
+		byte[] data = output.toBytes();
+
+		Object loaded = kryo.readClassAndObject(new Input(data));
+		Object headlessLoaded = headlessKryo.readClassAndObject(new Input(data));
+
+		assertEquals(export(loaded), export(headlessLoaded));
+	}
+
+	/** Same conversion as performed by EntityScheme#toData during export */
+	private String export (Object component) {
+		if (component instanceof UsesProtoComponent) component = ((UsesProtoComponent) component).getProtoComponent();
+		return json.toJson(component);
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.kryo.KryoException;
+import com.kotcrab.vis.editor.entity.EntityScheme;
+import com.kotcrab.vis.editor.entity.UUIDComponent;
+import com.kotcrab.vis.editor.module.project.FileAccessModule;
+import com.kotcrab.vis.editor.module.project.SceneAutosaveModule;
+import com.kotcrab.vis.editor.module.project.SceneIOModule;
+import com.kotcrab.vis.editor.scene.EditorScene;
+import com.kotcrab.vis.runtime.assets.TextureRegionAsset;
+import com.kotcrab.vis.runtime.component.AssetComponent;
+import com.kotcrab.vis.runtime.component.LayerComponent;
+import com.kotcrab.vis.runtime.component.RenderableComponent;
+import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.scene.SceneViewport;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that {@link SceneAutosaveModule} writing is done on autosave thread. Measurement of how long autosave blocks
+ * OpenGL thread is only run when {@value #BENCHMARK_PROPERTY} system property is set to true. Scene is built without
+ * OpenGL, using sprites without textures.
+ * @author Kotcrab
+ */
+public class SceneAutosaveTest {
+	private static final String SCENE_PATH = "scene/test.scene";
+	private static final String BENCHMARK_PROPERTY = "vis.benchmark";
+	private static final int ENTITIES = 5000;
+
+	private File tempDir;
+	private FileHandle autosaveFolder;
+
+	private BlockingSceneIO sceneIO;
+	private SceneAutosaveModule autosave;
+	private EditorScene scene;
+
+	@Before
+	public void setUp () throws Exception {
+		HeadlessGdx.init();
+		tempDir = Files.createTempDirectory("vis-autosave-test").toFile();
+
+		FileAccessModule fileAccess = new FileAccessModule() {
+			@Override
+			public FileHandle getAssetsFolder () {
+				return new FileHandle(new File(tempDir, "assets"));
+			}
+
+			@Override
+			public FileHandle getModuleFolder (String moduleName) {
+				return new FileHandle(new File(tempDir, "modules/" + moduleName));
+			}
+
+			@Override
+			public String relativizeToAssetsFolder (String absolutePath) {
+				return SCENE_PATH;
+			}
+		};
+
+		sceneIO = new BlockingSceneIO();
+		inject(sceneIO, "fileAccessModule", fileAccess);
+		sceneIO.added();
+		sceneIO.init();
+
+		autosave = new SceneAutosaveModule();
+		inject(autosave, "fileAccess", fileAccess);
+		inject(autosave, "sceneIO", sceneIO);
+		autosave.init();
+
+		autosaveFolder = fileAccess.getModuleFolder(".autosave");
+		scene = createScene(ENTITIES);
+	}
+
+	@After
+	public void tearDown () {
+		sceneIO.writeAllowed.countDown();
+		autosave.dispose();
+		new FileHandle(tempDir).deleteDirectory();
+	}
+
+	@Test
+	public void testWriteDoesNotBlockCallingThread () throws Exception {
+		long blockedTime = autosave.autosave(SCENE_PATH, () -> sceneIO.serialize(scene));
+		assertTrue(blockedTime > 0);
+
+		//write is held until it's allowed, autosave returned so it could not have been performed on calling thread
+		assertTrue(sceneIO.writeStarted.await(5, TimeUnit.SECONDS));
+		assertFalse(autosaveFolder.child(SCENE_PATH + ".autosave0").exists());
+		assertNotEquals(Thread.currentThread(), sceneIO.writeThread);
+
+		sceneIO.writeAllowed.countDown();
+		autosave.dispose();
+
+		FileHandle autosaveFile = autosaveFolder.child(SCENE_PATH + ".autosave0");
+		assertTrue(autosaveFile.exists());
+		assertEquals(ENTITIES, sceneIO.loadHeadless(autosaveFile).getSchemes().size);
+	}
+
+	@Test
+	public void testSnapshotNotAffectedByLaterChanges () throws Exception {
+		autosave.autosave(SCENE_PATH, () -> sceneIO.serialize(scene));
+
+		//scene is modified after snapshot was taken but before it was written
+		scene.setSchemes(new Array<>());
+		sceneIO.writeAllowed.countDown();
+		autosave.dispose();
+
+		assertEquals(ENTITIES, sceneIO.loadHeadless(autosaveFolder.child(SCENE_PATH + ".autosave0")).getSchemes().size);
+	}
+
+	@Test
+	public void testFailedSnapshotSkipped () throws Exception {
+		long blockedTime = autosave.autosave(SCENE_PATH, () -> {
+			throw new KryoException("snapshot failed");
+		});
+
+		assertEquals(-1, blockedTime);
+		sceneIO.writeAllowed.countDown();
+		autosave.dispose();
+		assertNull(sceneIO.writeThread);
+	}
+
+	@Test
+	public void testBlockedTimePerAutosave () throws Exception {
+		assumeTrue("set " + BENCHMARK_PROPERTY + " system property to run benchmark", Boolean.getBoolean(BENCHMARK_PROPERTY));
+		sceneIO.writeAllowed.countDown();
+
+		//warmup
+		for (int i = 0; i < 5; i++)
+			autosave.autosave(SCENE_PATH, () -> sceneIO.serialize(scene));
+
+		int runs = 10;
+		long totalBlocked = 0;
+		long maxBlocked = 0;
+
+		for (int i = 0; i < runs; i++) {
+			long blocked = autosave.autosave(SCENE_PATH, () -> sceneIO.serialize(scene));
+			totalBlocked += blocked;
+			maxBlocked = Math.max(maxBlocked, blocked);
+		}
+
+		long writeStart = System.nanoTime();
+		autosave.dispose();
+		long writeTime = System.nanoTime() - writeStart;
+
+		System.out.println("Autosave of " + ENTITIES + " entities blocked OpenGL thread for " + totalBlocked / runs / 1000 + " us on average, "
+				+ maxBlocked / 1000 + " us max. Writing remaining autosaves in background took " + writeTime / 1000000 + " ms");
+
+		assertTrue(totalBlocked > 0);
+	}
+
+	private EditorScene createScene (int entities) {
+		EntityEngine engine = new EntityEngine(new EntityEngineConfiguration());
+		Array<EntityScheme> schemes = new Array<>();
+
+		for (int i = 0; i < entities; i++) {
+			Sprite sprite = new Sprite();
+			sprite.setBounds(i % 100 * 10, i / 100 * 10, 8, 8);
+
+			Entity entity = engine.createEntity();
+			entity.edit()
+					.add(new SpriteComponent(sprite))
+					.add(new AssetComponent(new TextureRegionAsset("gfx/sprite" + i % 10 + ".png")))
+					.add(new LayerComponent(0))
+					.add(new RenderableComponent(0))
+					.add(new UUIDComponent());
+			engine.process();
+
+			schemes.add(new EntityScheme(entity));
+		}
+
+		EditorScene scene = new EditorScene(new FileHandle(SCENE_PATH), SceneViewport.FIT, 100, 100, 1);
+		scene.setSchemes(schemes);
+		return scene;
+	}
+
+	private static void inject (Object module, String fieldName, Object value) throws ReflectiveOperationException {
+		Class<?> type = module.getClass();
+		while (type != null) {
+			try {
+				Field field = type.getDeclaredField(fieldName);
+				field.setAccessible(true);
+				field.set(module, value);
+				return;
+			} catch (NoSuchFieldException e) {
+				type = type.getSuperclass();
+			}
+		}
+
+		throw new NoSuchFieldException(fieldName);
+	}
+
+	/** Holds scene writing until test allows it, records thread that performed write */
+	private static class BlockingSceneIO extends SceneIOModule {
+		final CountDownLatch writeStarted = new CountDownLatch(1);
+		final CountDownLatch writeAllowed = new CountDownLatch(1);
+		volatile Thread writeThread;
+
+		@Override
+		public void writeSceneFile (FileHandle file, byte[] data, int length, FileHandle backupFile) throws IOException {
+			writeThread = Thread.currentThread();
+			writeStarted.countDown();
+
+			try {
+				writeAllowed.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+
+			super.writeSceneFile(file, data, length, backupFile);
+		}
+	}
+}
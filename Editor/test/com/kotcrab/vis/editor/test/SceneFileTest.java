@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.kotcrab.vis.editor.module.project.SceneIOModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests writing and verifying scene files with {@link SceneIOModule#writeSceneFile(FileHandle, byte[], int, FileHandle)}
+ * and {@link SceneIOModule#readSceneFile(FileHandle)}.
+ * @author Kotcrab
+ */
+public class SceneFileTest {
+	private SceneIOModule sceneIO;
+	private File tempDir;
+	private FileHandle sceneFile;
+
+	@Before
+	public void setUp () throws IOException {
+		sceneIO = new SceneIOModule();
+		tempDir = Files.createTempDirectory("vis-scene-file-test").toFile();
+		sceneFile = new FileHandle(new File(tempDir, "test.scene"));
+	}
+
+	@After
+	public void tearDown () {
+		new FileHandle(tempDir).deleteDirectory();
+	}
+
+	@Test
+	public void testRoundTrip () throws IOException {
+		byte[] data = createData(10000, 1);
+		sceneIO.writeSceneFile(sceneFile, data, data.length, null);
+
+		assertArrayEquals(data, read(sceneFile));
+		assertFalse(new File(tempDir, "test.scene.tmp").exists());
+	}
+
+	@Test
+	public void testOnlyRequestedLengthWritten () throws IOException {
+		byte[] buffer = createData(1000, 2);
+		sceneIO.writeSceneFile(sceneFile, buffer, 600, null);
+
+		assertArrayEquals(Arrays.copyOf(buffer, 600), read(sceneFile));
+	}
+
+	@Test
+	public void testEmptyData () throws IOException {
+		sceneIO.writeSceneFile(sceneFile, new byte[0], 0, null);
+		assertEquals(0, read(sceneFile).length);
+	}
+
+	@Test
+	public void testFileWithoutChecksumLoaded () {
+		//scenes saved before checksum was added
+		byte[] data = createData(500, 3);
+		sceneFile.writeBytes(data, false);
+
+		assertArrayEquals(data, read(sceneFile));
+	}
+
+	@Test
+	public void testBackupKeepsPreviousVersion () throws IOException {
+		byte[] first = createData(2000, 4);
+		byte[] second = createData(3000, 5);
+		FileHandle backupFile = new FileHandle(new File(tempDir, "backup/test.scene"));
+
+		sceneIO.writeSceneFile(sceneFile, first, first.length, backupFile);
+		assertFalse("backup can't be created when there was no previous version", backupFile.exists());
+
+		sceneIO.writeSceneFile(sceneFile, second, second.length, backupFile);
+		assertArrayEquals(second, read(sceneFile));
+		assertArrayEquals(first, read(backupFile));
+
+		//backup must be replaced, and must not share content with scene file when it's a hard link
+		byte[] third = createData(1000, 6);
+		sceneIO.writeSceneFile(sceneFile, third, third.length, backupFile);
+		assertArrayEquals(third, read(sceneFile));
+		assertArrayEquals(second, read(backupFile));
+	}
+
+	@Test
+	public void testTruncatedFileRejected () throws IOException {
+		byte[] data = createData(5000, 7);
+		sceneIO.writeSceneFile(sceneFile, data, data.length, null);
+		byte[] written = sceneFile.readBytes();
+
+		for (int length : new int[]{written.length - 1, written.length / 2, 20, 15, 8, 4}) {
+			sceneFile.writeBytes(Arrays.copyOf(written, length), false);
+			assertRejected(length);
+		}
+	}
+
+	@Test
+	public void testCorruptedFileRejected () throws IOException {
+		byte[] data = createData(5000, 8);
+		sceneIO.writeSceneFile(sceneFile, data, data.length, null);
+		byte[] written = sceneFile.readBytes();
+
+		Random random = new Random(9);
+		for (int i = 0; i < 20; i++) {
+			byte[] corrupted = written.clone();
+			int index = 16 + random.nextInt(corrupted.length - 16);
+			corrupted[index] ^= 1 << random.nextInt(8);
+
+			sceneFile.writeBytes(corrupted, false);
+			assertRejected(index);
+		}
+	}
+
+	@Test
+	public void testCorruptedChecksumRejected () throws IOException {
+		byte[] data = createData(100, 10);
+		sceneIO.writeSceneFile(sceneFile, data, data.length, null);
+		byte[] written = sceneFile.readBytes();
+		written[10] ^= 0x20;
+		sceneFile.writeBytes(written, false);
+
+		assertRejected(10);
+	}
+
+	private void assertRejected (int modification) {
+		try {
+			sceneIO.readSceneFile(sceneFile);
+			fail("Modified scene file was loaded, modification at: " + modification);
+		} catch (KryoException ignored) {
+		}
+	}
+
+	private byte[] read (FileHandle file) {
+		Input input = sceneIO.readSceneFile(file);
+		return input.readBytes(input.limit() - input.position());
+	}
+
+	private byte[] createData (int length, long seed) {
+		byte[] data = new byte[length];
+		new Random(seed).nextBytes(data);
+		//first bytes of real scene are never header magic number
+		data[0] = 0;
+		return data;
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.ui.Tree;
+import com.badlogic.gdx.scenes.scene2d.ui.Tree.Node;
+import com.badlogic.gdx.scenes.scene2d.ui.Tree.TreeStyle;
+import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
+import com.kotcrab.vis.editor.entity.UUIDComponent;
+import com.kotcrab.vis.editor.module.scene.EntityProxyCache;
+import com.kotcrab.vis.editor.ui.scene.SceneOutlineModel;
+import com.kotcrab.vis.editor.ui.scene.SceneOutlineModel.OutlineNode;
+import com.kotcrab.vis.runtime.component.GroupComponent;
+import com.kotcrab.vis.runtime.component.LayerComponent;
+import com.kotcrab.vis.runtime.component.RenderableComponent;
+import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SceneOutlineModelTest {
+	private static final int GROUP_A = 1;
+	private static final int GROUP_B = 2;
+
+	private EntityEngine engine;
+	private EntityProxyCache proxyCache;
+	private Tree tree;
+	private SceneOutlineModel model;
+	/** Count of created nodes, each node is created with new label */
+	private int createdNodes;
+
+	@Before
+	public void setUp () {
+		EntityEngineConfiguration config = new EntityEngineConfiguration();
+		config.setManager(proxyCache = new EntityProxyCache(1));
+		engine = new EntityEngine(config);
+
+		tree = new Tree(new TreeStyle(new BaseDrawable(), new BaseDrawable(), new BaseDrawable()));
+		model = new SceneOutlineModel(tree, text -> {
+			createdNodes++;
+			return new Actor();
+		});
+	}
+
+	@Test
+	public void testEntitiesWithoutGroupsAreRootNodes () {
+		Entity first = createEntity();
+		Entity second = createEntity();
+		model.rebuild(proxyCache.getCache().values());
+
+		assertEquals(2, tree.getNodes().size);
+		assertNull(getNode(first).getParent());
+		assertNull(getNode(second).getParent());
+	}
+
+	@Test
+	public void testGroup () {
+		Entity first = createEntity();
+		Entity second = createEntity();
+		Entity outside = createEntity();
+		model.rebuild(proxyCache.getCache().values());
+
+		setGroups(first, GROUP_A);
+		setGroups(second, GROUP_A);
+		model.update(proxyCache.getCache());
+
+		OutlineNode groupA = model.getGroupNode(GROUP_A);
+		assertNotNull(groupA);
+		assertNull(groupA.getParent());
+		assertSame(groupA, getNode(first).getParent());
+		assertSame(groupA, getNode(second).getParent());
+		assertNull(getNode(outside).getParent());
+		assertEquals(2, tree.getNodes().size);
+	}
+
+	@Test
+	public void testUngroupRemovesEmptyGroupNode () {
+		Entity first = createEntity(GROUP_A);
+		Entity second = createEntity(GROUP_A);
+		model.rebuild(proxyCache.getCache().values());
+
+		setGroups(first);
+		setGroups(second);
+		model.update(proxyCache.getCache());
+
+		assertNull(model.getGroupNode(GROUP_A));
+		assertNull(getNode(first).getParent());
+		assertNull(getNode(second).getParent());
+		assertEquals(2, tree.getNodes().size);
+	}
+
+	@Test
+	public void testNestedGroup () {
+		Entity first = createEntity(GROUP_A);
+		Entity second = createEntity(GROUP_A);
+		Entity third = createEntity();
+		model.rebuild(proxyCache.getCache().values());
+
+		//group A and third entity are grouped into B, last group id is the outermost one
+		setGroups(first, GROUP_A, GROUP_B);
+		setGroups(second, GROUP_A, GROUP_B);
+		setGroups(third, GROUP_B);
+		model.update(proxyCache.getCache());
+
+		OutlineNode groupA = model.getGroupNode(GROUP_A);
+		OutlineNode groupB = model.getGroupNode(GROUP_B);
+		assertNull(groupB.getParent());
+		assertSame(groupB, groupA.getParent());
+		assertSame(groupA, getNode(first).getParent());
+		assertSame(groupA, getNode(second).getParent());
+		assertSame(groupB, getNode(third).getParent());
+		assertEquals(2, groupB.getChildren().size);
+		assertEquals(1, tree.getNodes().size);
+	}
+
+	@Test
+	public void testUngroupOuterGroupMovesInnerGroupToRoot () {
+		Entity first = createEntity(GROUP_A, GROUP_B);
+		Entity second = createEntity(GROUP_A, GROUP_B);
+		Entity third = createEntity(GROUP_B);
+		model.rebuild(proxyCache.getCache().values());
+
+		setGroups(first, GROUP_A);
+		setGroups(second, GROUP_A);
+		setGroups(third);
+		model.update(proxyCache.getCache());
+
+		OutlineNode groupA = model.getGroupNode(GROUP_A);
+		assertNull(model.getGroupNode(GROUP_B));
+		assertNull(groupA.getParent());
+		assertSame(groupA, getNode(first).getParent());
+		assertSame(groupA, getNode(second).getParent());
+		assertNull(getNode(third).getParent());
+		assertEquals(2, tree.getNodes().size);
+	}
+
+	@Test
+	public void testRemovedEntityRemovesEmptyGroups () {
+		Entity entity = createEntity(GROUP_A, GROUP_B);
+		model.rebuild(proxyCache.getCache().values());
+
+		entity.deleteFromWorld();
+		engine.process();
+		model.update(proxyCache.getCache());
+
+		assertNull(model.getEntityNode(entity.getId()));
+		assertNull(model.getGroupNode(GROUP_A));
+		assertNull(model.getGroupNode(GROUP_B));
+		assertEquals(0, tree.getNodes().size);
+	}
+
+	@Test
+	public void testBatchUpdateCostIsLinear () {
+		int batchSize = 1000;
+		int groups = 10;
+
+		model.rebuild(proxyCache.getCache().values());
+
+		//each batch must only create nodes of its own entities, existing nodes are not recreated
+		assertEquals("first batch also creates group nodes", batchSize + groups, addBatch(batchSize, groups));
+		assertEquals(batchSize, addBatch(batchSize, groups));
+
+		assertEquals(groups, tree.getNodes().size);
+		for (int gid = 0; gid < groups; gid++)
+			assertEquals(2 * batchSize / groups, model.getGroupNode(gid).getChildren().size);
+
+		assertEquals("update without changes must not create nodes", 0, addBatch(0, groups));
+		assertEquals(2 * batchSize, countEntityNodes());
+	}
+
+	/**
+	 * Adds entities and updates model once.
+	 * @return count of nodes created during update
+	 */
+	private int addBatch (int count, int groups) {
+		for (int i = 0; i < count; i++)
+			createEntity(i % groups);
+
+		createdNodes = 0;
+		model.update(proxyCache.getCache());
+		return createdNodes;
+	}
+
+	private int countEntityNodes () {
+		int count = 0;
+		for (Node groupNode : tree.getNodes())
+			count += groupNode.getChildren().size;
+		return count;
+	}
+
+	private Entity createEntity (int... groupIds) {
+		Sprite sprite = new Sprite();
+		sprite.setBounds(0, 0, 10, 10);
+
+		Entity entity = engine.createEntity();
+		entity.edit()
+				.add(new SpriteComponent(sprite))
+				.add(new LayerComponent(0))
+				.add(new RenderableComponent(0))
+				.add(new UUIDComponent())
+				.add(new GroupComponent());
+		setGroups(entity, groupIds);
+		engine.process();
+		return entity;
+	}
+
+	private void setGroups (Entity entity, int... groupIds) {
+		GroupComponent groupComponent = entity.getComponent(GroupComponent.class);
+		groupComponent.groupIds.clear();
+		groupComponent.groupIds.addAll(groupIds);
+	}
+
+	private OutlineNode getNode (Entity entity) {
+		OutlineNode node = model.getEntityNode(entity.getId());
+		assertNotNull(node);
+		return node;
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.tools.texturepacker.TexturePacker;
+import com.badlogic.gdx.tools.texturepacker.TexturePacker.Settings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that parallel {@link TexturePacker} produces exactly the same atlas and page images as serial packing.
+ * @author Kotcrab
+ */
+public class TexturePackerTest {
+	private static final int IMAGES = 40;
+	private static final int ALIASES = 5;
+
+	private File tempDir;
+	private File inputDir;
+
+	@Before
+	public void setUp () throws IOException {
+		tempDir = Files.createTempDirectory("vis-packer-test").toFile();
+		inputDir = new File(tempDir, "input");
+		inputDir.mkdirs();
+
+		Random random = new Random(1);
+		for (int i = 0; i < IMAGES; i++) {
+			BufferedImage image = createImage(random, 30 + random.nextInt(70), 30 + random.nextInt(70));
+			write(image, "image" + i + ".png");
+			//aliases have the same content as original image but different name
+			if (i < ALIASES) write(image, "alias" + i + ".png");
+		}
+
+		write(createNinePatch(random), "button.9.png");
+	}
+
+	@After
+	public void tearDown () {
+		new FileHandle(tempDir).deleteDirectory();
+	}
+
+	@Test
+	public void testParallelOutputSameAsSerial () throws IOException {
+		File serialDir = pack(1, "serial");
+		File parallelDir = pack(4, "parallel");
+
+		List<String> serialFiles = listFiles(serialDir);
+		List<String> parallelFiles = listFiles(parallelDir);
+		assertEquals(serialFiles, parallelFiles);
+
+		//test is only meaningful if both scales were packed into multiple pages
+		assertTrue(serialFiles.contains("1/pack.atlas"));
+		assertTrue(serialFiles.contains("0.5/pack.atlas"));
+		assertTrue("expected multiple pages, got: " + serialFiles, serialFiles.contains("1/pack2.png"));
+
+		String atlas = new String(Files.readAllBytes(new File(serialDir, "1/pack.atlas").toPath()), "UTF-8");
+		assertTrue("ninepatch was not packed with splits", atlas.contains("split:"));
+		assertTrue("aliases were not packed", atlas.contains("alias0"));
+
+		for (String file : serialFiles)
+			assertArrayEquals("file differs: " + file, Files.readAllBytes(new File(serialDir, file).toPath()),
+					Files.readAllBytes(new File(parallelDir, file).toPath()));
+	}
+
+	private File pack (int threads, String outputName) {
+		Settings settings = new Settings();
+		settings.maxWidth = 256;
+		settings.maxHeight = 256;
+		settings.scale = new float[]{1, 0.5f};
+		settings.scaleSuffix = new String[]{"", ""};
+		settings.silent = true;
+		settings.threads = threads;
+
+		File outputDir = new File(tempDir, outputName);
+		TexturePacker.process(settings, inputDir.getAbsolutePath(), outputDir.getAbsolutePath(), "pack");
+		return outputDir;
+	}
+
+	private List<String> listFiles (File dir) throws IOException {
+		Path root = dir.toPath();
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths.filter(Files::isRegularFile)
+					.map(path -> root.relativize(path).toString().replace('\\', '/'))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private BufferedImage createImage (Random random, int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				image.setRGB(x, y, 0xFF000000 | random.nextInt(0xFFFFFF));
+		return image;
+	}
+
+	/** Creates 24x24 ninepatch, stretchable area and padding are marked by black pixels on image border */
+	private BufferedImage createNinePatch (Random random) {
+		BufferedImage image = new BufferedImage(26, 26, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 1; x < 25; x++)
+			for (int y = 1; y < 25; y++)
+				image.setRGB(x, y, 0xFF000000 | random.nextInt(0xFFFFFF));
+
+		for (int i = 8; i < 18; i++) {
+			image.setRGB(i, 0, 0xFF000000);
+			image.setRGB(0, i, 0xFF000000);
+		}
+
+		return image;
+	}
+
+	private void write (BufferedImage image, String name) throws IOException {
+		ImageIO.write(image, "png", new File(inputDir, name));
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.kotcrab.vis.editor.module.project.TextureRegionUpdate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests deciding between in place texture cache update and full repack fallback.
+ * @author Kotcrab
+ */
+public class TextureRegionUpdateTest {
+	private static final int RED = 0xff0000ff;
+
+	private File tempDir;
+	private Texture page;
+	private TextureAtlas cache;
+	private AtlasRegion region;
+
+	@Before
+	public void setUp () throws IOException {
+		HeadlessGdx.init();
+		tempDir = Files.createTempDirectory("vis-texture-cache-test").toFile();
+
+		//cache pages are loaded from files so they are managed textures, same as here
+		FileHandle pageFile = new FileHandle(new File(tempDir, "cache.png"));
+		Pixmap pixmap = new Pixmap(64, 64, Format.RGBA8888);
+		PixmapIO.writePNG(pageFile, pixmap);
+		pixmap.dispose();
+		page = new Texture(pageFile);
+
+		cache = new TextureAtlas();
+		region = cache.addRegion("gfx/player", page, 16, 32, 16, 16);
+	}
+
+	@After
+	public void tearDown () {
+		HeadlessGdx.setGLCallListener(null);
+		cache.dispose();
+		new FileHandle(tempDir).deleteDirectory();
+	}
+
+	@Test
+	public void testModifiedTextureUpdatedInPlace () throws IOException {
+		FileHandle file = writeImage("player.png", 10, 12);
+
+		TextureRegionUpdate update = TextureRegionUpdate.create(cache, "gfx/player", file);
+		assertNotNull(update);
+		assertTrue(update.load(false));
+
+		Pixmap pixmap = update.getPixmap();
+		assertEquals(16, pixmap.getWidth());
+		assertEquals(16, pixmap.getHeight());
+		assertEquals(RED, pixmap.getPixel(0, 0));
+		assertEquals(RED, pixmap.getPixel(9, 11));
+		assertEquals(0, pixmap.getPixel(10, 0));
+		assertEquals(0, pixmap.getPixel(0, 12));
+
+		int[] upload = new int[4];
+		HeadlessGdx.setGLCallListener((method, args) -> {
+			if (method.getName().equals("glTexSubImage2D")) {
+				for (int i = 0; i < 4; i++)
+					upload[i] = (Integer) args[i + 2];
+			}
+		});
+
+		assertFalse(update.isStale(cache));
+		update.apply();
+		update.dispose();
+
+		assertArrayEquals(new int[]{16, 32, 16, 16}, upload);
+		assertSame(region, cache.findRegion("gfx/player"));
+		assertSame(page, region.getTexture());
+		assertEquals(16, region.getRegionX());
+		assertEquals(32, region.getRegionY());
+		assertEquals(10, region.getRegionWidth());
+		assertEquals(12, region.getRegionHeight());
+		assertEquals(10, region.packedWidth);
+		assertEquals(12, region.packedHeight);
+		assertEquals(10, region.originalWidth);
+		assertEquals(12, region.originalHeight);
+	}
+
+	@Test
+	public void testBleedAppliedToUnusedArea () throws IOException {
+		FileHandle file = writeImage("player.png", 10, 12);
+
+		TextureRegionUpdate update = TextureRegionUpdate.create(cache, "gfx/player", file);
+		assertTrue(update.load(true));
+
+		//transparent pixel next to texture gets its color, alpha stays zero
+		assertEquals(0xff000000, update.getPixmap().getPixel(10, 0));
+		update.dispose();
+	}
+
+	@Test
+	public void testEnlargedTextureRequiresRepack () throws IOException {
+		FileHandle file = writeImage("player.png", 17, 16);
+
+		TextureRegionUpdate update = TextureRegionUpdate.create(cache, "gfx/player", file);
+		assertNotNull(update);
+		assertFalse(update.load(false));
+		assertNull(update.getPixmap());
+
+		file = writeImage("player.png", 16, 17);
+		update = TextureRegionUpdate.create(cache, "gfx/player", file);
+		assertFalse(update.load(false));
+	}
+
+	@Test
+	public void testSameSizeTextureUpdatedInPlace () throws IOException {
+		FileHandle file = writeImage("player.png", 16, 16);
+
+		TextureRegionUpdate update = TextureRegionUpdate.create(cache, "gfx/player", file);
+		assertTrue(update.load(false));
+		update.apply();
+		update.dispose();
+
+		assertEquals(16, region.getRegionWidth());
+		assertEquals(16, region.getRegionHeight());
+	}
+
+	@Test
+	public void testNewTextureRequiresRepack () throws IOException {
+		FileHandle file = writeImage("enemy.png", 8, 8);
+		assertNull(TextureRegionUpdate.create(cache, "gfx/enemy", file));
+	}
+
+	@Test
+	public void testDeletedTextureRequiresRepack () {
+		FileHandle file = new FileHandle(new File(tempDir, "player.png"));
+		assertFalse(file.exists());
+		assertNull(TextureRegionUpdate.create(cache, "gfx/player", file));
+	}
+
+	@Test
+	public void testRotatedRegionRequiresRepack () throws IOException {
+		FileHandle file = writeImage("player.png", 8, 8);
+		region.rotate = true;
+		assertNull(TextureRegionUpdate.create(cache, "gfx/player", file));
+	}
+
+	@Test
+	public void testNinePatchRegionRequiresRepack () throws IOException {
+		FileHandle file = writeImage("player.png", 8, 8);
+		region.splits = new int[]{2, 2, 2, 2};
+		assertNull(TextureRegionUpdate.create(cache, "gfx/player", file));
+	}
+
+	@Test
+	public void testUpdateStaleAfterCacheReload () throws IOException {
+		FileHandle file = writeImage("player.png", 8, 8);
+		TextureRegionUpdate update = TextureRegionUpdate.create(cache, "gfx/player", file);
+		assertTrue(update.load(false));
+
+		TextureAtlas reloadedCache = new TextureAtlas();
+		reloadedCache.addRegion("gfx/player", page, 0, 0, 16, 16);
+
+		assertFalse(update.isStale(cache));
+		assertTrue(update.isStale(reloadedCache));
+		assertTrue(update.isStale(null));
+		update.dispose();
+	}
+
+	private FileHandle writeImage (String name, int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				image.setRGB(x, y, 0xffff0000);
+
+		File file = new File(tempDir, name);
+		ImageIO.write(image, "png", file);
+		return new FileHandle(file);
+	}
+}
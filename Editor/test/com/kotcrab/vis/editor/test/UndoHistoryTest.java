@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.editor.test;
+
+import com.kotcrab.vis.editor.util.undo.UndoHistory;
+import com.kotcrab.vis.editor.util.undo.UndoableAction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** @author Kotcrab */
+public class UndoHistoryTest {
+	private List<String> log = new ArrayList<>();
+
+	@Test
+	public void testOldestActionsEvictedFirst () {
+		UndoHistory history = new UndoHistory(300);
+		history.add(new TestAction("a", 100));
+		history.add(new TestAction("b", 100));
+		history.add(new TestAction("c", 100));
+		assertEquals(3, history.getUndoSize());
+		assertEquals(0, history.getEvictedCount());
+
+		history.add(new TestAction("d", 100));
+		assertEquals(3, history.getUndoSize());
+		assertEquals(1, history.getEvictedCount());
+		assertEquals(300, history.getRetainedSize());
+
+		history.add(new TestAction("e", 150));
+		assertEquals(3, history.getEvictedCount());
+		assertEquals(250, history.getRetainedSize());
+
+		undoAll(history);
+		assertEquals("[undo e, undo d]", log.toString());
+	}
+
+	@Test
+	public void testNewestActionNeverEvicted () {
+		UndoHistory history = new UndoHistory(100);
+		history.add(new TestAction("a", 50));
+		history.add(new TestAction("huge", 1000));
+
+		assertEquals(1, history.getUndoSize());
+		assertEquals(1000, history.getRetainedSize());
+		assertEquals("huge", history.peekUndo().getActionName());
+
+		history.add(new TestAction("huge2", 2000));
+		assertEquals(1, history.getUndoSize());
+		assertEquals(2000, history.getRetainedSize());
+		assertEquals("huge2", history.peekUndo().getActionName());
+		assertEquals(2, history.getEvictedCount());
+	}
+
+	@Test
+	public void testRedoAccounting () {
+		UndoHistory history = new UndoHistory(1000);
+		history.add(new TestAction("a", 100));
+		history.add(new TestAction("b", 200));
+
+		assertTrue(history.undo());
+		assertEquals(1, history.getUndoSize());
+		assertEquals(1, history.getRedoSize());
+		//undone actions still retain memory while they can be redone
+		assertEquals(300, history.getRetainedSize());
+
+		assertTrue(history.redo());
+		assertEquals(2, history.getUndoSize());
+		assertEquals(0, history.getRedoSize());
+		assertEquals(300, history.getRetainedSize());
+		assertFalse(history.redo());
+
+		assertEquals("[undo b, execute b]", log.toString());
+	}
+
+	@Test
+	public void testAddClearsRedoList () {
+		UndoHistory history = new UndoHistory(1000);
+		history.add(new TestAction("a", 100));
+		history.add(new TestAction("b", 200));
+		history.undo();
+
+		history.add(new TestAction("c", 50));
+		assertEquals(0, history.getRedoSize());
+		assertEquals(150, history.getRetainedSize());
+		assertFalse(history.redo());
+	}
+
+	@Test
+	public void testSizeMeasuredWhenActionEntersList () {
+		UndoHistory history = new UndoHistory(1000);
+		TestAction action = new TestAction("a", 100);
+		history.add(action);
+
+		//retained size changes after undo, history must subtract size it added and account new one
+		action.size = 400;
+		history.undo();
+		assertEquals(400, history.getRetainedSize());
+
+		action.size = 10;
+		history.redo();
+		assertEquals(10, history.getRetainedSize());
+
+		history.undo();
+		assertEquals(0, history.getUndoSize());
+		assertEquals(10, history.getRetainedSize());
+	}
+
+	@Test
+	public void testRedoEvictsOldestUndoActions () {
+		UndoHistory history = new UndoHistory(300);
+		history.add(new TestAction("a", 100));
+		history.add(new TestAction("b", 100));
+		TestAction c = new TestAction("c", 100);
+		history.add(c);
+		history.undo();
+		assertEquals(300, history.getRetainedSize());
+
+		//action grows while waiting in redo list, after redo history no longer fits in budget
+		c.size = 200;
+		history.redo();
+		assertEquals(1, history.getEvictedCount());
+		assertEquals(2, history.getUndoSize());
+		assertEquals(300, history.getRetainedSize());
+
+		undoAll(history);
+		assertEquals("[undo c, execute c, undo c, undo b]", log.toString());
+	}
+
+	@Test
+	public void testShrinkingBudgetEvicts () {
+		UndoHistory history = new UndoHistory(1000);
+		for (int i = 0; i < 10; i++)
+			history.add(new TestAction("a" + i, 100));
+		assertEquals(10, history.getUndoSize());
+
+		history.setMemoryBudget(450);
+		assertEquals(450, history.getMemoryBudget());
+		assertEquals(4, history.getUndoSize());
+		assertEquals(400, history.getRetainedSize());
+		assertEquals(6, history.getEvictedCount());
+		assertEquals("a9", history.peekUndo().getActionName());
+
+		history.setMemoryBudget(0);
+		assertEquals(1, history.getUndoSize());
+		assertEquals("a9", history.peekUndo().getActionName());
+
+		//growing budget does not bring back evicted actions
+		history.setMemoryBudget(1000);
+		assertEquals(1, history.getUndoSize());
+		assertEquals(9, history.getEvictedCount());
+	}
+
+	@Test
+	public void testUndoOnEmptyHistory () {
+		UndoHistory history = new UndoHistory(100);
+		assertFalse(history.undo());
+		assertFalse(history.redo());
+		assertNull(history.peekUndo());
+		assertEquals(0, history.getRetainedSize());
+	}
+
+	private void undoAll (UndoHistory history) {
+		while (history.undo()) ;
+	}
+
+	private class TestAction implements UndoableAction {
+		private final String name;
+		long size;
+
+		public TestAction (String name, long size) {
+			this.name = name;
+			this.size = size;
+		}
+
+		@Override
+		public void execute () {
+			log.add("execute " + name);
+		}
+
+		@Override
+		public void undo () {
+			log.add("undo " + name);
+		}
+
+		@Override
+		public String getActionName () {
+			return name;
+		}
+
+		@Override
+		public long getRetainedSize () {
+			return size;
+		}
+	}
+}
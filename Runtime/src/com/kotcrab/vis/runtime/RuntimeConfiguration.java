@@ -19,6 +19,7 @@ package com.kotcrab.vis.runtime;
 import com.artemis.Entity;
 import com.kotcrab.vis.runtime.component.AssetComponent;
 import com.kotcrab.vis.runtime.component.GroupComponent;
+import com.kotcrab.vis.runtime.system.RenderBatchingSystem;
 import com.kotcrab.vis.runtime.system.VisGroupManager;
 import com.kotcrab.vis.runtime.system.physics.PhysicsSpriteUpdateSystem;
 
@@ -53,4 +54,36 @@ public class RuntimeConfiguration {
 	 * effect if physics is disabled.
 	 */
 	public boolean useBox2dSpriteUpdateSystem = true;
+
+	/**
+	 * Controls whether {@link RenderBatchingSystem} should skip rendering entities that are outside of their layer camera
+	 * view. Default is true. Note that culled particle effects and spriter animations are not updated.
+	 */
+	public boolean useRenderCulling = true;
+
+	/**
+	 * Fixed time step of physics simulation in seconds. Default is 1/60. Using larger step (for example 1/30) lowers box2d
+	 * CPU usage, rendering stays smooth if {@link #usePhysicsInterpolation} is enabled. This settings has no effect if
+	 * physics is disabled.
+	 */
+	public float physicsTimeStep = 1f / 60f;
+
+	/** Box2d velocity iterations used in each physics step. Default is 6. */
+	public int physicsVelocityIterations = 6;
+
+	/** Box2d position iterations used in each physics step. Default is 2. */
+	public int physicsPositionIterations = 2;
+
+	/**
+	 * Maximum count of physics steps performed in single frame. If frame took longer, remaining time is dropped and simulation
+	 * slows down instead of trying to catch up, which would make next frames even longer. Default is 5.
+	 */
+	public int physicsMaxSubSteps = 5;
+
+	/**
+	 * Controls whether {@link PhysicsSpriteUpdateSystem} interpolates sprite state between previous and current physics
+	 * step. If false current body state is used directly, which may cause visible jitter when physics step rate is different
+	 * from rendering frame rate. Default is true.
+	 */
+	public boolean usePhysicsInterpolation = true;
 }
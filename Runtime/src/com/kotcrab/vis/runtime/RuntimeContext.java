@@ -20,6 +20,7 @@ import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.kotcrab.vis.runtime.plugin.EntitySupport;
 import com.kotcrab.vis.runtime.scene.Scene;
+import com.kotcrab.vis.runtime.util.AtlasRegionCache;
 import com.kotcrab.vis.runtime.util.ImmutableArray;
 
 /**
@@ -31,11 +32,19 @@ public class RuntimeContext {
 	public Batch batch;
 	public AssetManager assetsManager;
 	public ImmutableArray<EntitySupport> supports;
+	/** Atlas regions index of {@link #assetsManager}, shared by all scenes loaded from it */
+	public AtlasRegionCache regionCache;
 
 	public RuntimeContext (RuntimeConfiguration configuration, Batch batch, AssetManager assetsManager, ImmutableArray<EntitySupport> supports) {
+		this(configuration, batch, assetsManager, supports, new AtlasRegionCache(assetsManager));
+	}
+
+	public RuntimeContext (RuntimeConfiguration configuration, Batch batch, AssetManager assetsManager, ImmutableArray<EntitySupport> supports,
+								AtlasRegionCache regionCache) {
 		this.configuration = configuration;
 		this.batch = batch;
 		this.assetsManager = assetsManager;
 		this.supports = supports;
+		this.regionCache = regionCache;
 	}
 }
@@ -17,13 +17,26 @@
 package com.kotcrab.vis.runtime.component;
 
 import com.artemis.Component;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
+import com.kotcrab.vis.runtime.system.physics.PhysicsSystem;
 
 /** @author Kotcrab */
 public class PhysicsComponent extends Component {
 	public Body body;
 
+	/** Body transform before last physics step, used to interpolate rendered state. Updated by {@link PhysicsSystem}. */
+	public float prevX, prevY, prevAngle;
+
 	public PhysicsComponent (Body body) {
 		this.body = body;
+		savePreviousTransform();
+	}
+
+	public void savePreviousTransform () {
+		Vector2 pos = body.getPosition();
+		prevX = pos.x;
+		prevY = pos.y;
+		prevAngle = body.getAngle();
 	}
 }
@@ -18,17 +18,22 @@ package com.kotcrab.vis.runtime.component;
 
 import com.artemis.Component;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
 import com.kotcrab.vis.runtime.accessor.*;
 import com.kotcrab.vis.runtime.util.UsesProtoComponent;
 
 /**
- * Text component storing all text properties
+ * Text component storing all text properties. Transform matrix and bounding rectangle are calculated lazily when they are
+ * requested and only if any property affecting them has changed. Text layout is only recalculated when text or font
+ * has changed. Text is drawn using glyph vertices transformed on CPU, see {@link #draw(Batch)}.
  * @author Kotcrab
  */
 public class TextComponent extends Component implements BasicPropertiesAccessor, ScalePropertiesAccessor,
@@ -42,12 +47,19 @@ public class TextComponent extends Component implements BasicPropertiesAccessor,
 	private float originX = 0, originY = 0;
 	private float scaleX = 1, scaleY = 1;
 	private float rotation = 0;
-	private Color color = Color.WHITE;
+	private Color color = new Color(Color.WHITE);
 	private Rectangle boundingRectangle;
 	private boolean autoSetOriginToCenter = true;
-	public Matrix4 translationMatrix;
+	private Matrix4 translationMatrix;
 	protected CharSequence text;
 
+	private transient boolean transformDirty = true;
+	private transient boolean boundsDirty = true;
+	private transient boolean verticesDirty = true;
+	private transient Polygon boundsPolygon;
+	/** Glyph vertices from font cache transformed by translation matrix, indexed by font page */
+	private transient float[][] transformedVertices;
+
 	public TextComponent (BitmapFont bitmapFont, String text) {
 		this.text = text;
 
@@ -77,32 +89,111 @@ public class TextComponent extends Component implements BasicPropertiesAccessor,
 		setText(text);
 	}
 
+	/** Marks transform matrix and bounds as dirty, they will be recalculated when requested. */
 	private void translate () {
-		translationMatrix.idt();
-		translationMatrix.translate(x + originX, y + originY, 0);
-		translationMatrix.rotate(0, 0, 1, rotation);
-		translationMatrix.scale(scaleX, scaleY, 1);
-		translationMatrix.translate(-originX, -originY, 0);
-		translationMatrix.translate(0, textLayout.height, 0);
-		calculateBoundingRectangle();
-	}
-
+		transformDirty = true;
+		boundsDirty = true;
+		verticesDirty = true;
+	}
+
+	/** @return transform matrix of this text, updated if needed */
+	public Matrix4 getTranslationMatrix () {
+		if (transformDirty) {
+			transformDirty = false;
+			if (translationMatrix == null) translationMatrix = new Matrix4();
+			translationMatrix.idt();
+			translationMatrix.translate(x + originX, y + originY, 0);
+			translationMatrix.rotate(0, 0, 1, rotation);
+			translationMatrix.scale(scaleX, scaleY, 1);
+			translationMatrix.translate(-originX, -originY, 0);
+			translationMatrix.translate(0, textLayout.height, 0);
+		}
+
+		return translationMatrix;
+	}
+
+	/**
+	 * Returns font cache used by this text. Cache may be modified, because of that glyph vertices are marked as dirty and
+	 * will be transformed again when text is drawn. Text layout and bounds are not affected by changes made directly to cache.
+	 */
 	public BitmapFontCache getCache () {
+		verticesDirty = true;
 		return cache;
 	}
 
+	/**
+	 * Draws this text into batch. Glyph vertices are transformed on CPU (only when text, color or transform has changed)
+	 * so batch transform matrix is not used and drawing text does not flush batch. Consecutive texts using the same font
+	 * texture and shader are rendered using single draw call.
+	 */
+	public void draw (Batch batch) {
+		Array<TextureRegion> regions = cache.getFont().getRegions();
+		if (verticesDirty) {
+			verticesDirty = false;
+			transformVertices(regions.size);
+		}
+
+		for (int page = 0; page < regions.size; page++) {
+			int count = cache.getVertexCount(page);
+			if (count > 0) batch.draw(regions.get(page).getTexture(), transformedVertices[page], 0, count);
+		}
+	}
+
+	private void transformVertices (int pages) {
+		if (transformedVertices == null || transformedVertices.length < pages) {
+			float[][] newVertices = new float[pages][];
+			if (transformedVertices != null)
+				System.arraycopy(transformedVertices, 0, newVertices, 0, transformedVertices.length);
+			transformedVertices = newVertices;
+		}
+
+		float[] matrix = getTranslationMatrix().val;
+		float m00 = matrix[Matrix4.M00], m01 = matrix[Matrix4.M01], m03 = matrix[Matrix4.M03];
+		float m10 = matrix[Matrix4.M10], m11 = matrix[Matrix4.M11], m13 = matrix[Matrix4.M13];
+
+		for (int page = 0; page < pages; page++) {
+			int count = cache.getVertexCount(page);
+			float[] source = cache.getVertices(page);
+			float[] target = transformedVertices[page];
+			if (target == null || target.length < count) target = transformedVertices[page] = new float[count];
+
+			// vertex is stored as x, y, color, u, v
+			for (int i = 0; i < count; i += 5) {
+				float x = source[i];
+				float y = source[i + 1];
+				target[i] = m00 * x + m01 * y + m03;
+				target[i + 1] = m10 * x + m11 * y + m13;
+				target[i + 2] = source[i + 2];
+				target[i + 3] = source[i + 3];
+				target[i + 4] = source[i + 4];
+			}
+		}
+	}
+
 	protected void textChanged () {
 		if (autoSetOriginToCenter == true) setOriginCenter();
 		translate();
 	}
 
 	private void calculateBoundingRectangle () {
-		Polygon polygon = new Polygon(new float[]{0, 0, textLayout.width, 0, textLayout.width, textLayout.height, 0, textLayout.height});
-		polygon.setPosition(x, y);
-		polygon.setRotation(rotation);
-		polygon.setScale(scaleX, scaleY);
-		polygon.setOrigin(originX, originY);
-		boundingRectangle = polygon.getBoundingRectangle();
+		if (boundsPolygon == null) boundsPolygon = new Polygon(new float[8]);
+
+		float[] vertices = boundsPolygon.getVertices();
+		vertices[0] = 0;
+		vertices[1] = 0;
+		vertices[2] = textLayout.width;
+		vertices[3] = 0;
+		vertices[4] = textLayout.width;
+		vertices[5] = textLayout.height;
+		vertices[6] = 0;
+		vertices[7] = textLayout.height;
+		boundsPolygon.dirty();
+
+		boundsPolygon.setPosition(x, y);
+		boundsPolygon.setRotation(rotation);
+		boundsPolygon.setScale(scaleX, scaleY);
+		boundsPolygon.setOrigin(originX, originY);
+		boundingRectangle = boundsPolygon.getBoundingRectangle();
 	}
 
 	public String getText () {
@@ -112,8 +203,8 @@ public class TextComponent extends Component implements BasicPropertiesAccessor,
 	public void setText (CharSequence str) {
 		this.text = str;
 		cache.clear();
-		textLayout = cache.setText(str, 0, 0);
 		cache.setColor(color);
+		textLayout = cache.setText(str, 0, 0);
 		textChanged();
 	}
 
@@ -225,19 +316,39 @@ public class TextComponent extends Component implements BasicPropertiesAccessor,
 		return color;
 	}
 
+	/**
+	 * Changes color of text, color is copied. Changing color does not require recalculating text layout, unless font has markup
+	 * enabled, in that case text is laid out again so colors set using markup are preserved.
+	 */
 	@Override
 	public void setColor (Color color) {
-		this.color = color;
-		cache.setColor(color);
-		setText(text);
+		setColor(color.r, color.g, color.b, color.a);
 	}
 
 	public void setColor (float r, float g, float b, float a) {
-		setColor(new Color(r, g, b, a));
+		color.set(r, g, b, a);
+
+		if (cache.getFont().getData().markupEnabled) {
+			setText(text);
+			return;
+		}
+
+		cache.setColor(color);
+		cache.setColors(color);
+		verticesDirty = true;
 	}
 
+	/**
+	 * Returns bounding rectangle of this text, it is recalculated only when any property affecting it has changed. Returned
+	 * rectangle is reused by this component and must not be modified, copy it if it needs to be stored.
+	 */
 	@Override
 	public Rectangle getBoundingRectangle () {
+		if (boundsDirty) {
+			boundsDirty = false;
+			calculateBoundingRectangle();
+		}
+
 		return boundingRectangle;
 	}
 
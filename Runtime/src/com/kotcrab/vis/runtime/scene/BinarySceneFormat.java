@@ -0,0 +1,456 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.scene;
+
+import com.artemis.Component;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.*;
+import com.badlogic.gdx.utils.reflect.ArrayReflection;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Constructor;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import com.kotcrab.vis.runtime.component.AssetComponent;
+import com.kotcrab.vis.runtime.component.ShaderProtoComponent;
+import com.kotcrab.vis.runtime.data.EntityData;
+import com.kotcrab.vis.runtime.data.SceneData;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Reads compact binary scene format that can be used instead of JSON scene files. Binary scene is detected by
+ * {@link SceneLoader} automatically so both formats can be loaded the same way. Binary scenes are written by
+ * {@link BinarySceneWriter}.
+ * <p>
+ * File layout:
+ * <pre>
+ * int magic, int version
+ * string table: varint count, count x (varint length, UTF-8 bytes)
+ * type table: varint count, count x (varint name string, varint field count, field count x varint field name string)
+ * dependency header: varint count, count x varint entity index (delta from previous index)
+ * varint length, value - {@link SceneData} without entities
+ * varint entity count
+ *    per entity: varint length, varint component count, component count x value
+ * </pre>
+ * Each value starts with single byte tag followed by tag specific data, strings and classes are stored as indexes into
+ * string and type table. Object fields are written in order declared by type table so field names are not repeated.
+ * Types are stored using the same class tags as JSON scene format, values that can't be encoded directly (such as
+ * {@link Json.Serializable} objects or objects with custom {@link Json.Serializer}) are stored as JSON.
+ * <p>
+ * Dependency header contains indexes of entities that have components requiring assets ({@link AssetComponent},
+ * {@link ShaderProtoComponent}), single entity is stored for each distinct set of such components. Entities are length
+ * prefixed so dependencies can be resolved by decoding only those entities.
+ * @author Kotcrab
+ */
+public class BinarySceneFormat {
+	/** "VISB" */
+	public static final int MAGIC = 0x56495342;
+	public static final int VERSION = 2;
+
+	static final byte NULL = 0;
+	static final byte TRUE = 1;
+	static final byte FALSE = 2;
+	static final byte BYTE = 3;
+	static final byte SHORT = 4;
+	static final byte CHAR = 5;
+	static final byte INT = 6;
+	static final byte LONG = 7;
+	static final byte FLOAT = 8;
+	static final byte DOUBLE = 9;
+	static final byte STRING = 10;
+	static final byte ENUM = 11;
+	static final byte OBJECT = 12;
+	static final byte OBJECT_ARRAY = 13;
+	static final byte INTS = 14;
+	static final byte FLOATS = 15;
+	static final byte ARRAY = 16;
+	static final byte OBJECT_MAP = 17;
+	static final byte INT_MAP = 18;
+	static final byte JSON = 19;
+
+	private final Json json;
+	private final ObjectMap<Class, ObjectMap<String, Field>> fieldsCache = new ObjectMap<Class, ObjectMap<String, Field>>();
+
+	private FileHandle file;
+	private byte[] data;
+	private int position;
+
+	private String[] strings;
+	private Class[] types;
+	private Field[][] typeFields;
+
+	public BinarySceneFormat (Json json) {
+		this.json = json;
+	}
+
+	/** @return true if file starts with binary scene magic number */
+	public static boolean isBinaryScene (FileHandle file) {
+		DataInputStream input = null;
+		try {
+			input = new DataInputStream(file.read());
+			return input.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			StreamUtils.closeQuietly(input);
+		}
+	}
+
+	/**
+	 * Reads dependency header of binary scene and decodes only entities referenced by it.
+	 * @return array of complete {@link EntityData} that have components requiring assets, single entity for each distinct
+	 * set of such components
+	 */
+	public Array<EntityData> readDependencies (FileHandle file) {
+		try {
+			begin(file);
+
+			int[] dependencyEntities = readDependencyHeader();
+			position += readVarInt(); //skip scene data
+
+			int entityCount = readVarInt();
+			Array<EntityData> dependencies = new Array<EntityData>(dependencyEntities.length);
+			int next = 0;
+			for (int i = 0; i < entityCount && next < dependencyEntities.length; i++) {
+				int length = readVarInt();
+
+				if (i == dependencyEntities[next]) {
+					dependencies.add(readEntity());
+					next++;
+				} else
+					position += length;
+			}
+
+			return dependencies;
+		} catch (IndexOutOfBoundsException e) {
+			throw new GdxRuntimeException("Unexpected end of binary scene file: " + file, e);
+		} finally {
+			end();
+		}
+	}
+
+	/** Reads entire scene. */
+	public SceneData readScene (FileHandle file) {
+		try {
+			begin(file);
+
+			readDependencyHeader();
+			readVarInt(); //scene data length
+			SceneData sceneData = (SceneData) readValue();
+
+			int entityCount = readVarInt();
+			sceneData.entities = new Array<EntityData>(entityCount);
+			for (int i = 0; i < entityCount; i++) {
+				readVarInt(); //entity length
+				sceneData.entities.add(readEntity());
+			}
+
+			return sceneData;
+		} catch (IndexOutOfBoundsException e) {
+			throw new GdxRuntimeException("Unexpected end of binary scene file: " + file, e);
+		} finally {
+			end();
+		}
+	}
+
+	private void begin (FileHandle file) {
+		this.file = file;
+		data = file.readBytes();
+		position = 0;
+
+		if (readInt() != MAGIC) throw new GdxRuntimeException("Not a binary scene file: " + file);
+		int version = readInt();
+		if (version != VERSION)
+			throw new GdxRuntimeException("Unsupported binary scene version: " + version + ", expected: " + VERSION + ", file: " + file);
+
+		readStringTable();
+		readTypeTable();
+	}
+
+	private void end () {
+		file = null;
+		data = null;
+		strings = null;
+		types = null;
+		typeFields = null;
+	}
+
+	private void readStringTable () {
+		strings = new String[readVarInt()];
+
+		try {
+			for (int i = 0; i < strings.length; i++) {
+				int length = readVarInt();
+				strings[i] = new String(data, position, length, "UTF-8");
+				position += length;
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new GdxRuntimeException(e);
+		}
+	}
+
+	private void readTypeTable () {
+		int count = readVarInt();
+		types = new Class[count];
+		typeFields = new Field[count][];
+
+		for (int i = 0; i < count; i++) {
+			Class type = resolveClass(strings[readVarInt()]);
+			types[i] = type;
+
+			int fieldCount = readVarInt();
+			if (fieldCount == 0) continue;
+
+			ObjectMap<String, Field> fieldsByName = getFieldsByName(type);
+			Field[] fields = typeFields[i] = new Field[fieldCount];
+			for (int j = 0; j < fieldCount; j++)
+				fields[j] = fieldsByName.get(strings[readVarInt()]); //field removed from class is read and ignored
+		}
+	}
+
+	private int[] readDependencyHeader () {
+		int[] entities = new int[readVarInt()];
+		int index = 0;
+		for (int i = 0; i < entities.length; i++) {
+			index += readVarInt();
+			entities[i] = index;
+		}
+		return entities;
+	}
+
+	private EntityData readEntity () {
+		int componentCount = readVarInt();
+		Array<Component> components = new Array<Component>(componentCount);
+		for (int i = 0; i < componentCount; i++)
+			components.add((Component) readValue());
+		return new EntityData(components);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object readValue () {
+		byte tag = data[position++];
+
+		switch (tag) {
+			case NULL:
+				return null;
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case BYTE:
+				return data[position++];
+			case SHORT:
+				return (short) readVarIntZigZag();
+			case CHAR:
+				return (char) readVarInt();
+			case INT:
+				return readVarIntZigZag();
+			case LONG:
+				return readVarLongZigZag();
+			case FLOAT:
+				return NumberUtils.intBitsToFloat(readInt());
+			case DOUBLE:
+				return NumberUtils.longBitsToDouble(readLong());
+			case STRING:
+				return strings[readVarInt()];
+			case ENUM: {
+				Class type = types[readVarInt()];
+				return Enum.valueOf(type, strings[readVarInt()]);
+			}
+			case OBJECT:
+				return readObject(readVarInt());
+			case OBJECT_ARRAY: {
+				Class componentType = types[readVarInt()];
+				int length = readVarInt();
+				Object array = ArrayReflection.newInstance(componentType, length);
+				for (int i = 0; i < length; i++)
+					ArrayReflection.set(array, i, readValue());
+				return array;
+			}
+			case INTS: {
+				int[] array = new int[readVarInt()];
+				for (int i = 0; i < array.length; i++)
+					array[i] = readVarIntZigZag();
+				return array;
+			}
+			case FLOATS: {
+				float[] array = new float[readVarInt()];
+				for (int i = 0; i < array.length; i++)
+					array[i] = NumberUtils.intBitsToFloat(readInt());
+				return array;
+			}
+			case ARRAY: {
+				int size = readVarInt();
+				Array array = new Array(size);
+				for (int i = 0; i < size; i++)
+					array.add(readValue());
+				return array;
+			}
+			case OBJECT_MAP: {
+				int size = readVarInt();
+				ObjectMap map = new ObjectMap(size);
+				for (int i = 0; i < size; i++)
+					map.put(readValue(), readValue());
+				return map;
+			}
+			case INT_MAP: {
+				int size = readVarInt();
+				IntMap map = new IntMap(size);
+				for (int i = 0; i < size; i++)
+					map.put(readVarIntZigZag(), readValue());
+				return map;
+			}
+			case JSON: {
+				Class type = types[readVarInt()];
+				return json.fromJson(type, strings[readVarInt()]);
+			}
+			default:
+				throw new GdxRuntimeException("Invalid value tag: " + tag + " in binary scene: " + file);
+		}
+	}
+
+	private Object readObject (int typeIndex) {
+		Class type = types[typeIndex];
+		Field[] fields = typeFields[typeIndex];
+		Object object = newInstance(type);
+
+		try {
+			if (fields != null) {
+				for (Field field : fields) {
+					Object value = readValue();
+					if (field != null) field.set(object, value);
+				}
+			}
+		} catch (ReflectionException e) {
+			throw new SerializationException("Error setting field value of class: " + type.getName(), e);
+		}
+
+		return object;
+	}
+
+	private Object newInstance (Class type) {
+		try {
+			return ClassReflection.newInstance(type);
+		} catch (ReflectionException ignored) {
+			try {
+				Constructor constructor = ClassReflection.getDeclaredConstructor(type);
+				constructor.setAccessible(true);
+				return constructor.newInstance();
+			} catch (ReflectionException e) {
+				throw new SerializationException("Class cannot be created (missing no-arg constructor): " + type.getName(), e);
+			}
+		}
+	}
+
+	private Class resolveClass (String name) {
+		Class type = json.getClass(name);
+		if (type != null) return type;
+
+		if (name.equals("boolean")) return boolean.class;
+		if (name.equals("byte")) return byte.class;
+		if (name.equals("short")) return short.class;
+		if (name.equals("char")) return char.class;
+		if (name.equals("int")) return int.class;
+		if (name.equals("long")) return long.class;
+		if (name.equals("float")) return float.class;
+		if (name.equals("double")) return double.class;
+
+		try {
+			return ClassReflection.forName(name);
+		} catch (ReflectionException e) {
+			throw new SerializationException("Class not found: " + name, e);
+		}
+	}
+
+	private ObjectMap<String, Field> getFieldsByName (Class type) {
+		ObjectMap<String, Field> fieldsByName = fieldsCache.get(type);
+
+		if (fieldsByName == null) {
+			fieldsByName = new ObjectMap<String, Field>();
+			for (Field field : getSerializedFields(type))
+				fieldsByName.put(field.getName(), field);
+			fieldsCache.put(type, fieldsByName);
+		}
+
+		return fieldsByName;
+	}
+
+	/** @return fields serialized by binary format, the same fields are serialized by {@link Json} */
+	static Array<Field> getSerializedFields (Class type) {
+		Array<Class> classes = new Array<Class>();
+		Class nextClass = type;
+		while (nextClass != null && nextClass != Object.class) {
+			classes.add(nextClass);
+			nextClass = nextClass.getSuperclass();
+		}
+
+		Array<Field> fields = new Array<Field>();
+		for (int i = classes.size - 1; i >= 0; i--) {
+			for (Field field : ClassReflection.getDeclaredFields(classes.get(i))) {
+				if (field.isTransient() || field.isStatic() || field.isSynthetic()) continue;
+				if (field.isAccessible() == false) field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+
+		return fields;
+	}
+
+	private int readInt () {
+		byte[] data = this.data;
+		int pos = position;
+		position += 4;
+		return (data[pos] & 0xFF) << 24 | (data[pos + 1] & 0xFF) << 16 | (data[pos + 2] & 0xFF) << 8 | (data[pos + 3] & 0xFF);
+	}
+
+	private long readLong () {
+		return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+	}
+
+	private int readVarInt () {
+		byte[] data = this.data;
+		int result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = data[position++];
+			result |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return result;
+	}
+
+	private int readVarIntZigZag () {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private long readVarLongZigZag () {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = data[position++];
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.scene;
+
+import com.artemis.Component;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.*;
+import com.badlogic.gdx.utils.IntMap.Entry;
+import com.badlogic.gdx.utils.reflect.ArrayReflection;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import com.kotcrab.vis.runtime.component.AssetComponent;
+import com.kotcrab.vis.runtime.component.ShaderProtoComponent;
+import com.kotcrab.vis.runtime.data.EntityData;
+import com.kotcrab.vis.runtime.data.SceneData;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.Map;
+
+import static com.kotcrab.vis.runtime.scene.BinarySceneFormat.*;
+
+/**
+ * Writes scenes in binary format readable by {@link BinarySceneFormat}. Not thread safe.
+ * @author Kotcrab
+ */
+public class BinarySceneWriter {
+	private final Json json;
+
+	private final ObjectIntMap<String> strings = new ObjectIntMap<String>();
+	private final Array<String> stringList = new Array<String>();
+	private final ObjectIntMap<Class> types = new ObjectIntMap<Class>();
+	private final Array<Class> typeList = new Array<Class>();
+	private final ObjectMap<Class, Array<Field>> fieldsCache = new ObjectMap<Class, Array<Field>>();
+
+	private final ByteBuffer entityBuffer = new ByteBuffer(256);
+	private final ByteBuffer dependencyKeyBuffer = new ByteBuffer(64);
+
+	public BinarySceneWriter (Json json) {
+		this.json = json;
+	}
+
+	public void write (SceneData sceneData, FileHandle file) {
+		strings.clear();
+		stringList.clear();
+		types.clear();
+		typeList.clear();
+
+		Array<EntityData> entities = sceneData.entities;
+		ByteBuffer sceneBuffer = new ByteBuffer(256);
+		sceneData.entities = new Array<EntityData>();
+		try {
+			writeValue(sceneBuffer, sceneData);
+		} finally {
+			sceneData.entities = entities;
+		}
+
+		ByteBuffer entitiesBuffer = new ByteBuffer(entities.size * 64);
+		IntArray dependencyEntities = new IntArray();
+		ObjectSet<String> dependencyKeys = new ObjectSet<String>();
+
+		for (int i = 0; i < entities.size; i++) {
+			Array<Component> components = entities.get(i).components;
+			entityBuffer.clear();
+			dependencyKeyBuffer.clear();
+
+			entityBuffer.writeVarInt(components.size);
+			for (Component component : components) {
+				int start = entityBuffer.size;
+				writeValue(entityBuffer, component);
+
+				if (component instanceof AssetComponent || component instanceof ShaderProtoComponent)
+					dependencyKeyBuffer.write(entityBuffer.bytes, start, entityBuffer.size - start);
+			}
+
+			//equal components are always encoded the same way, entity is stored in header only for new set of dependencies
+			if (dependencyKeyBuffer.size > 0 && dependencyKeys.add(dependencyKeyBuffer.toKey()))
+				dependencyEntities.add(i);
+
+			entitiesBuffer.writeVarInt(entityBuffer.size);
+			entitiesBuffer.write(entityBuffer.bytes, 0, entityBuffer.size);
+		}
+
+		ByteBuffer output = new ByteBuffer(entitiesBuffer.size + sceneBuffer.size + 1024);
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		writeTables(output);
+
+		output.writeVarInt(dependencyEntities.size);
+		int lastIndex = 0;
+		for (int i = 0; i < dependencyEntities.size; i++) {
+			output.writeVarInt(dependencyEntities.get(i) - lastIndex);
+			lastIndex = dependencyEntities.get(i);
+		}
+
+		output.writeVarInt(sceneBuffer.size);
+		output.write(sceneBuffer.bytes, 0, sceneBuffer.size);
+		output.writeVarInt(entities.size);
+		output.write(entitiesBuffer.bytes, 0, entitiesBuffer.size);
+
+		file.writeBytes(output.bytes, 0, output.size, false);
+	}
+
+	private void writeTables (ByteBuffer output) {
+		output.writeVarInt(stringList.size);
+		try {
+			for (String string : stringList) {
+				byte[] bytes = string.getBytes("UTF-8");
+				output.writeVarInt(bytes.length);
+				output.write(bytes, 0, bytes.length);
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new GdxRuntimeException(e);
+		}
+
+		output.writeVarInt(typeList.size);
+		for (Class type : typeList) {
+			output.writeVarInt(strings.get(getClassName(type), -1));
+
+			Array<Field> fields = fieldsCache.get(type);
+			if (fields == null) {
+				output.writeVarInt(0);
+				continue;
+			}
+
+			output.writeVarInt(fields.size);
+			for (Field field : fields)
+				output.writeVarInt(strings.get(field.getName(), -1));
+		}
+	}
+
+	private void writeValue (ByteBuffer output, Object value) {
+		if (value == null) {
+			output.writeByte(NULL);
+			return;
+		}
+
+		Class type = value.getClass();
+
+		if (value instanceof String) {
+			output.writeByte(STRING);
+			output.writeVarInt(stringIndex((String) value));
+		} else if (value instanceof Boolean) {
+			output.writeByte((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Integer) {
+			output.writeByte(INT);
+			output.writeVarIntZigZag((Integer) value);
+		} else if (value instanceof Float) {
+			output.writeByte(FLOAT);
+			output.writeInt(NumberUtils.floatToRawIntBits((Float) value));
+		} else if (value instanceof Long) {
+			output.writeByte(LONG);
+			output.writeVarLongZigZag((Long) value);
+		} else if (value instanceof Double) {
+			output.writeByte(DOUBLE);
+			long bits = NumberUtils.doubleToLongBits((Double) value);
+			output.writeInt((int) (bits >>> 32));
+			output.writeInt((int) bits);
+		} else if (value instanceof Byte) {
+			output.writeByte(BYTE);
+			output.writeByte((Byte) value);
+		} else if (value instanceof Short) {
+			output.writeByte(SHORT);
+			output.writeVarIntZigZag((Short) value);
+		} else if (value instanceof Character) {
+			output.writeByte(CHAR);
+			output.writeVarInt((Character) value);
+		} else if (value instanceof Enum) {
+			output.writeByte(ENUM);
+			output.writeVarInt(typeIndex(((Enum) value).getDeclaringClass()));
+			output.writeVarInt(stringIndex(((Enum) value).name()));
+		} else if (type == int[].class) {
+			int[] array = (int[]) value;
+			output.writeByte(INTS);
+			output.writeVarInt(array.length);
+			for (int element : array)
+				output.writeVarIntZigZag(element);
+		} else if (type == float[].class) {
+			float[] array = (float[]) value;
+			output.writeByte(FLOATS);
+			output.writeVarInt(array.length);
+			for (float element : array)
+				output.writeInt(NumberUtils.floatToRawIntBits(element));
+		} else if (type.isArray()) {
+			int length = ArrayReflection.getLength(value);
+			output.writeByte(OBJECT_ARRAY);
+			output.writeVarInt(typeIndex(type.getComponentType()));
+			output.writeVarInt(length);
+			for (int i = 0; i < length; i++)
+				writeValue(output, ArrayReflection.get(value, i));
+		} else if (type == Array.class) {
+			Array array = (Array) value;
+			output.writeByte(ARRAY);
+			output.writeVarInt(array.size);
+			for (int i = 0; i < array.size; i++)
+				writeValue(output, array.get(i));
+		} else if (type == ObjectMap.class) {
+			ObjectMap<?, ?> map = (ObjectMap) value;
+			output.writeByte(OBJECT_MAP);
+			output.writeVarInt(map.size);
+			for (ObjectMap.Entry entry : map.entries()) {
+				writeValue(output, entry.key);
+				writeValue(output, entry.value);
+			}
+		} else if (type == IntMap.class) {
+			IntMap<?> map = (IntMap) value;
+			output.writeByte(INT_MAP);
+			output.writeVarInt(map.size);
+			for (Entry entry : map.entries()) {
+				output.writeVarIntZigZag(entry.key);
+				writeValue(output, entry.value);
+			}
+		} else if (isJsonType(type)) {
+			output.writeByte(JSON);
+			output.writeVarInt(typeIndex(type));
+			output.writeVarInt(stringIndex(json.toJson(value, type)));
+		} else
+			writeObject(output, value, type);
+	}
+
+	private void writeObject (ByteBuffer output, Object object, Class type) {
+		output.writeByte(OBJECT);
+		output.writeVarInt(typeIndex(type));
+
+		try {
+			for (Field field : fieldsCache.get(type))
+				writeValue(output, field.get(object));
+		} catch (ReflectionException e) {
+			throw new SerializationException("Error accessing field value of class: " + type.getName(), e);
+		}
+	}
+
+	/** @return true if objects of this type must be serialized using {@link Json} */
+	private boolean isJsonType (Class type) {
+		return ClassReflection.isAssignableFrom(Json.Serializable.class, type) || json.getSerializer(type) != null
+				|| ClassReflection.isAssignableFrom(Collection.class, type) || ClassReflection.isAssignableFrom(Map.class, type);
+	}
+
+	/** @return true if objects of this type are written field by field */
+	private boolean isObjectType (Class type) {
+		return type.isPrimitive() == false && type.isArray() == false && ClassReflection.isAssignableFrom(Enum.class, type) == false
+				&& type != String.class && ClassReflection.isAssignableFrom(Number.class, type) == false && type != Boolean.class
+				&& type != Character.class && type != Array.class && type != ObjectMap.class && type != IntMap.class && isJsonType(type) == false;
+	}
+
+	private int stringIndex (String string) {
+		int index = strings.get(string, -1);
+		if (index != -1) return index;
+
+		index = stringList.size;
+		strings.put(string, index);
+		stringList.add(string);
+		return index;
+	}
+
+	private int typeIndex (Class type) {
+		int index = types.get(type, -1);
+		if (index != -1) return index;
+
+		stringIndex(getClassName(type));
+		if (isObjectType(type)) {
+			Array<Field> fields = fieldsCache.get(type);
+			if (fields == null) {
+				fields = getSerializedFields(type);
+				fieldsCache.put(type, fields);
+			}
+
+			for (Field field : fields)
+				stringIndex(field.getName());
+		}
+
+		index = typeList.size;
+		types.put(type, index);
+		typeList.add(type);
+		return index;
+	}
+
+	private String getClassName (Class type) {
+		String tag = json.getTag(type);
+		return tag != null ? tag : type.getName();
+	}
+
+	/** Growable byte array with methods for writing values in binary scene encoding */
+	private static class ByteBuffer {
+		byte[] bytes;
+		int size;
+
+		ByteBuffer (int capacity) {
+			bytes = new byte[Math.max(capacity, 16)];
+		}
+
+		void clear () {
+			size = 0;
+		}
+
+		private void ensureCapacity (int additional) {
+			if (size + additional <= bytes.length) return;
+			byte[] newBytes = new byte[Math.max(size + additional, bytes.length * 2)];
+			System.arraycopy(bytes, 0, newBytes, 0, size);
+			bytes = newBytes;
+		}
+
+		void writeByte (int value) {
+			ensureCapacity(1);
+			bytes[size++] = (byte) value;
+		}
+
+		void write (byte[] source, int offset, int length) {
+			ensureCapacity(length);
+			System.arraycopy(source, offset, bytes, size, length);
+			size += length;
+		}
+
+		void writeInt (int value) {
+			ensureCapacity(4);
+			bytes[size++] = (byte) (value >>> 24);
+			bytes[size++] = (byte) (value >>> 16);
+			bytes[size++] = (byte) (value >>> 8);
+			bytes[size++] = (byte) value;
+		}
+
+		void writeVarInt (int value) {
+			ensureCapacity(5);
+			while ((value & ~0x7F) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void writeVarIntZigZag (int value) {
+			writeVarInt((value << 1) ^ (value >> 31));
+		}
+
+		void writeVarLongZigZag (long value) {
+			value = (value << 1) ^ (value >> 63);
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		/** @return string that can be used as hash key of current content */
+		String toKey () {
+			char[] chars = new char[size];
+			for (int i = 0; i < size; i++)
+				chars[i] = (char) (bytes[i] & 0xFF);
+			return new String(chars);
+		}
+	}
+}
@@ -26,6 +26,7 @@ import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.utils.Array;
 import com.kotcrab.vis.runtime.RuntimeConfiguration;
 import com.kotcrab.vis.runtime.RuntimeContext;
+import com.kotcrab.vis.runtime.data.EntityData;
 import com.kotcrab.vis.runtime.data.LayerData;
 import com.kotcrab.vis.runtime.data.SceneData;
 import com.kotcrab.vis.runtime.plugin.EntitySupport;
@@ -40,6 +41,10 @@ import com.kotcrab.vis.runtime.util.*;
 
 /**
  * Base class of VisRuntime scene system. Scene are typically constructed using {@link VisAssetManager} with {@link SceneLoader}
+ * <p>
+ * Scene entities can be built incrementally (see {@link SceneParameter#incrementalBuild}), in such case entities are
+ * created and inflated in steps by {@link VisAssetManager#update()} and scene is initialized automatically after last step.
+ * {@link #getBuildProgress()} can be used to check build progress.
  * @author Kotcrab
  */
 public class Scene {
@@ -48,9 +53,17 @@ public class Scene {
 
 	private Array<LayerData> layerData;
 
+	private Array<EntityData> entitiesData;
+	private int builtEntities;
+	private int buildStepSize = Integer.MAX_VALUE;
+	private boolean initialized;
+	private final BootstrapInvocationStrategy bootstrapStrategy = new BootstrapInvocationStrategy();
+
 	/** Used by framework, not indented for external use */
 	public Scene (RuntimeContext context, SceneData data, SceneParameter parameter) {
 		layerData = data.layers;
+		entitiesData = data.entities;
+		if (parameter != null && parameter.incrementalBuild) buildStepSize = Math.max(1, parameter.incrementalBuildStepSize);
 
 		AssetManager assetsManager = context.assetsManager;
 		RuntimeConfiguration runtimeConfig = context.configuration;
@@ -69,7 +82,7 @@ public class Scene {
 
 		engineConfig.setManager(new LayerManager(data.layers));
 
-		engineConfig.setManager(new SpriteInflater(runtimeConfig, assetsManager));
+		engineConfig.setManager(new SpriteInflater(runtimeConfig, context.regionCache));
 		engineConfig.setManager(new SoundInflater(runtimeConfig, assetsManager));
 		engineConfig.setManager(new MusicInflater(runtimeConfig, assetsManager));
 		engineConfig.setManager(new ParticleInflater(runtimeConfig, assetsManager, data.pixelsPerUnit));
@@ -89,12 +102,13 @@ public class Scene {
 		}
 
 		if (data.physicsSettings.physicsEnabled) {
-			engineConfig.setSystem(new PhysicsSystem(data.physicsSettings));
+			engineConfig.setSystem(new PhysicsSystem(data.physicsSettings, runtimeConfig));
 			engineConfig.setManager(new PhysicsBodyManager());
 			if (runtimeConfig.useBox2dSpriteUpdateSystem) engineConfig.setSystem(new PhysicsSpriteUpdateSystem());
 		}
 
 		ArtemisUtils.createCommonSystems(engineConfig, context.batch, distanceFieldShader, false);
+		engineConfig.getSystem(RenderBatchingSystem.class).setCullingEnabled(runtimeConfig.useRenderCulling);
 		engineConfig.setSystem(new ParticleRenderSystem(engineConfig.getSystem(RenderBatchingSystem.class), false), true);
 
 		if (data.physicsSettings.physicsEnabled && runtimeConfig.useBox2dDebugRenderer)
@@ -107,12 +121,59 @@ public class Scene {
 		engine = new EntityEngine(engineConfig);
 	}
 
-	/** Called by framework right after loading scene to finish loading scene and inflate all entities */
-	public void init () {
-		engine.setInvocationStrategy(new BootstrapInvocationStrategy());
+	/** Creates up to given count of not yet built entities, they are not inflated until next bootstrap. Used by framework. */
+	void buildEntities (int count) {
+		int end = (int) Math.min((long) builtEntities + count, entitiesData.size);
+		for (; builtEntities < end; builtEntities++)
+			entitiesData.get(builtEntities).build(engine);
+	}
+
+	/**
+	 * Performs single incremental build step: creates next chunk of entities and inflates them. After last step scene
+	 * is initialized. Called by {@link VisAssetManager}, there is no need to call it manually.
+	 * @return true if scene is fully built and initialized
+	 */
+	public boolean buildStep () {
+		return buildStep(buildStepSize);
+	}
+
+	private boolean buildStep (int maxEntities) {
+		if (initialized) return true;
+
+		buildEntities(maxEntities);
+
+		engine.setInvocationStrategy(bootstrapStrategy);
 		engine.process();
 		engine.setInvocationStrategy(new InvocationStrategy());
 
+		if (builtEntities < entitiesData.size) return false;
+
+		entitiesData = null;
+		initialized = true;
+		afterSceneInit();
+		return true;
+	}
+
+	/** @return build progress from 0 to 1, 1 if scene was fully built and initialized */
+	public float getBuildProgress () {
+		if (initialized) return 1;
+		if (entitiesData.size == 0) return 0;
+		return builtEntities / (float) entitiesData.size;
+	}
+
+	public boolean isInitialized () {
+		return initialized;
+	}
+
+	/**
+	 * Called by framework right after loading scene to finish loading scene and inflate all entities. If scene is built
+	 * incrementally all remaining entities are built at once. Does nothing if scene was already initialized.
+	 */
+	public void init () {
+		buildStep(Integer.MAX_VALUE);
+	}
+
+	private void afterSceneInit () {
 		for (BaseSystem system : engine.getSystems()) {
 			if (system instanceof AfterSceneInit) {
 				((AfterSceneInit) system).afterSceneInit();
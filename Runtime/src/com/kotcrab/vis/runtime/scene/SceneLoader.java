@@ -36,6 +36,8 @@ import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
 import com.kotcrab.vis.runtime.RuntimeConfiguration;
 import com.kotcrab.vis.runtime.RuntimeContext;
 import com.kotcrab.vis.runtime.assets.*;
@@ -46,22 +48,30 @@ import com.kotcrab.vis.runtime.font.BitmapFontProvider;
 import com.kotcrab.vis.runtime.font.FontProvider;
 import com.kotcrab.vis.runtime.plugin.EntitySupport;
 import com.kotcrab.vis.runtime.scene.SceneLoader.SceneParameter;
+import com.kotcrab.vis.runtime.util.AtlasRegionCache;
 import com.kotcrab.vis.runtime.util.EntityEngine;
 import com.kotcrab.vis.runtime.util.ImmutableArray;
 import com.kotcrab.vis.runtime.util.SpriterData;
 
 /**
  * Scene loader for {@link AssetManager}. Allow to load entire scene file with all required dependencies such as textures, sounds etc.
+ * Both JSON and binary (see {@link BinarySceneFormat}) scene files are supported, format is detected automatically.
+ * Loader state is stored per loaded file so multiple scenes can be loaded at the same time.
  * @author Kotcrab
  */
 public class SceneLoader extends AsynchronousAssetLoader<Scene, SceneParameter> {
 	public static final String DISTANCE_FIELD_SHADER = "com/kotcrab/vis/runtime/bmp-font-df";
 
 	private RuntimeConfiguration configuration;
-	private SceneData data;
-	private Scene scene;
+	private final ObjectMap<String, SceneLoadState> loadStates = new ObjectMap<String, SceneLoadState>();
+	private final Array<Scene> incrementalScenes = new Array<Scene>();
+	private final Pool<SceneReader> readers = new Pool<SceneReader>() {
+		@Override
+		protected SceneReader newObject () {
+			return new SceneReader();
+		}
+	};
 
-	private boolean distanceFieldShaderLoaded;
 	private FontProvider bmpFontProvider;
 	private FontProvider ttfFontProvider;
 
@@ -69,6 +79,8 @@ public class SceneLoader extends AsynchronousAssetLoader<Scene, SceneParameter>
 
 	private Batch batch;
 
+	private AtlasRegionCache regionCache;
+
 	public SceneLoader () {
 		this(new InternalFileHandleResolver(), new RuntimeConfiguration());
 	}
@@ -138,15 +150,31 @@ public class SceneLoader extends AsynchronousAssetLoader<Scene, SceneParameter>
 	public Array<AssetDescriptor> getDependencies (String fileName, FileHandle file, SceneParameter parameter) {
 		if (batch == null) throw new IllegalStateException("Batch not set, see #setBatch(Batch)");
 
-		Json json = getJson();
-		data = json.fromJson(SceneData.class, file);
-
 		Array<AssetDescriptor> dependencies = new Array<AssetDescriptor>();
-		loadDependencies(dependencies, data.entities);
+		SceneLoadState state = new SceneLoadState();
+		state.binaryScene = BinarySceneFormat.isBinaryScene(file);
+
+		SceneReader reader = obtainReader();
+		try {
+			if (state.binaryScene) {
+				loadDependencies(state, dependencies, reader.binaryFormat.readDependencies(file));
+			} else {
+				state.data = reader.json.fromJson(SceneData.class, file);
+				loadDependencies(state, dependencies, state.data.entities);
+			}
+		} finally {
+			freeReader(reader);
+		}
+
+		synchronized (loadStates) {
+			//replaces state left by previous load of this file that failed before loadSync
+			loadStates.put(fileName, state);
+		}
+
 		return dependencies;
 	}
 
-	private void loadDependencies (Array<AssetDescriptor> dependencies, Array<EntityData> entities) {
+	private void loadDependencies (SceneLoadState state, Array<AssetDescriptor> dependencies, Array<EntityData> entities) {
 		for (EntityData entityData : entities) {
 			for (Component component : entityData.components) {
 				if (component instanceof AssetComponent) {
@@ -160,7 +188,7 @@ public class SceneLoader extends AsynchronousAssetLoader<Scene, SceneParameter>
 						dependencies.add(new AssetDescriptor<TextureAtlas>(regionAsset.getPath(), TextureAtlas.class));
 
 					} else if (asset instanceof BmpFontAsset) {
-						checkShader(dependencies);
+						checkShader(state, dependencies);
 						bmpFontProvider.load(dependencies, asset);
 					} else if (asset instanceof TtfFontAsset) {
 						ttfFontProvider.load(dependencies, asset);
@@ -186,44 +214,143 @@ public class SceneLoader extends AsynchronousAssetLoader<Scene, SceneParameter>
 					}
 				}
 
-				for (EntitySupport support : supports)
-					support.resolveDependencies(dependencies, entityData, component);
+				//supports array may be iterated by multiple loads at once, can't use shared array iterator
+				for (int i = 0; i < supports.size; i++)
+					supports.get(i).resolveDependencies(dependencies, entityData, component);
 			}
 		}
 	}
 
-	private void checkShader (Array<AssetDescriptor> dependencies) {
-		if (distanceFieldShaderLoaded == false)
+	private void checkShader (SceneLoadState state, Array<AssetDescriptor> dependencies) {
+		if (state.distanceFieldShaderAdded == false)
 			dependencies.add(new AssetDescriptor<ShaderProgram>(Gdx.files.classpath(DISTANCE_FIELD_SHADER), ShaderProgram.class));
 
-		distanceFieldShaderLoaded = true;
+		state.distanceFieldShaderAdded = true;
 	}
 
 	@Override
 	public void loadAsync (AssetManager manager, String fileName, FileHandle file, SceneParameter parameter) {
-		RuntimeContext context = new RuntimeContext(configuration, batch, manager, new ImmutableArray<EntitySupport>(supports));
-		scene = new Scene(context, data, parameter);
+		SceneLoadState state = getLoadState(fileName);
+
+		try {
+			if (state.binaryScene) {
+				SceneReader reader = obtainReader();
+				try {
+					state.data = reader.binaryFormat.readScene(file);
+				} finally {
+					freeReader(reader);
+				}
+			}
 
-		EntityEngine engine = scene.getEntityEngine();
-		for (EntityData entityData : data.entities)
-			entityData.build(engine);
+			AtlasRegionCache regionCache = getRegionCache(manager);
+			regionCache.evictUnloaded();
+
+			RuntimeContext context = new RuntimeContext(configuration, batch, manager, new ImmutableArray<EntitySupport>(supports), regionCache);
+			state.scene = new Scene(context, state.data, parameter);
+
+			if (parameter == null || parameter.incrementalBuild == false)
+				state.scene.buildEntities(Integer.MAX_VALUE);
+
+			state.data = null;
+		} catch (RuntimeException e) {
+			//loadSync won't be called for failed load
+			synchronized (loadStates) {
+				loadStates.remove(fileName);
+			}
+			throw e;
+		}
 	}
 
 	@Override
 	public Scene loadSync (AssetManager manager, String fileName, FileHandle file, SceneLoader.SceneParameter parameter) {
-		Scene scene = this.scene;
-		this.scene = null;
-		return scene;
+		SceneLoadState state;
+		synchronized (loadStates) {
+			state = loadStates.remove(fileName);
+		}
+
+		if (state == null) throw new IllegalStateException("Scene was not loaded asynchronously: " + fileName);
+		if (parameter != null && parameter.incrementalBuild) incrementalScenes.add(state.scene);
+		return state.scene;
+	}
+
+	/** @return atlas regions index shared by all scenes loaded by this loader from given manager */
+	public synchronized AtlasRegionCache getRegionCache (AssetManager manager) {
+		if (regionCache == null || regionCache.getManager() != manager) regionCache = new AtlasRegionCache(manager);
+		return regionCache;
+	}
+
+	/**
+	 * Performs single build step of first scene that is being built incrementally. Must be called from rendering thread,
+	 * typically called by {@link VisAssetManager#update()}.
+	 * @return true if there are no more scenes to build
+	 */
+	public boolean updateIncrementalBuilds () {
+		if (incrementalScenes.size == 0) return true;
+
+		if (incrementalScenes.first().buildStep())
+			incrementalScenes.removeIndex(0);
+
+		return incrementalScenes.size == 0;
+	}
+
+	/** Removes scene from incrementally built scenes, called by {@link VisAssetManager} when scene was unloaded. */
+	void removeIncrementalBuild (Scene scene) {
+		incrementalScenes.removeValue(scene, true);
+	}
+
+	private SceneLoadState getLoadState (String fileName) {
+		synchronized (loadStates) {
+			SceneLoadState state = loadStates.get(fileName);
+			if (state == null) throw new IllegalStateException("Dependencies of scene were not resolved: " + fileName);
+			return state;
+		}
+	}
+
+	private SceneReader obtainReader () {
+		synchronized (readers) {
+			return readers.obtain();
+		}
+	}
+
+	private void freeReader (SceneReader reader) {
+		synchronized (readers) {
+			readers.free(reader);
+		}
 	}
 
 	public void setRuntimeConfig (RuntimeConfiguration configuration) {
 		this.configuration = configuration;
 	}
 
+	/** State of single scene being loaded */
+	private static class SceneLoadState {
+		boolean binaryScene;
+		/** Distance field shader is added only once to dependencies of single scene */
+		boolean distanceFieldShaderAdded;
+		SceneData data;
+		Scene scene;
+	}
+
+	/** Json and binary format readers are not thread safe, they are pooled so each load uses its own instance */
+	private static class SceneReader {
+		final Json json = getJson();
+		final BinarySceneFormat binaryFormat = new BinarySceneFormat(json);
+	}
+
 	/** Allows to add additional system and managers into {@link EntityEngine} */
 	static public class SceneParameter extends AssetLoaderParameters<Scene> {
 		public Array<BaseSystem> systems = new Array<BaseSystem>();
 		public Array<BaseSystem> passiveSystems = new Array<BaseSystem>();
 		public Array<Manager> managers = new Array<Manager>();
+
+		/**
+		 * If true, scene entities won't be created during asynchronous loading, instead they are created and inflated in
+		 * chunks by {@link VisAssetManager#update()}, so loading can be spread across multiple frames using
+		 * {@link VisAssetManager#update(int)}. Scene is initialized automatically after last chunk, calling {@link Scene#init()}
+		 * is not required. Note that {@link com.kotcrab.vis.runtime.util.BootstrapSystem}s are processed after each chunk.
+		 */
+		public boolean incrementalBuild = false;
+		/** Max count of entities created in single incremental build step */
+		public int incrementalBuildStepSize = 100;
 	}
 }
@@ -51,6 +51,31 @@ public class VisAssetManager extends AssetManager {
 		setLoader(SpriterData.class, new SpriterDataLoader());
 	}
 
+	/**
+	 * Updates asset loading and performs single build step of scenes that are built incrementally.
+	 * @return true if all assets were loaded and all incrementally built scenes were initialized
+	 */
+	@Override
+	public synchronized boolean update () {
+		boolean assetsLoaded = super.update();
+		boolean scenesBuilt = sceneLoader.updateIncrementalBuilds();
+		return assetsLoaded && scenesBuilt;
+	}
+
+	/**
+	 * Unloads asset, if asset is scene that is still built incrementally its build is cancelled. If asset is texture atlas its
+	 * regions index is removed.
+	 */
+	@Override
+	public synchronized void unload (String fileName) {
+		Scene scene = isLoaded(fileName, Scene.class) ? get(fileName, Scene.class) : null;
+		super.unload(fileName);
+		if (isLoaded(fileName)) return;
+
+		if (scene != null) sceneLoader.removeIncrementalBuild(scene);
+		sceneLoader.getRegionCache(this).evict(fileName);
+	}
+
 	public SceneLoader getSceneLoader () {
 		return sceneLoader;
 	}
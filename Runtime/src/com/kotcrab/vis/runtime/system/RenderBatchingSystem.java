@@ -17,24 +17,41 @@
 package com.kotcrab.vis.runtime.system;
 
 import com.artemis.BaseSystem;
+import com.artemis.Component;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.World;
 import com.artemis.annotations.Wire;
 import com.artemis.utils.Bag;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 import com.kotcrab.vis.runtime.component.LayerComponent;
 import com.kotcrab.vis.runtime.component.RenderableComponent;
 import com.kotcrab.vis.runtime.component.ShaderComponent;
 import com.kotcrab.vis.runtime.scene.LayerCordsSystem;
+import com.kotcrab.vis.runtime.system.culling.BoundsProvider;
 import com.kotcrab.vis.runtime.system.delegate.EntityProcessAgent;
 import com.kotcrab.vis.runtime.system.delegate.EntityProcessPrincipal;
-import com.kotcrab.vis.runtime.util.BagUtils;
 
 /**
  * Plugable render system that uses subsystems to render entities. Entities are rendered sorted by their layer and zIndex
- * , if entity layer or zIndex has changed, {@link #markDirty()} must be called in order to resort the scene. System
- * will automatically resort if entity was added.
+ * , if entity layer or zIndex has changed, {@link #markDirty(int)} or {@link #markDirty()} must be called in order to
+ * update rendering order. Jobs are kept sorted at all times, added and removed entities are inserted and removed using
+ * binary search without resorting whole scene.
+ * <p>
+ * Entities that are outside of their layer camera view are culled before being passed to {@link EntityProcessAgent}.
+ * Bounds of entities are obtained from {@link BoundsProvider}s registered using {@link #setBoundsProvider(Class, BoundsProvider)},
+ * entities that does not have any component with registered provider are never culled.
+ * <p>
+ * Batch state (shader and projection matrix) is tracked between jobs, batch is only flushed when state actually changes
+ * so consecutive entities using the same {@link ShaderComponent} shader and layer cords system are rendered together.
+ * Agents that need to change batch shader must use {@link #setShader(ShaderProgram)} instead of changing it directly
+ * on batch.
  * @author Daan van Yperen
  */
 @Wire(failOnNull = false)
@@ -48,11 +65,30 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 
 	private Entity flyweight;
 	private boolean sortedDirty = false;
-	private final Bag<Job> sortedJobs = new Bag<Job>();
+	private final Array<Job> sortedJobs = new Array<Job>(true, 16, Job.class);
+	private final Array<Job> changedJobs = new Array<Job>();
+	/** Jobs indexed by entity id, jobs of the same entity are linked using {@link Job#nextEntityJob} */
+	private final Bag<Job> entityJobs = new Bag<Job>();
+	private int jobCounter;
 
 	private Batch batch;
 	private boolean usingFromEditor;
 
+	private boolean cullingEnabled = true;
+	private final Array<BoundsProviderEntry> boundsProviders = new Array<BoundsProviderEntry>();
+	private final Rectangle worldViewBounds = new Rectangle();
+	private final Rectangle screenViewBounds = new Rectangle();
+	private final Rectangle tmpBounds = new Rectangle();
+	private int renderedCount;
+	private int culledCount;
+
+	/** Shader currently set on batch, null when batch uses its default shader */
+	private ShaderProgram activeShader;
+	private int flushCount;
+	/** True when entity was processed since last state change, meaning that changing state will flush batch */
+	private boolean pendingDraws;
+	private int renderCalls;
+
 	public RenderBatchingSystem (Batch batch, boolean usingFromEditor) {
 		this.batch = batch;
 		this.usingFromEditor = usingFromEditor;
@@ -77,8 +113,12 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 		if (!renderableCm.has(entityId))
 			throw new RuntimeException("RenderBatchingSystem requires agents entities to have component Renderable.");
 		// register new job. this will influence sorting order.
-		sortedJobs.add(new Job(entityId, agent));
-		sortedDirty = true;
+		Job job = new Job(entityId, agent, findBoundsProvider(entityId));
+		job.updateSortKey();
+		insertJob(job);
+
+		job.nextEntityJob = entityJobs.safeGet(entityId);
+		entityJobs.set(entityId, job);
 	}
 
 	/**
@@ -92,15 +132,105 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 	@Override
 	public void unregisterAgent (int entityId, EntityProcessAgent agent) {
 		// forget about the job.
-		final Object[] data = sortedJobs.getData();
-		for (int i = 0, s = sortedJobs.size(); i < s; i++) {
-			final Job e2 = (Job) data[i];
-			if (e2.entityId == entityId && e2.agent == agent) {
-				sortedJobs.remove(i);
-				sortedDirty = true;
+		Job previous = null;
+		Job job = entityJobs.safeGet(entityId);
+		while (job != null) {
+			if (job.agent == agent) {
+				removeJob(job);
+
+				if (previous == null)
+					entityJobs.set(entityId, job.nextEntityJob);
+				else
+					previous.nextEntityJob = job.nextEntityJob;
 				break;
 			}
+
+			previous = job;
+			job = job.nextEntityJob;
+		}
+	}
+
+	private void insertJob (Job job) {
+		// find first job that should be rendered after this one
+		int low = 0;
+		int high = sortedJobs.size;
+		final Job[] items = sortedJobs.items;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (items[mid].compareTo(job) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		sortedJobs.insert(low, job);
+	}
+
+	private void removeJob (Job job) {
+		int low = 0;
+		int high = sortedJobs.size - 1;
+		final Job[] items = sortedJobs.items;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int result = items[mid].compareTo(job);
+
+			if (result < 0)
+				low = mid + 1;
+			else if (result > 0)
+				high = mid - 1;
+			else {
+				sortedJobs.removeIndex(mid);
+				return;
+			}
+		}
+
+		throw new IllegalStateException("Job for entity " + job.entityId + " was not found in sorted jobs");
+	}
+
+	/** Moves jobs of single entity to new position if its layer or zIndex has changed. */
+	private void updateEntityJobs (int entityId) {
+		Job job = entityJobs.safeGet(entityId);
+		while (job != null) {
+			if (job.isSortKeyChanged()) {
+				removeJob(job);
+				job.updateSortKey();
+				insertJob(job);
+			}
+
+			job = job.nextEntityJob;
+		}
+	}
+
+	/** Checks all jobs for changed sort keys, changed jobs are reinserted, if there are many of them jobs are resorted instead. */
+	private void updateAllJobs () {
+		final Job[] items = sortedJobs.items;
+		for (int i = 0, s = sortedJobs.size; i < s; i++) {
+			if (items[i].isSortKeyChanged()) changedJobs.add(items[i]);
+		}
+
+		if (changedJobs.size == 0) return;
+
+		if (changedJobs.size * 8 > sortedJobs.size) {
+			for (int i = 0, s = sortedJobs.size; i < s; i++) {
+				items[i].updateSortKey();
+			}
+
+			sortedJobs.sort();
+		} else {
+			for (int i = 0; i < changedJobs.size; i++) {
+				removeJob(changedJobs.get(i));
+			}
+
+			for (int i = 0; i < changedJobs.size; i++) {
+				Job job = changedJobs.get(i);
+				job.updateSortKey();
+				insertJob(job);
+			}
 		}
+
+		changedJobs.clear();
 	}
 
 	@Override
@@ -108,31 +238,47 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 		cameraManager.getCamera().update();
 		cameraManager.getUiCamera().update();
 
+		if (cullingEnabled) {
+			calculateViewBounds(cameraManager.getCamera(), worldViewBounds);
+			calculateViewBounds(cameraManager.getUiCamera(), screenViewBounds);
+		}
+
+		renderedCount = 0;
+		culledCount = 0;
+		flushCount = 0;
+		pendingDraws = false;
+
 		LayerCordsSystem activeCordsSystem = LayerCordsSystem.WORLD;
 		batch.setProjectionMatrix(cameraManager.getCombined());
 
 		if (usingFromEditor == false) batch.begin();
+		int startRenderCalls = getBatchRenderCalls();
 
 		if (sortedDirty) {
 			sortedDirty = false;
-			BagUtils.sort(sortedJobs);
+			updateAllJobs();
 		}
 
 		// iterate through all the jobs.
 		EntityProcessAgent activeAgent = null;
-		final Object[] data = sortedJobs.getData();
-		for (int i = 0, s = sortedJobs.size(); i < s; i++) {
-			final Job job = (Job) data[i];
+		final Job[] data = sortedJobs.items;
+		for (int i = 0, s = sortedJobs.size; i < s; i++) {
+			final Job job = data[i];
 			final EntityProcessAgent agent = job.agent;
 
-			flyweight.id = job.entityId;
-			boolean changedBatchState = false;
-			final boolean shaderUsed = shaderCm.has(job.entityId);
 			LayerCordsSystem cordsSystem = null;
 
 			if (usingFromEditor == false)
 				cordsSystem = layerManager.getData(layerCm.get(job.entityId).layerId).cordsSystem;
 
+			if (cullingEnabled && isCulled(job, cordsSystem)) {
+				culledCount++;
+				continue;
+			}
+
+			renderedCount++;
+			flyweight.id = job.entityId;
+
 			// agent changed? end() the last agent, and begin() the next agent.
 			if (agent != activeAgent) {
 				if (activeAgent != null) {
@@ -142,14 +288,11 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 				activeAgent.begin();
 			}
 
-			if (shaderUsed) {
-				changedBatchState = true;
-				batch.end();
-				batch.setShader(shaderCm.get(job.entityId).shader);
-			}
+			setShader(shaderCm.has(job.entityId) ? shaderCm.get(job.entityId).shader : null);
 
 			if (usingFromEditor == false && cordsSystem != activeCordsSystem) {
 				activeCordsSystem = cordsSystem;
+				countFlush();
 
 				switch (activeCordsSystem) {
 					case WORLD:
@@ -161,11 +304,8 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 				}
 			}
 
-			if (changedBatchState) batch.begin();
-
 			agent.process(flyweight);
-
-			if (shaderUsed) batch.setShader(null);
+			pendingDraws = true;
 		}
 
 		// finished, terminate final agent.
@@ -173,17 +313,142 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 			activeAgent.end();
 		}
 
+		setShader(null);
+
 		if (usingFromEditor == false) batch.end();
+		renderCalls = getBatchRenderCalls() - startRenderCalls;
+	}
+
+	private int getBatchRenderCalls () {
+		if (batch instanceof SpriteBatch) return ((SpriteBatch) batch).renderCalls;
+		return 0;
+	}
+
+	/**
+	 * Changes shader used by batch. If shader is the same as currently used one then this call is ignored and batch is
+	 * not flushed. Shader set by agent is only valid for currently processed entity, before processing next entity
+	 * shader will be changed to one from its {@link ShaderComponent} or to default one.
+	 * @param shader shader to use or null to use batch default shader
+	 */
+	public void setShader (ShaderProgram shader) {
+		if (shader == activeShader) return;
+		activeShader = shader;
+		batch.setShader(shader);
+		countFlush();
+	}
+
+	/** Counts batch flush caused by state change, state changes made before anything was drawn don't flush batch */
+	private void countFlush () {
+		if (pendingDraws) flushCount++;
+		pendingDraws = false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean isCulled (Job job, LayerCordsSystem cordsSystem) {
+		BoundsProviderEntry entry = job.boundsProvider;
+		if (entry == null || entry.mapper.has(job.entityId) == false) return false;
+		if (entry.provider.getBounds(entry.mapper.get(job.entityId), tmpBounds) == false) return false;
+
+		Rectangle viewBounds = cordsSystem == LayerCordsSystem.SCREEN ? screenViewBounds : worldViewBounds;
+		return viewBounds.overlaps(tmpBounds) == false;
+	}
+
+	/** Calculates axis aligned bounds of camera view, takes camera rotation and zoom into account. */
+	private void calculateViewBounds (OrthographicCamera camera, Rectangle out) {
+		Vector3[] points = camera.frustum.planePoints;
+		float minX = points[0].x, maxX = points[0].x;
+		float minY = points[0].y, maxY = points[0].y;
+
+		for (int i = 1; i < 4; i++) {
+			minX = Math.min(minX, points[i].x);
+			maxX = Math.max(maxX, points[i].x);
+			minY = Math.min(minY, points[i].y);
+			maxY = Math.max(maxY, points[i].y);
+		}
+
+		out.set(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	private BoundsProviderEntry findBoundsProvider (int entityId) {
+		for (int i = 0; i < boundsProviders.size; i++) {
+			BoundsProviderEntry entry = boundsProviders.get(i);
+			if (entry.mapper == null) entry.mapper = world.getMapper(entry.componentClass);
+			if (entry.mapper.has(entityId)) return entry;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Registers bounds provider for given component type, replaces provider previously registered for that type. Entities
+	 * that were already added to system won't use new provider. Providers are checked in order they were registered, first
+	 * provider of component that entity has will be used.
+	 * @param componentClass class of component that provider supports
+	 * @param provider provider, may be null to remove provider previously registered for this component type
+	 */
+	public <T extends Component> void setBoundsProvider (Class<T> componentClass, BoundsProvider<T> provider) {
+		for (int i = 0; i < boundsProviders.size; i++) {
+			if (boundsProviders.get(i).componentClass == componentClass) {
+				boundsProviders.removeIndex(i);
+				break;
+			}
+		}
+
+		if (provider != null) boundsProviders.add(new BoundsProviderEntry(componentClass, provider));
+	}
+
+	public void setCullingEnabled (boolean cullingEnabled) {
+		this.cullingEnabled = cullingEnabled;
+	}
+
+	public boolean isCullingEnabled () {
+		return cullingEnabled;
+	}
+
+	/** @return count of entities passed to agents during last frame */
+	public int getRenderedCount () {
+		return renderedCount;
+	}
+
+	/** @return count of entities that were culled during last frame */
+	public int getCulledCount () {
+		return culledCount;
+	}
+
+	/** @return count of batch flushes caused by shader or projection matrix changes during last frame */
+	public int getFlushCount () {
+		return flushCount;
+	}
+
+	/**
+	 * @return count of draw calls performed by batch during last frame, only available when batch is {@link SpriteBatch},
+	 * returns 0 otherwise. When used from editor last flush is not included because batch is ended by editor.
+	 */
+	public int getRenderCalls () {
+		return renderCalls;
 	}
 
 	public Batch getBatch () {
 		return batch;
 	}
 
+	/**
+	 * Marks that layer or zIndex of some entities has changed. Before rendering next frame, all jobs will be checked
+	 * and only changed ones will be moved. If you know which entity has changed prefer {@link #markDirty(int)}.
+	 */
 	public void markDirty () {
 		sortedDirty = true;
 	}
 
+	/**
+	 * Notifies that layer or zIndex of single entity has changed, entity is moved to its new position in rendering order
+	 * immediately.
+	 * @param entityId id of entity which layer or zIndex has changed
+	 */
+	public void markDirty (int entityId) {
+		updateEntityJobs(entityId);
+	}
+
 	public boolean isDirty () {
 		return sortedDirty;
 	}
@@ -192,24 +457,55 @@ public class RenderBatchingSystem extends BaseSystem implements EntityProcessPri
 	public class Job implements Comparable<Job> {
 		public final int entityId;
 		public final EntityProcessAgent agent;
+		private final BoundsProviderEntry boundsProvider;
+		/** Used to keep order of jobs with same layer and zIndex stable */
+		private final int order;
+		private Job nextEntityJob;
+
+		/** Cached sort keys, updated only when job is (re)inserted into sorted jobs */
+		private int layerId;
+		private int zIndex;
 
 		/**
 		 * @param entityId entity we will process
 		 * @param agent agent responsible for processing.
+		 * @param boundsProvider provider used to cull entity, may be null
 		 */
-		public Job (final int entityId, final EntityProcessAgent agent) {
+		public Job (final int entityId, final EntityProcessAgent agent, BoundsProviderEntry boundsProvider) {
 			this.entityId = entityId;
 			this.agent = agent;
+			this.boundsProvider = boundsProvider;
+			this.order = jobCounter++;
+		}
+
+		private boolean isSortKeyChanged () {
+			return layerCm.get(entityId).layerId != layerId || renderableCm.get(entityId).zIndex != zIndex;
+		}
+
+		private void updateSortKey () {
+			layerId = layerCm.get(entityId).layerId;
+			zIndex = renderableCm.get(entityId).zIndex;
 		}
 
 		@Override
 		public int compareTo (Job o) {
-			int layerResult = (int) Math.signum(layerCm.get(this.entityId).layerId - layerCm.get(o.entityId).layerId);
+			if (layerId != o.layerId) return layerId < o.layerId ? -1 : 1;
+			if (zIndex != o.zIndex) return zIndex < o.zIndex ? -1 : 1;
+			if (order != o.order) return order < o.order ? -1 : 1;
+			return 0;
+		}
+	}
 
-			if (layerResult == 0)
-				return (int) Math.signum(renderableCm.get(this.entityId).zIndex - renderableCm.get(o.entityId).zIndex);
-			else
-				return layerResult;
+	private static class BoundsProviderEntry {
+		public final Class<? extends Component> componentClass;
+		@SuppressWarnings("rawtypes")
+		public final BoundsProvider provider;
+		@SuppressWarnings("rawtypes")
+		public ComponentMapper mapper;
+
+		public BoundsProviderEntry (Class<? extends Component> componentClass, BoundsProvider<?> provider) {
+			this.componentClass = componentClass;
+			this.provider = provider;
 		}
 	}
 }
@@ -22,7 +22,6 @@ import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
-import com.badlogic.gdx.math.Matrix4;
 import com.kotcrab.vis.runtime.component.InvisibleComponent;
 import com.kotcrab.vis.runtime.component.TextComponent;
 import com.kotcrab.vis.runtime.system.delegate.DeferredEntityProcessingSystem;
@@ -34,8 +33,6 @@ import com.kotcrab.vis.runtime.system.delegate.EntityProcessPrincipal;
  */
 @Wire
 public class TextRenderSystem extends DeferredEntityProcessingSystem {
-	private static final Matrix4 IDT_MATRIX = new Matrix4();
-
 	private ComponentMapper<TextComponent> textCm;
 
 	private RenderBatchingSystem renderBatchingSystem;
@@ -54,16 +51,8 @@ public class TextRenderSystem extends DeferredEntityProcessingSystem {
 
 	@Override
 	protected void process (final Entity entity) {
-		//TODO: optimize texts
 		TextComponent text = textCm.get(entity);
-		batch.setTransformMatrix(text.translationMatrix);
-		if (text.isDistanceFieldShaderEnabled()) batch.setShader(distanceFieldShader);
-		text.getCache().draw(batch);
-		if (text.isDistanceFieldShaderEnabled()) batch.setShader(null);
-	}
-
-	@Override
-	protected void end () {
-		batch.setTransformMatrix(IDT_MATRIX);
+		if (text.isDistanceFieldShaderEnabled()) renderBatchingSystem.setShader(distanceFieldShader);
+		text.draw(batch);
 	}
 }
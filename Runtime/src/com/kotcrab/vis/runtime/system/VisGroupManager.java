@@ -19,26 +19,42 @@ package com.kotcrab.vis.runtime.system;
 import com.artemis.*;
 import com.artemis.EntitySubscription.SubscriptionListener;
 import com.artemis.annotations.Wire;
+import com.artemis.utils.Bag;
 import com.artemis.utils.IntBag;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Bits;
 import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
 import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntMap.Entry;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import com.kotcrab.vis.runtime.component.GroupComponent;
+import com.kotcrab.vis.runtime.util.ImmutableArray;
 
 /**
- * Allows to get entities by their string id that was set in VisEditor
+ * Allows to get entities by their groups that were set in VisEditor. Group names are mapped to their int ids in both directions,
+ * each entity keeps bitset of groups it belongs to so membership checks and removals are constant time.
  * @author Kotcrab
  */
 @Wire
 public class VisGroupManager extends Manager {
+	private static final ImmutableArray<Entity> EMPTY_VIEW = new ImmutableArray<Entity>(new Array<Entity>(0));
+
 	private ComponentMapper<GroupComponent> groupCm;
 	private AspectSubscriptionManager subscriptionManager;
 
 	private IntMap<String> groupsIds;
-	private IntMap<Array<Entity>> groups = new IntMap<Array<Entity>>();
+	private ObjectIntMap<String> groupsNames = new ObjectIntMap<String>();
+	private IntMap<Group> groups = new IntMap<Group>();
+
+	/** Indexed by entity id, bits are set for groups that entity belongs to */
+	private Bag<Bits> entityGroups = new Bag<Bits>();
 
 	public VisGroupManager (IntMap<String> groupsIds) {
 		this.groupsIds = groupsIds;
+
+		for (Entry<String> entry : groupsIds)
+			groupsNames.put(entry.value, entry.key);
 	}
 
 	@Override
@@ -51,22 +67,22 @@ public class VisGroupManager extends Manager {
 				int[] data = entities.getData();
 				for (int i = 0; i < entities.size(); i++) {
 					int entityId = data[i];
+					Entity entity = world.getEntity(entityId);
+
+					Bits membership = entityGroups.safeGet(entityId);
+					if (membership == null) {
+						membership = new Bits();
+						entityGroups.set(entityId, membership);
+					}
 
 					IntArray groupIds = groupCm.get(entityId).groupIds;
 
 					for (int j = 0; j < groupIds.size; j++) {
 						int gid = groupIds.get(j);
+						if (membership.getAndSet(gid)) continue;
 
-						Array<Entity> groupList = groups.get(gid);
-
-						if (groupList == null) {
-							groupList = new Array<Entity>();
-							groups.put(gid, groupList);
-						}
-
-						groupList.add(world.getEntity(entityId));
+						getGroup(gid).add(entity);
 					}
-
 				}
 			}
 
@@ -76,32 +92,174 @@ public class VisGroupManager extends Manager {
 				for (int i = 0; i < entities.size(); i++) {
 					int entityId = data[i];
 
-					IntArray groupIds = groupCm.get(entityId).groupIds;
-
-					for (int j = 0; j < groupIds.size; j++) {
-						int gid = groupIds.get(j);
+					Bits membership = entityGroups.safeGet(entityId);
+					if (membership == null) continue;
 
-						Array<Entity> groupList = groups.get(gid);
-						groupList.removeValue(world.getEntity(entityId), true);
+					for (int gid = membership.nextSetBit(0); gid != -1; gid = membership.nextSetBit(gid + 1))
+						groups.get(gid).remove(entityId);
 
-						if (groupList.size == 0) {
-							groups.remove(gid);
-						}
-					}
+					membership.clear();
 				}
 			}
 		});
 	}
 
+	/**
+	 * @return array of entities in group with given id or null if there are no entities in this group. Returned array is
+	 * internal group storage and must not be modified.
+	 * @deprecated use {@link #getView(int)} which does not expose internal storage and never returns null
+	 */
+	@Deprecated
 	public Array<Entity> get (int intId) {
-		return groups.get(intId);
+		Group group = groups.get(intId);
+		return group == null || group.entities.size == 0 ? null : group.entities;
 	}
 
+	/**
+	 * @return array of entities in group with given name or null if there are no entities in this group. Returned array is
+	 * internal group storage and must not be modified.
+	 * @throws IllegalStateException when group with this name does not exist
+	 * @deprecated use {@link #getView(String)} which does not expose internal storage and never returns null
+	 */
+	@Deprecated
 	public Array<Entity> get (String stringId) {
-		int gid = groupsIds.findKey(stringId, false, Integer.MIN_VALUE);
+		return get(getGroupId(stringId));
+	}
+
+	/**
+	 * Returns view of entities in group with given id. Returned view is reused and stays valid, it's updated when entities are
+	 * added to or removed from group. If group does not have any entities yet, shared empty view is returned which won't be
+	 * updated, get view again after entities were added.
+	 */
+	public ImmutableArray<Entity> getView (int intId) {
+		Group group = groups.get(intId);
+		return group == null ? EMPTY_VIEW : group.view;
+	}
+
+	/**
+	 * Returns view of entities in group with given name, see {@link #getView(int)}.
+	 * @throws IllegalStateException when group with this name does not exist
+	 */
+	public ImmutableArray<Entity> getView (String stringId) {
+		return getView(getGroupId(stringId));
+	}
+
+	/**
+	 * @return int id of group with given name
+	 * @throws IllegalStateException when group with this name does not exist
+	 */
+	public int getGroupId (String stringId) {
+		int gid = groupsNames.get(stringId, Integer.MIN_VALUE);
 		if (gid == Integer.MIN_VALUE)
 			throw new IllegalStateException("Group with ID: " + stringId + " does not exists!");
 
-		return groups.get(gid);
+		return gid;
+	}
+
+	/** @return name of group with given int id or null if group does not have name */
+	public String getGroupName (int intId) {
+		return groupsIds.get(intId);
+	}
+
+	/** @return true if entity belongs to group with given int id */
+	public boolean isInGroup (Entity entity, int intId) {
+		Bits membership = entityGroups.safeGet(entity.getId());
+		return membership != null && membership.get(intId);
+	}
+
+	/**
+	 * Adds entities that belong to at least one of provided groups to result array. Each entity is added only once. Array
+	 * is not cleared.
+	 * @return provided array
+	 */
+	public Array<Entity> getUnion (IntArray intIds, Array<Entity> result) {
+		for (int i = 0; i < intIds.size; i++) {
+			Group group = groups.get(intIds.get(i));
+			if (group == null) continue;
+			Array<Entity> entities = group.entities;
+
+			for (int j = 0; j < entities.size; j++) {
+				Entity entity = entities.get(j);
+				if (isInAnyGroup(entity.getId(), intIds, i) == false) result.add(entity);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds entities that belong to all of provided groups to result array. Array is not cleared.
+	 * @return provided array
+	 */
+	public Array<Entity> getIntersection (IntArray intIds, Array<Entity> result) {
+		if (intIds.size == 0) return result;
+
+		//iterate over smallest group and check membership in others
+		Array<Entity> smallest = null;
+		for (int i = 0; i < intIds.size; i++) {
+			Group group = groups.get(intIds.get(i));
+			if (group == null) return result;
+			Array<Entity> entities = group.entities;
+			if (smallest == null || entities.size < smallest.size) smallest = entities;
+		}
+
+		for (int i = 0; i < smallest.size; i++) {
+			Entity entity = smallest.get(i);
+			Bits membership = entityGroups.get(entity.getId());
+
+			boolean inAll = true;
+			for (int j = 0; j < intIds.size; j++) {
+				if (membership.get(intIds.get(j)) == false) {
+					inAll = false;
+					break;
+				}
+			}
+
+			if (inAll) result.add(entity);
+		}
+
+		return result;
+	}
+
+	/** @return true if entity belongs to any of groups from provided array before given index */
+	private boolean isInAnyGroup (int entityId, IntArray intIds, int endIndex) {
+		Bits membership = entityGroups.get(entityId);
+
+		for (int i = 0; i < endIndex; i++)
+			if (membership.get(intIds.get(i))) return true;
+
+		return false;
+	}
+
+	private Group getGroup (int gid) {
+		Group group = groups.get(gid);
+
+		if (group == null) {
+			group = new Group();
+			groups.put(gid, group);
+		}
+
+		return group;
+	}
+
+	private static class Group {
+		final Array<Entity> entities = new Array<Entity>(false, 16);
+		final ImmutableArray<Entity> view = new ImmutableArray<Entity>(entities);
+		/** Maps entity id to its index in entities array */
+		final IntIntMap slots = new IntIntMap();
+
+		void add (Entity entity) {
+			slots.put(entity.getId(), entities.size);
+			entities.add(entity);
+		}
+
+		void remove (int entityId) {
+			int slot = slots.remove(entityId, -1);
+			if (slot == -1) return;
+
+			//array is unordered so last entity is moved into removed slot
+			entities.removeIndex(slot);
+			if (slot < entities.size) slots.put(entities.get(slot).getId(), slot);
+		}
 	}
 }
@@ -19,13 +19,15 @@ package com.kotcrab.vis.runtime.system;
 import com.artemis.*;
 import com.artemis.EntitySubscription.SubscriptionListener;
 import com.artemis.annotations.Wire;
+import com.artemis.utils.Bag;
 import com.artemis.utils.IntBag;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.kotcrab.vis.runtime.component.IDComponent;
 
 /**
- * Allows to get entities by their string id that was set in VisEditor
+ * Allows to get entities by their string id that was set in VisEditor. Each entity remembers its slot in list of entities
+ * sharing the same id so removing entity is constant time. Order of entities sharing the same id is not preserved.
  * @author Kotcrab
  */
 @Wire
@@ -34,6 +36,14 @@ public class VisIDManager extends Manager {
 	private AspectSubscriptionManager subscriptionManager;
 
 	private ObjectMap<String, Array<Entity>> idStore = new ObjectMap<String, Array<Entity>>();
+	/** All ids that are currently in use, sorted, used for prefix queries. Rebuilt lazily on first query after ids changed. */
+	private Array<String> sortedIds = new Array<String>();
+	private boolean sortedIdsDirty;
+
+	/** Indexed by entity id, id that entity was registered with */
+	private Bag<String> entityIds = new Bag<String>();
+	/** Indexed by entity id, slot of entity in list of entities sharing the same id */
+	private IntBag entitySlots = new IntBag();
 
 	@Override
 	protected void initialize () {
@@ -50,10 +60,13 @@ public class VisIDManager extends Manager {
 					Array<Entity> idList = idStore.get(id);
 
 					if (idList == null) {
-						idList = new Array<Entity>();
+						idList = new Array<Entity>(false, 4);
 						idStore.put(id, idList);
+						sortedIdsDirty = true;
 					}
 
+					entityIds.set(entityId, id);
+					entitySlots.set(entityId, idList.size);
 					idList.add(world.getEntity(entityId));
 				}
 			}
@@ -63,13 +76,21 @@ public class VisIDManager extends Manager {
 				int[] data = entities.getData();
 				for (int i = 0; i < entities.size(); i++) {
 					int entityId = data[i];
-					String id = idCm.get(entityId).id;
+					String id = entityIds.safeGet(entityId);
+					if (id == null) continue;
 
 					Array<Entity> idList = idStore.get(id);
-					idList.removeValue(world.getEntity(entityId), true);
+					int slot = entitySlots.get(entityId);
+
+					//list is unordered so last entity is moved into removed slot
+					idList.removeIndex(slot);
+					if (slot < idList.size) entitySlots.set(idList.get(slot).getId(), slot);
+
+					entityIds.set(entityId, null);
 
 					if (idList.size == 0) {
 						idStore.remove(id);
+						sortedIdsDirty = true;
 					}
 				}
 			}
@@ -77,7 +98,9 @@ public class VisIDManager extends Manager {
 	}
 
 	/**
-	 * Returns entity for given ID. If multiple entities has the same id only the first one will be returned.
+	 * Returns entity for given ID. If multiple entities has the same id any of them will be returned.
+	 * @throws IllegalStateException when there isn't any entity with this ID
+	 * @see #find(String)
 	 * @see #getMultiple(String)
 	 */
 	public Entity get (String id) {
@@ -85,7 +108,18 @@ public class VisIDManager extends Manager {
 	}
 
 	/**
-	 * Returns all entities with this ID.
+	 * Returns entity for given ID. If multiple entities has the same id any of them will be returned.
+	 * @return found entity or null if there isn't any entity with this ID
+	 */
+	public Entity find (String id) {
+		Array<Entity> entities = idStore.get(id);
+		if (entities == null) return null;
+		return entities.first();
+	}
+
+	/**
+	 * Returns all entities with this ID. Returned array is used internally and must not be modified.
+	 * @throws IllegalStateException when there isn't any entity with this ID
 	 * @see #get(String)
 	 */
 	public Array<Entity> getMultiple (String id) {
@@ -93,4 +127,64 @@ public class VisIDManager extends Manager {
 		if (entities == null) throw new IllegalStateException("Could not find any entity with ID: " + id);
 		return entities;
 	}
+
+	/**
+	 * Returns count of entities with this ID. Together with {@link #get(String, int)} allows to iterate over all entities
+	 * sharing the same ID without allocation.
+	 */
+	public int count (String id) {
+		Array<Entity> entities = idStore.get(id);
+		return entities == null ? 0 : entities.size;
+	}
+
+	/** @return entity with this ID at given index, index must be less than {@link #count(String)} */
+	public Entity get (String id, int index) {
+		return getMultiple(id).get(index);
+	}
+
+	/** @return true if there is at least one entity with this ID */
+	public boolean contains (String id) {
+		return idStore.containsKey(id);
+	}
+
+	/**
+	 * Adds all entities with ID starting with given prefix to provided array. Array is not cleared. First query after
+	 * entities with new IDs were added or all entities with some ID were removed needs to sort all IDs.
+	 * @return provided array
+	 */
+	public Array<Entity> getByPrefix (String prefix, Array<Entity> result) {
+		if (sortedIdsDirty) rebuildSortedIds();
+
+		for (int i = findFirstIdIndex(prefix); i < sortedIds.size; i++) {
+			String id = sortedIds.get(i);
+			if (id.startsWith(prefix) == false) break;
+			result.addAll(idStore.get(id));
+		}
+
+		return result;
+	}
+
+	private void rebuildSortedIds () {
+		sortedIds.clear();
+		for (String id : idStore.keys())
+			sortedIds.add(id);
+		sortedIds.sort();
+		sortedIdsDirty = false;
+	}
+
+	/** @return index of first id that is equal or greater than provided value */
+	private int findFirstIdIndex (String value) {
+		int low = 0;
+		int high = sortedIds.size;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sortedIds.get(mid).compareTo(value) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
 }
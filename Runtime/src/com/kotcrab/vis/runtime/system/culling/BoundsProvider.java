@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.runtime.system.culling;
+
+import com.artemis.Component;
+import com.badlogic.gdx.math.Rectangle;
+import com.kotcrab.vis.runtime.system.RenderBatchingSystem;
+
+/**
+ * Provides axis aligned bounds of renderable component, used by {@link RenderBatchingSystem} to cull entities that are
+ * outside of camera view. Bounds must be in the same units as camera of layer that entity is on.
+ * @author Kotcrab
+ * @see RenderBatchingSystem#setBoundsProvider(Class, BoundsProvider)
+ */
+public interface BoundsProvider<T extends Component> {
+	/**
+	 * Calculates bounds of component.
+	 * @param component component to calculate bounds for
+	 * @param out rectangle that bounds must be written to
+	 * @return true if bounds were written to out rectangle, false if bounds can't be determined, in such case entity
+	 * won't be culled
+	 */
+	boolean getBounds (T component, Rectangle out);
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.runtime.system.culling;
+
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.kotcrab.vis.runtime.component.ParticleComponent;
+
+/**
+ * Provides bounds of {@link ParticleComponent}. Because culled effects are not updated, bounds always includes emitters
+ * spawn area (not only currently alive particles) so effect that has no visible particles can still spawn new ones
+ * when its emitter is in view.
+ * @author Kotcrab
+ */
+public class ParticleBoundsProvider implements BoundsProvider<ParticleComponent> {
+	@Override
+	public boolean getBounds (ParticleComponent component, Rectangle out) {
+		if (component.effect == null) return false;
+
+		Array<ParticleEmitter> emitters = component.effect.getEmitters();
+		if (emitters.size == 0) return false;
+
+		float minX = Float.POSITIVE_INFINITY;
+		float minY = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY;
+		float maxY = Float.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < emitters.size; i++) {
+			ParticleEmitter emitter = emitters.get(i);
+
+			float spawnHalfWidth = Math.abs(emitter.getSpawnWidth().getHighMax()) / 2;
+			float spawnHalfHeight = Math.abs(emitter.getSpawnHeight().getHighMax()) / 2;
+			minX = Math.min(minX, emitter.getX() - spawnHalfWidth);
+			minY = Math.min(minY, emitter.getY() - spawnHalfHeight);
+			maxX = Math.max(maxX, emitter.getX() + spawnHalfWidth);
+			maxY = Math.max(maxY, emitter.getY() + spawnHalfHeight);
+
+			BoundingBox box = emitter.getBoundingBox();
+			if (box.isValid()) {
+				minX = Math.min(minX, box.min.x);
+				minY = Math.min(minY, box.min.y);
+				maxX = Math.max(maxX, box.max.x);
+				maxY = Math.max(maxY, box.max.y);
+			}
+		}
+
+		out.set(minX, minY, maxX - minX, maxY - minY);
+		return true;
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.kotcrab.vis.runtime.system.culling;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.kotcrab.vis.runtime.component.SpriterComponent;
+
+/**
+ * Provides bounds of {@link SpriterComponent}. Bounds are calculated from current player key, note that player of
+ * culled entity is not updated.
+ * @author Kotcrab
+ */
+public class SpriterBoundsProvider implements BoundsProvider<SpriterComponent> {
+	@Override
+	public boolean getBounds (SpriterComponent component, Rectangle out) {
+		com.kotcrab.vis.runtime.spriter.Rectangle rect = component.player.getBoundingRectangle(null);
+		out.set(rect.left, rect.bottom, rect.size.width, rect.size.height);
+		return true;
+	}
+}
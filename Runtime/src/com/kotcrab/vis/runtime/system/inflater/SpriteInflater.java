@@ -18,9 +18,7 @@ package com.kotcrab.vis.runtime.system.inflater;
 
 import com.artemis.*;
 import com.artemis.annotations.Wire;
-import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.kotcrab.vis.runtime.RuntimeConfiguration;
 import com.kotcrab.vis.runtime.assets.AtlasRegionAsset;
@@ -29,6 +27,7 @@ import com.kotcrab.vis.runtime.assets.VisAssetDescriptor;
 import com.kotcrab.vis.runtime.component.AssetComponent;
 import com.kotcrab.vis.runtime.component.SpriteComponent;
 import com.kotcrab.vis.runtime.component.SpriteProtoComponent;
+import com.kotcrab.vis.runtime.util.AtlasRegionCache;
 import com.kotcrab.vis.runtime.util.PathUtils;
 import com.kotcrab.vis.runtime.util.UnsupportedAssetDescriptorException;
 
@@ -46,11 +45,11 @@ public class SpriteInflater extends Manager {
 	private EntityTransmuter transmuter;
 
 	private RuntimeConfiguration configuration;
-	private AssetManager manager;
+	private AtlasRegionCache regionCache;
 
-	public SpriteInflater (RuntimeConfiguration configuration, AssetManager manager) {
+	public SpriteInflater (RuntimeConfiguration configuration, AtlasRegionCache regionCache) {
 		this.configuration = configuration;
-		this.manager = manager;
+		this.regionCache = regionCache;
 	}
 
 	@Override
@@ -93,8 +92,7 @@ public class SpriteInflater extends Manager {
 			throw new UnsupportedAssetDescriptorException(asset);
 		}
 
-		TextureAtlas atlas = manager.get(atlasPath, TextureAtlas.class);
-		TextureRegion region = atlas.findRegion(atlasRegion);
+		TextureRegion region = regionCache.findRegion(atlasPath, atlasRegion);
 		if (region == null) throw new IllegalStateException("Can't load scene, gfx asset is missing: " + atlasRegion);
 		Sprite sprite = new Sprite(region);
 
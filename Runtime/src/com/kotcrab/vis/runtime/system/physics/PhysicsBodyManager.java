@@ -16,21 +16,36 @@
 
 package com.kotcrab.vis.runtime.system.physics;
 
-import com.artemis.ComponentMapper;
-import com.artemis.Entity;
-import com.artemis.Manager;
+import com.artemis.*;
+import com.artemis.EntitySubscription.SubscriptionListener;
 import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.kotcrab.vis.runtime.component.PhysicsComponent;
 import com.kotcrab.vis.runtime.component.PhysicsPropertiesComponent;
 import com.kotcrab.vis.runtime.component.PolygonComponent;
 import com.kotcrab.vis.runtime.component.SpriteComponent;
 
-/** @author Kotcrab */
+/**
+ * Creates box2d bodies for entities with physics properties, polygon and sprite. Bodies are created in bulk for all entities
+ * inserted in single engine pass. Polygon shapes are shared between all entities with identical polygon data, body and fixture
+ * definitions are reused.
+ * @author Kotcrab
+ */
 @Wire
 public class PhysicsBodyManager extends Manager {
 	private PhysicsSystem physicsSystem;
+	private AspectSubscriptionManager subscriptionManager;
 
 	private ComponentMapper<PhysicsPropertiesComponent> physicsCm;
 	private ComponentMapper<PolygonComponent> polygonCm;
@@ -38,16 +53,44 @@ public class PhysicsBodyManager extends Manager {
 
 	private World world;
 
+	private final BodyDef bodyDef = new BodyDef();
+	private final FixtureDef fixtureDef = new FixtureDef();
+
+	/** Maps polygon data in local coordinates to shapes created from it */
+	private final ObjectMap<ShapeKey, Array<PolygonShape>> shapeTemplates = new ObjectMap<ShapeKey, Array<PolygonShape>>();
+	private final ShapeKey lookupKey = new ShapeKey();
+
 	@Override
 	protected void initialize () {
 		world = physicsSystem.getPhysicsWorld();
+
+		EntitySubscription subscription = subscriptionManager.get(Aspect.all(PhysicsPropertiesComponent.class, PolygonComponent.class, SpriteComponent.class));
+
+		subscription.addSubscriptionListener(new SubscriptionListener() {
+			@Override
+			public void inserted (IntBag entities) {
+				createBodies(entities);
+			}
+
+			@Override
+			public void removed (IntBag entities) {
+
+			}
+		});
 	}
 
-	@Override
-	public void added (int entityId) {
+	/**
+	 * Creates bodies for all provided entities. This is called automatically for entities that were added to engine, there is
+	 * no need to call it manually.
+	 */
+	public void createBodies (IntBag entities) {
+		int[] data = entities.getData();
+		for (int i = 0; i < entities.size(); i++)
+			createBody(data[i]);
+	}
+
+	private void createBody (int entityId) {
 		Entity entity = super.world.getEntity(entityId);
-		if (physicsCm.has(entityId) == false || polygonCm.has(entityId) == false || spriteCm.has(entityId) == false)
-			return;
 
 		PhysicsPropertiesComponent physicsProperties = physicsCm.get(entityId);
 		PolygonComponent polygon = polygonCm.get(entityId);
@@ -55,45 +98,139 @@ public class PhysicsBodyManager extends Manager {
 
 		if (physicsProperties.adjustOrigin) sprite.setOrigin(0, 0);
 
-		Vector2 worldPos = new Vector2(sprite.getX(), sprite.getY());
+		float worldX = sprite.getX();
+		float worldY = sprite.getY();
 
-		BodyDef bodyDef = new BodyDef();
-		bodyDef.position.set(worldPos);
+		bodyDef.position.set(worldX, worldY);
+		bodyDef.type = physicsProperties.bodyType;
+		bodyDef.gravityScale = physicsProperties.gravityScale;
+		bodyDef.linearDamping = physicsProperties.linearDamping;
+		bodyDef.angularDamping = physicsProperties.angularDamping;
+		bodyDef.bullet = physicsProperties.bullet;
+		bodyDef.fixedRotation = physicsProperties.fixedRotation;
+		bodyDef.allowSleep = physicsProperties.sleepingAllowed;
+		bodyDef.active = physicsProperties.active;
 
 		Body body = world.createBody(bodyDef);
-		body.setType(physicsProperties.bodyType);
 		body.setUserData(entity);
 
-		body.setGravityScale(physicsProperties.gravityScale);
-		body.setLinearDamping(physicsProperties.linearDamping);
-		body.setAngularDamping(physicsProperties.angularDamping);
+		fixtureDef.density = physicsProperties.density;
+		fixtureDef.friction = physicsProperties.friction;
+		fixtureDef.restitution = physicsProperties.restitution;
+		fixtureDef.isSensor = physicsProperties.sensor;
+		fixtureDef.filter.maskBits = physicsProperties.maskBits;
+		fixtureDef.filter.categoryBits = physicsProperties.categoryBits;
+
+		Array<PolygonShape> shapes = getShapes(polygon, worldX, worldY);
+		for (int i = 0; i < shapes.size; i++) {
+			fixtureDef.shape = shapes.get(i);
+			body.createFixture(fixtureDef); //fixture stores copy of shape so shape can be shared
+		}
 
-		body.setBullet(physicsProperties.bullet);
-		body.setFixedRotation(physicsProperties.fixedRotation);
-		body.setSleepingAllowed(physicsProperties.sleepingAllowed);
-		body.setActive(physicsProperties.active);
+		fixtureDef.shape = null;
 
-		for (Vector2[] vs : polygon.faces) {
-			for (Vector2 v : vs) { //polygon component stores data in world cords, we need to convert it to local cords
-				v.sub(worldPos);
-			}
+		entity.edit().add(new PhysicsComponent(body));
+	}
+
+	/** @return shapes for polygon, polygon component stores data in world cords and shapes are created in local cords */
+	private Array<PolygonShape> getShapes (PolygonComponent polygon, float worldX, float worldY) {
+		lookupKey.set(polygon.faces, worldX, worldY);
+
+		Array<PolygonShape> shapes = shapeTemplates.get(lookupKey);
+		if (shapes != null) return shapes;
+
+		ShapeKey key = new ShapeKey(lookupKey);
+		shapes = new Array<PolygonShape>(key.faceSizes.size);
+
+		int offset = 0;
+		for (int i = 0; i < key.faceSizes.size; i++) {
+			int length = key.faceSizes.get(i) * 2;
 
 			PolygonShape shape = new PolygonShape();
-			shape.set(vs);
-
-			FixtureDef fd = new FixtureDef();
-			fd.density = physicsProperties.density;
-			fd.friction = physicsProperties.friction;
-			fd.restitution = physicsProperties.restitution;
-			fd.isSensor = physicsProperties.sensor;
-			fd.shape = shape;
-			fd.filter.maskBits = physicsProperties.maskBits;
-			fd.filter.categoryBits = physicsProperties.categoryBits;
-
-			body.createFixture(fd);
-			shape.dispose();
+			shape.set(key.vertices.items, offset, length);
+			shapes.add(shape);
+
+			offset += length;
 		}
 
-		entity.edit().add(new PhysicsComponent(body));
+		shapeTemplates.put(key, shapes);
+		return shapes;
+	}
+
+	/** @return number of distinct polygons that shapes were created for, entities with identical polygon share its shapes */
+	public int getShapeTemplateCount () {
+		return shapeTemplates.size;
+	}
+
+	@Override
+	protected void dispose () {
+		for (Array<PolygonShape> shapes : shapeTemplates.values()) {
+			for (PolygonShape shape : shapes)
+				shape.dispose();
+		}
+
+		shapeTemplates.clear();
+	}
+
+	/** Polygon faces flattened into local coordinates, used as key of shape templates */
+	private static class ShapeKey {
+		final FloatArray vertices;
+		final IntArray faceSizes;
+		int hash;
+
+		ShapeKey () {
+			vertices = new FloatArray();
+			faceSizes = new IntArray();
+		}
+
+		ShapeKey (ShapeKey other) {
+			vertices = new FloatArray(other.vertices);
+			faceSizes = new IntArray(other.faceSizes);
+			hash = other.hash;
+		}
+
+		void set (Vector2[][] faces, float worldX, float worldY) {
+			vertices.clear();
+			faceSizes.clear();
+
+			for (Vector2[] face : faces) {
+				faceSizes.add(face.length);
+
+				for (Vector2 v : face) {
+					vertices.add(v.x - worldX);
+					vertices.add(v.y - worldY);
+				}
+			}
+
+			int h = 1;
+			for (int i = 0; i < faceSizes.size; i++)
+				h = 31 * h + faceSizes.get(i);
+			for (int i = 0; i < vertices.size; i++)
+				h = 31 * h + NumberUtils.floatToRawIntBits(vertices.get(i));
+			hash = h;
+		}
+
+		@Override
+		public int hashCode () {
+			return hash;
+		}
+
+		@Override
+		public boolean equals (Object obj) {
+			if (this == obj) return true;
+			if (obj instanceof ShapeKey == false) return false;
+
+			ShapeKey other = (ShapeKey) obj;
+			if (hash != other.hash || faceSizes.size != other.faceSizes.size || vertices.size != other.vertices.size)
+				return false;
+
+			for (int i = 0; i < faceSizes.size; i++)
+				if (faceSizes.get(i) != other.faceSizes.get(i)) return false;
+
+			for (int i = 0; i < vertices.size; i++)
+				if (vertices.get(i) != other.vertices.get(i)) return false;
+
+			return true;
+		}
 	}
 }
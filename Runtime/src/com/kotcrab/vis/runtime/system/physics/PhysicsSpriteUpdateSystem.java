@@ -31,18 +31,33 @@ import com.kotcrab.vis.runtime.component.SpriteComponent;
 public class PhysicsSpriteUpdateSystem extends EntityProcessingSystem {
 	private ComponentMapper<PhysicsComponent> physicsCm;
 	private ComponentMapper<SpriteComponent> spriteCm;
+	private PhysicsSystem physicsSystem;
+
+	private float alpha;
 
 	public PhysicsSpriteUpdateSystem () {
 		super(Aspect.all(PhysicsComponent.class, SpriteComponent.class));
 	}
 
+	@Override
+	protected void begin () {
+		alpha = physicsSystem.isInterpolationEnabled() ? physicsSystem.getInterpolationAlpha() : 1f;
+	}
+
 	@Override
 	protected void process (Entity e) {
 		PhysicsComponent physics = physicsCm.get(e);
 		SpriteComponent sprite = spriteCm.get(e);
 
 		Vector2 pos = physics.body.getPosition();
-		sprite.setPosition(pos.x, pos.y);
-		sprite.setRotation(physics.body.getAngle() * MathUtils.radiansToDegrees);
+		float angle = physics.body.getAngle();
+
+		if (alpha < 1f) {
+			sprite.setPosition(MathUtils.lerp(physics.prevX, pos.x, alpha), MathUtils.lerp(physics.prevY, pos.y, alpha));
+			sprite.setRotation(MathUtils.lerp(physics.prevAngle, angle, alpha) * MathUtils.radiansToDegrees);
+		} else {
+			sprite.setPosition(pos.x, pos.y);
+			sprite.setRotation(angle * MathUtils.radiansToDegrees);
+		}
 	}
 }
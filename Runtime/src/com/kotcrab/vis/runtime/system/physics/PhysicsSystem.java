@@ -16,34 +16,74 @@
 
 package com.kotcrab.vis.runtime.system.physics;
 
-import com.artemis.BaseSystem;
+import com.artemis.*;
 import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
+import com.kotcrab.vis.runtime.RuntimeConfiguration;
+import com.kotcrab.vis.runtime.component.PhysicsComponent;
 import com.kotcrab.vis.runtime.data.PhysicsSettings;
 
-/** @author Kotcrab */
+/**
+ * Steps box2d world using fixed time step. Before last step in each frame body transforms are saved in
+ * {@link PhysicsComponent}, so rendered state can be interpolated using {@link #getInterpolationAlpha()}.
+ * @author Kotcrab
+ */
 @Wire
 public class PhysicsSystem extends BaseSystem {
-	private static final float TIME_STEP = 1f / 60f;
-	private static final int VELOCITY_ITERATIONS = 6;
-	private static final int POSITION_ITERATIONS = 2;
+	private ComponentMapper<PhysicsComponent> physicsCm;
+	private AspectSubscriptionManager subscriptionManager;
+
+	private final float timeStep;
+	private final int velocityIterations;
+	private final int positionIterations;
+	private final int maxSubSteps;
+	private final boolean interpolation;
+
+	private EntitySubscription subscription;
 
 	private World box2dWorld;
 	private float timeAccumulator;
 
-	public PhysicsSystem (PhysicsSettings physicsSettings) {
+	public PhysicsSystem (PhysicsSettings physicsSettings, RuntimeConfiguration configuration) {
 		box2dWorld = new World(new Vector2(physicsSettings.gravityX, physicsSettings.gravityY), physicsSettings.allowSleep);
+
+		timeStep = configuration.physicsTimeStep;
+		velocityIterations = configuration.physicsVelocityIterations;
+		positionIterations = configuration.physicsPositionIterations;
+		maxSubSteps = Math.max(1, configuration.physicsMaxSubSteps);
+		interpolation = configuration.usePhysicsInterpolation;
+	}
+
+	@Override
+	protected void initialize () {
+		subscription = subscriptionManager.get(Aspect.all(PhysicsComponent.class));
 	}
 
 	@Override
 	protected void processSystem () {
-		float frameTime = Math.min(world.delta, 0.25f);
-		timeAccumulator += frameTime;
-		while (timeAccumulator >= TIME_STEP) {
-			box2dWorld.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
-			timeAccumulator -= TIME_STEP;
+		timeAccumulator += world.delta;
+
+		int steps = (int) (timeAccumulator / timeStep);
+		if (steps > maxSubSteps) {
+			//drop time that can't be simulated in this frame to avoid spiral of death
+			steps = maxSubSteps;
+			timeAccumulator = steps * timeStep + timeAccumulator % timeStep;
 		}
+
+		for (int i = 0; i < steps; i++) {
+			if (interpolation && i == steps - 1) savePreviousTransforms();
+			box2dWorld.step(timeStep, velocityIterations, positionIterations);
+			timeAccumulator -= timeStep;
+		}
+	}
+
+	private void savePreviousTransforms () {
+		IntBag entities = subscription.getEntities();
+		int[] data = entities.getData();
+		for (int i = 0; i < entities.size(); i++)
+			physicsCm.get(data[i]).savePreviousTransform();
 	}
 
 	@Override
@@ -54,4 +94,16 @@ public class PhysicsSystem extends BaseSystem {
 	public World getPhysicsWorld () {
 		return box2dWorld;
 	}
+
+	/**
+	 * @return value in range from 0 to 1 describing how far current frame is between previous and current physics step,
+	 * used to interpolate rendered state
+	 */
+	public float getInterpolationAlpha () {
+		return Math.min(timeAccumulator / timeStep, 1f);
+	}
+
+	public boolean isInterpolationEnabled () {
+		return interpolation;
+	}
 }
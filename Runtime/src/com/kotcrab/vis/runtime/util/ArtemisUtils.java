@@ -18,10 +18,18 @@ package com.kotcrab.vis.runtime.util;
 
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.kotcrab.vis.runtime.component.ParticleComponent;
+import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.component.SpriterComponent;
+import com.kotcrab.vis.runtime.component.TextComponent;
 import com.kotcrab.vis.runtime.system.RenderBatchingSystem;
 import com.kotcrab.vis.runtime.system.SpriteRenderSystem;
 import com.kotcrab.vis.runtime.system.SpriterRenderSystem;
 import com.kotcrab.vis.runtime.system.TextRenderSystem;
+import com.kotcrab.vis.runtime.system.culling.ParticleBoundsProvider;
+import com.kotcrab.vis.runtime.system.culling.SpriteBoundsProvider;
+import com.kotcrab.vis.runtime.system.culling.SpriterBoundsProvider;
+import com.kotcrab.vis.runtime.system.culling.TextBoundsProvider;
 
 /**
  * Various Artemis related utils
@@ -30,6 +38,10 @@ import com.kotcrab.vis.runtime.system.TextRenderSystem;
 public class ArtemisUtils {
 	public static void createCommonSystems (EntityEngineConfiguration config, Batch batch, ShaderProgram distanceFieldShader, boolean usingFromEditor) {
 		RenderBatchingSystem batchingSystem = new RenderBatchingSystem(batch, usingFromEditor);
+		batchingSystem.setBoundsProvider(SpriteComponent.class, new SpriteBoundsProvider());
+		batchingSystem.setBoundsProvider(TextComponent.class, new TextBoundsProvider());
+		batchingSystem.setBoundsProvider(ParticleComponent.class, new ParticleBoundsProvider());
+		batchingSystem.setBoundsProvider(SpriterComponent.class, new SpriterBoundsProvider());
 		config.setSystem(batchingSystem);
 		config.setSystem(new SpriteRenderSystem(batchingSystem), true);
 		config.setSystem(new TextRenderSystem(batchingSystem, distanceFieldShader), true);
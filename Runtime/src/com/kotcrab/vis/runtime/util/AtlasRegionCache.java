@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.util;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectMap.Entry;
+
+import java.util.Iterator;
+
+/**
+ * Resolves atlas regions by name using hash index instead of linear {@link TextureAtlas#findRegion(String)}. Index for each
+ * atlas is built once, on first lookup, and then shared by all scenes loaded from the same {@link AssetManager}. Index is
+ * rebuilt when atlas was reloaded, indexes of unloaded atlases are removed by {@link #evict(String)} and
+ * {@link #evictUnloaded()}.
+ * @author Kotcrab
+ */
+public class AtlasRegionCache {
+	private AssetManager manager;
+	private ObjectMap<String, AtlasIndex> indexes = new ObjectMap<String, AtlasIndex>();
+
+	public AtlasRegionCache (AssetManager manager) {
+		this.manager = manager;
+	}
+
+	/**
+	 * @param atlasPath path of atlas that must be loaded by {@link AssetManager} of this cache
+	 * @return first region with given name or null if atlas does not contain such region
+	 */
+	public synchronized AtlasRegion findRegion (String atlasPath, String regionName) {
+		TextureAtlas atlas = manager.get(atlasPath, TextureAtlas.class);
+		AtlasIndex index = indexes.get(atlasPath);
+
+		if (index == null || index.atlas != atlas) {
+			index = new AtlasIndex(atlas);
+			indexes.put(atlasPath, index);
+		}
+
+		return index.regions.get(regionName);
+	}
+
+	/** Removes index of atlas with given path, called when atlas was unloaded. Does nothing if atlas was not indexed. */
+	public synchronized void evict (String atlasPath) {
+		indexes.remove(atlasPath);
+	}
+
+	/** Removes indexes of atlases that are no longer loaded by {@link AssetManager} of this cache or were reloaded. */
+	public synchronized void evictUnloaded () {
+		Iterator<Entry<String, AtlasIndex>> iterator = indexes.entries().iterator();
+
+		while (iterator.hasNext()) {
+			Entry<String, AtlasIndex> entry = iterator.next();
+			if (manager.isLoaded(entry.key, TextureAtlas.class) == false || manager.get(entry.key, TextureAtlas.class) != entry.value.atlas)
+				iterator.remove();
+		}
+	}
+
+	/** @return true if index of atlas with given path is currently cached */
+	public synchronized boolean isIndexed (String atlasPath) {
+		return indexes.containsKey(atlasPath);
+	}
+
+	public AssetManager getManager () {
+		return manager;
+	}
+
+	/**
+	 * Builds name to region index of atlas. If atlas contains multiple regions with the same name only the first one is indexed,
+	 * same as {@link TextureAtlas#findRegion(String)} would return.
+	 */
+	public static ObjectMap<String, AtlasRegion> buildIndex (TextureAtlas atlas) {
+		Array<AtlasRegion> regions = atlas.getRegions();
+		ObjectMap<String, AtlasRegion> index = new ObjectMap<String, AtlasRegion>(regions.size);
+
+		for (int i = 0; i < regions.size; i++) {
+			AtlasRegion region = regions.get(i);
+			if (index.containsKey(region.name) == false) index.put(region.name, region);
+		}
+
+		return index;
+	}
+
+	private static class AtlasIndex {
+		final TextureAtlas atlas;
+		final ObjectMap<String, AtlasRegion> regions;
+
+		AtlasIndex (TextureAtlas atlas) {
+			this.atlas = atlas;
+			regions = buildIndex(atlas);
+		}
+	}
+}
@@ -24,9 +24,11 @@ import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.kotcrab.vis.runtime.spriter.Data;
 import com.kotcrab.vis.runtime.spriter.FileReference;
 import com.kotcrab.vis.runtime.spriter.Loader;
@@ -97,8 +99,9 @@ public class SpriterLoader extends Loader<Sprite> implements Disposable {
 		TextureAtlas tex = this.packer.generateTextureAtlas(TextureFilter.Linear, TextureFilter.Linear, false);
 		Set<FileReference> keys = this.resources.keySet();
 		this.disposeNonPackedTextures();
+		ObjectMap<String, AtlasRegion> regions = AtlasRegionCache.buildIndex(tex);
 		for (FileReference ref : keys) {
-			TextureRegion texReg = tex.findRegion(data.getFile(ref).name);
+			TextureRegion texReg = regions.get(data.getFile(ref).name);
 			super.resources.put(ref, new Sprite(texReg));
 		}
 	}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.AbsoluteFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.kotcrab.vis.runtime.scene.VisAssetManager;
+import com.kotcrab.vis.runtime.util.AtlasRegionCache;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks {@link AtlasRegionCache} lookups and eviction using synthetic atlas with many regions. Lookup time comparison
+ * with {@link TextureAtlas#findRegion(String)} is only run when {@value #BENCHMARK_PROPERTY} system property is set to true.
+ * @author Kotcrab
+ */
+public class AtlasRegionCacheTest {
+	private static final String BENCHMARK_PROPERTY = "vis.benchmark";
+	private static final int REGIONS = 5000;
+
+	private static File tempDir;
+	private static String atlasPath;
+
+	@BeforeClass
+	public static void setUpClass () throws IOException {
+		HeadlessGdx.init();
+
+		tempDir = File.createTempFile("vis-atlas-test", "");
+		tempDir.delete();
+		tempDir.mkdirs();
+
+		Pixmap page = new Pixmap(64, 64, Format.RGBA8888);
+		PixmapIO.writePNG(new FileHandle(new File(tempDir, "page.png")), page);
+		page.dispose();
+
+		StringBuilder atlas = new StringBuilder();
+		atlas.append("\npage.png\nsize: 64,64\nformat: RGBA8888\nfilter: Nearest,Nearest\nrepeat: none\n");
+		for (int i = 0; i < REGIONS; i++) {
+			atlas.append("region").append(i).append('\n');
+			atlas.append("  rotate: false\n");
+			atlas.append("  xy: ").append(i % 64).append(", ").append(i / 64 % 64).append('\n');
+			atlas.append("  size: 1, 1\n  orig: 1, 1\n  offset: 0, 0\n  index: -1\n");
+		}
+
+		FileHandle atlasFile = new FileHandle(new File(tempDir, "test.atlas"));
+		atlasFile.writeString(atlas.toString(), false);
+		atlasPath = atlasFile.path();
+	}
+
+	@AfterClass
+	public static void tearDownClass () {
+		new FileHandle(tempDir).deleteDirectory();
+	}
+
+	@Test
+	public void testLookupMatchesAtlas () {
+		AssetManager manager = createManager();
+		TextureAtlas atlas = manager.get(atlasPath, TextureAtlas.class);
+		AtlasRegionCache cache = new AtlasRegionCache(manager);
+
+		for (int i = 0; i < REGIONS; i++)
+			assertSame(atlas.findRegion("region" + i), cache.findRegion(atlasPath, "region" + i));
+
+		assertNull(cache.findRegion(atlasPath, "missing"));
+		manager.dispose();
+	}
+
+	@Test
+	public void testLookupTime () {
+		assumeTrue("set " + BENCHMARK_PROPERTY + " system property to run benchmark", Boolean.getBoolean(BENCHMARK_PROPERTY));
+		AssetManager manager = createManager();
+		TextureAtlas atlas = manager.get(atlasPath, TextureAtlas.class);
+		AtlasRegionCache cache = new AtlasRegionCache(manager);
+
+		//warmup, also builds index
+		for (int i = 0; i < REGIONS; i++)
+			assertSame(atlas.findRegion("region" + i), cache.findRegion(atlasPath, "region" + i));
+
+		long linearStart = System.nanoTime();
+		for (int i = 0; i < REGIONS; i++)
+			atlas.findRegion("region" + i);
+		long linearTime = System.nanoTime() - linearStart;
+
+		long cachedStart = System.nanoTime();
+		for (int i = 0; i < REGIONS; i++)
+			cache.findRegion(atlasPath, "region" + i);
+		long cachedTime = System.nanoTime() - cachedStart;
+
+		System.out.println("Looking up " + REGIONS + " regions took " + linearTime / 1000 + " us using TextureAtlas#findRegion and "
+				+ cachedTime / 1000 + " us using AtlasRegionCache");
+
+		manager.dispose();
+	}
+
+	@Test
+	public void testIndexRebuiltAfterReload () {
+		AssetManager manager = createManager();
+		AtlasRegionCache cache = new AtlasRegionCache(manager);
+		AtlasRegion oldRegion = cache.findRegion(atlasPath, "region10");
+
+		manager.unload(atlasPath);
+		manager.load(atlasPath, TextureAtlas.class);
+		manager.finishLoading();
+
+		AtlasRegion region = cache.findRegion(atlasPath, "region10");
+		assertNotSame(oldRegion, region);
+		assertSame(manager.get(atlasPath, TextureAtlas.class).findRegion("region10"), region);
+		manager.dispose();
+	}
+
+	@Test
+	public void testEvictUnloaded () {
+		AssetManager manager = createManager();
+		AtlasRegionCache cache = new AtlasRegionCache(manager);
+		cache.findRegion(atlasPath, "region0");
+
+		cache.evictUnloaded();
+		assertTrue(cache.isIndexed(atlasPath));
+
+		manager.unload(atlasPath);
+		assertTrue("plain AssetManager does not notify cache", cache.isIndexed(atlasPath));
+		cache.evictUnloaded();
+		assertFalse(cache.isIndexed(atlasPath));
+		manager.dispose();
+	}
+
+	@Test
+	public void testVisAssetManagerEvictsOnUnload () {
+		VisAssetManager manager = new VisAssetManager(new AbsoluteFileHandleResolver(), new RecordingBatch());
+		manager.load(atlasPath, TextureAtlas.class);
+		manager.finishLoading();
+
+		AtlasRegionCache cache = manager.getSceneLoader().getRegionCache(manager);
+		assertSame(cache, manager.getSceneLoader().getRegionCache(manager));
+		assertNotNull(cache.findRegion(atlasPath, "region0"));
+		assertTrue(cache.isIndexed(atlasPath));
+
+		manager.unload(atlasPath);
+		assertFalse(cache.isIndexed(atlasPath));
+		manager.dispose();
+	}
+
+	private AssetManager createManager () {
+		AssetManager manager = new AssetManager(new AbsoluteFileHandleResolver());
+		manager.load(atlasPath, TextureAtlas.class);
+		manager.finishLoading();
+		return manager;
+	}
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Component;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Json;
+import com.kotcrab.vis.runtime.assets.AtlasRegionAsset;
+import com.kotcrab.vis.runtime.assets.TextureRegionAsset;
+import com.kotcrab.vis.runtime.component.*;
+import com.kotcrab.vis.runtime.data.EntityData;
+import com.kotcrab.vis.runtime.data.LayerData;
+import com.kotcrab.vis.runtime.data.PhysicsSettings;
+import com.kotcrab.vis.runtime.data.SceneData;
+import com.kotcrab.vis.runtime.scene.BinarySceneFormat;
+import com.kotcrab.vis.runtime.scene.BinarySceneWriter;
+import com.kotcrab.vis.runtime.scene.LayerCordsSystem;
+import com.kotcrab.vis.runtime.scene.SceneLoader;
+import com.kotcrab.vis.runtime.scene.SceneViewport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class BinarySceneFormatTest {
+	private static final String BENCHMARK_PROPERTY = "vis.benchmark";
+	private static final int BENCHMARK_ENTITIES = 10000;
+	private static final int BENCHMARK_ITERATIONS = 10;
+
+	private Json json;
+	private FileHandle jsonFile;
+	private FileHandle binaryFile;
+
+	@Before
+	public void setUp () throws IOException {
+		json = SceneLoader.getJson();
+		jsonFile = new FileHandle(File.createTempFile("scene", ".scene"));
+		binaryFile = new FileHandle(File.createTempFile("scene", ".scene"));
+	}
+
+	@After
+	public void tearDown () {
+		jsonFile.delete();
+		binaryFile.delete();
+	}
+
+	@Test
+	public void testRoundTrip () throws Exception {
+		SceneData sceneData = createScene(100);
+		new BinarySceneWriter(json).write(sceneData, binaryFile);
+
+		assertTrue(BinarySceneFormat.isBinaryScene(binaryFile));
+		SceneData readData = new BinarySceneFormat(json).readScene(binaryFile);
+
+		assertEquals(json.toJson(sceneData, SceneData.class), json.toJson(readData, SceneData.class));
+	}
+
+	@Test
+	public void testJsonSceneIsNotBinary () throws Exception {
+		jsonFile.writeString(json.toJson(createScene(1), SceneData.class), false);
+		assertFalse(BinarySceneFormat.isBinaryScene(jsonFile));
+	}
+
+	@Test
+	public void testDependenciesContainCompleteEntities () throws Exception {
+		SceneData sceneData = createScene(100);
+		new BinarySceneWriter(json).write(sceneData, binaryFile);
+
+		Array<EntityData> dependencies = new BinarySceneFormat(json).readDependencies(binaryFile);
+
+		//createScene uses 9 distinct sprite textures and single atlas region for every 10th entity
+		assertEquals(10, dependencies.size);
+		for (EntityData dependency : dependencies) {
+			Array<Component> components = dependency.components;
+			assertNotNull(findComponent(components, AssetComponent.class));
+			assertNotNull(findComponent(components, SpriteProtoComponent.class));
+			assertNotNull(findComponent(components, LayerComponent.class));
+		}
+
+		EntityData first = dependencies.first();
+		assertEquals(json.toJson(sceneData.entities.first(), EntityData.class), json.toJson(first, EntityData.class));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testTruncatedFileIsRejected () throws Exception {
+		new BinarySceneWriter(json).write(createScene(10), binaryFile);
+		byte[] bytes = binaryFile.readBytes();
+		binaryFile.writeBytes(bytes, 0, bytes.length / 2, false);
+
+		new BinarySceneFormat(json).readScene(binaryFile);
+	}
+
+	@Test
+	public void testLargeSceneSmallerThanJson () throws Exception {
+		SceneData sceneData = writeBothFormats(BENCHMARK_ENTITIES);
+
+		String expected = json.toJson(sceneData, SceneData.class);
+		assertEquals(expected, json.toJson(json.fromJson(SceneData.class, jsonFile), SceneData.class));
+		assertEquals(expected, json.toJson(new BinarySceneFormat(json).readScene(binaryFile), SceneData.class));
+
+		assertTrue(binaryFile.length() < jsonFile.length());
+	}
+
+	/** Compares JSON and binary load times, skipped unless {@value #BENCHMARK_PROPERTY} system property is set to true */
+	@Test
+	public void testLoadBenchmark () throws Exception {
+		assumeTrue("set " + BENCHMARK_PROPERTY + " system property to run benchmark", Boolean.getBoolean(BENCHMARK_PROPERTY));
+		writeBothFormats(BENCHMARK_ENTITIES);
+		BinarySceneFormat binaryFormat = new BinarySceneFormat(json);
+
+		long jsonTime = 0;
+		long binaryTime = 0;
+		long dependenciesTime = 0;
+		for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+			long start = System.nanoTime();
+			json.fromJson(SceneData.class, jsonFile);
+			jsonTime += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			binaryFormat.readScene(binaryFile);
+			binaryTime += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			binaryFormat.readDependencies(binaryFile);
+			dependenciesTime += System.nanoTime() - start;
+		}
+
+		System.out.println("Scene load benchmark, " + BENCHMARK_ENTITIES + " entities, average of " + BENCHMARK_ITERATIONS + " loads:");
+		System.out.println("  JSON:   " + jsonFile.length() / 1024 + " KB, " + jsonTime / BENCHMARK_ITERATIONS / 1000000f + " ms");
+		System.out.println("  Binary: " + binaryFile.length() / 1024 + " KB, " + binaryTime / BENCHMARK_ITERATIONS / 1000000f + " ms");
+		System.out.println("  Binary dependencies only: " + dependenciesTime / BENCHMARK_ITERATIONS / 1000000f + " ms");
+	}
+
+	private SceneData writeBothFormats (int entityCount) {
+		SceneData sceneData = createScene(entityCount);
+		jsonFile.writeString(json.toJson(sceneData, SceneData.class), false);
+		new BinarySceneWriter(json).write(sceneData, binaryFile);
+		return sceneData;
+	}
+
+	private SceneData createScene (int entityCount) {
+		SceneData sceneData = new SceneData();
+		sceneData.viewport = SceneViewport.FIT;
+		sceneData.width = 800;
+		sceneData.height = 480;
+		sceneData.pixelsPerUnit = 100;
+		sceneData.physicsSettings = new PhysicsSettings(true, 0, -10, true);
+		sceneData.groupIds = new IntMap<String>();
+		sceneData.groupIds.put(0, "group");
+		sceneData.layers.add(new LayerData(LayerCordsSystem.WORLD, "Background", 0));
+		sceneData.layers.add(new LayerData(LayerCordsSystem.SCREEN, "UI", 1));
+
+		for (int i = 0; i < entityCount; i++) {
+			Array<Component> components = new Array<Component>();
+
+			if (i % 10 == 0)
+				components.add(new AssetComponent(new AtlasRegionAsset("gfx/atlas.atlas", "region")));
+			else
+				components.add(new AssetComponent(new TextureRegionAsset("gfx/sprite" + (i % 10) + ".png")));
+
+			SpriteProtoComponent sprite = new SpriteProtoComponent();
+			sprite.x = i * 1.5f;
+			sprite.y = -i;
+			sprite.width = 32;
+			sprite.height = 32;
+			sprite.rotation = i % 360;
+			sprite.tint = new Color(1, 0.5f, 0.25f, 1);
+			sprite.flipX = i % 2 == 0;
+			components.add(sprite);
+
+			components.add(new LayerComponent(i % 2));
+			components.add(new RenderableComponent(i));
+
+			if (i % 3 == 0) components.add(new IDComponent("entity" + i));
+
+			if (i % 5 == 0) {
+				GroupComponent group = new GroupComponent();
+				group.groupIds.add(0);
+				components.add(group);
+
+				VariablesComponent variables = new VariablesComponent();
+				variables.variables.put("health", String.valueOf(i));
+				components.add(variables);
+			}
+
+			if (i % 7 == 0) {
+				PolygonComponent polygon = new PolygonComponent();
+				polygon.vertices.add(new Vector2(0, 0));
+				polygon.vertices.add(new Vector2(32, 0));
+				polygon.vertices.add(new Vector2(16, 32));
+				polygon.faces = new Vector2[][]{{polygon.vertices.get(0), polygon.vertices.get(1), polygon.vertices.get(2)}};
+				components.add(polygon);
+				components.add(new PhysicsPropertiesComponent());
+			}
+
+			sceneData.entities.add(new EntityData(components));
+		}
+
+		return sceneData;
+	}
+
+	private <T extends Component> T findComponent (Array<Component> components, Class<T> type) {
+		for (Component component : components)
+			if (component.getClass() == type) return type.cast(component);
+
+		return null;
+	}
+}
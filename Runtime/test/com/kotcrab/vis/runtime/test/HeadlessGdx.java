@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Initializes headless libGDX backend with GL calls replaced by no-op implementation, allows to test rendering related code
+ * without OpenGL context.
+ * @author Kotcrab
+ */
+public class HeadlessGdx {
+	private static boolean initialized;
+
+	public static synchronized void init () {
+		if (initialized) return;
+		initialized = true;
+
+		new HeadlessApplication(new ApplicationAdapter() {
+		});
+
+		GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class[]{GL20.class}, new InvocationHandler() {
+			@Override
+			public Object invoke (Object proxy, Method method, Object[] args) throws Throwable {
+				Class<?> type = method.getReturnType();
+				if (type == int.class) return 0;
+				if (type == boolean.class) return false;
+				if (type == float.class) return 0f;
+				if (type == String.class) return "";
+				return null;
+			}
+		});
+
+		Gdx.gl = gl;
+		Gdx.gl20 = gl;
+	}
+
+	/** Creates texture backed by no-op GL, {@link #init()} must be called first */
+	public static Texture createTexture (int width, int height) {
+		Pixmap pixmap = new Pixmap(width, height, Format.RGBA8888);
+		Texture texture = new Texture(pixmap);
+		pixmap.dispose();
+		return texture;
+	}
+
+	/**
+	 * Creates monospaced bitmap font containing printable ASCII characters, each glyph is 8x12 and advances by 9 units.
+	 * {@link #init()} must be called first.
+	 */
+	public static BitmapFont createFont () {
+		StringBuilder fnt = new StringBuilder();
+		fnt.append("info face=\"test\" size=12 bold=0 italic=0 charset=\"\" unicode=0 stretchH=100 smooth=1 aa=1 padding=0,0,0,0 spacing=0,0\n");
+		fnt.append("common lineHeight=14 base=12 scaleW=128 scaleH=128 pages=1 packed=0\n");
+		fnt.append("page id=0 file=\"test.png\"\n");
+		fnt.append("chars count=95\n");
+
+		for (int ch = 32; ch < 127; ch++) {
+			int index = ch - 32;
+			int width = ch == ' ' ? 0 : 8;
+			int height = ch == ' ' ? 0 : 12;
+			fnt.append("char id=").append(ch).append(" x=").append(index % 16 * 8).append(" y=").append(index / 16 * 12)
+					.append(" width=").append(width).append(" height=").append(height)
+					.append(" xoffset=0 yoffset=0 xadvance=9 page=0 chnl=0\n");
+		}
+
+		try {
+			File file = File.createTempFile("vis-test-font", ".fnt");
+			file.deleteOnExit();
+			FileHandle fontFile = new FileHandle(file);
+			fontFile.writeString(fnt.toString(), false);
+			return new BitmapFont(fontFile, new TextureRegion(createTexture(128, 128)));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
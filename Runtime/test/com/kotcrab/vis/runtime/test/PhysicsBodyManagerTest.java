@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.kotcrab.vis.runtime.RuntimeConfiguration;
+import com.kotcrab.vis.runtime.component.PhysicsComponent;
+import com.kotcrab.vis.runtime.component.PhysicsPropertiesComponent;
+import com.kotcrab.vis.runtime.component.PolygonComponent;
+import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.data.PhysicsSettings;
+import com.kotcrab.vis.runtime.system.physics.PhysicsBodyManager;
+import com.kotcrab.vis.runtime.system.physics.PhysicsSystem;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link PhysicsBodyManager} shares polygon shapes only between entities with identical polygons.
+ * @author Kotcrab
+ */
+public class PhysicsBodyManagerTest {
+	private static final float EPSILON = 0.0001f;
+
+	private EntityEngine engine;
+	private PhysicsBodyManager bodyManager;
+
+	@Before
+	public void setUp () {
+		HeadlessGdx.init();
+
+		EntityEngineConfiguration config = new EntityEngineConfiguration();
+		config.setSystem(new PhysicsSystem(new PhysicsSettings(true, 0, -10, true), new RuntimeConfiguration()));
+		config.setManager(bodyManager = new PhysicsBodyManager());
+		engine = new EntityEngine(config);
+	}
+
+	@After
+	public void tearDown () {
+		engine.dispose();
+	}
+
+	@Test
+	public void testSamePolygonSharesShapes () {
+		Entity first = add(0, 0, square(2));
+		Entity second = add(10, 5, square(2));
+		Entity third = add(-3, 20, square(2));
+		engine.process();
+
+		assertEquals(1, bodyManager.getShapeTemplateCount());
+		assertLocalVertices(first, square(2));
+		assertLocalVertices(second, square(2));
+		assertLocalVertices(third, square(2));
+		assertEquals(10, getBody(second).getPosition().x, EPSILON);
+		assertEquals(5, getBody(second).getPosition().y, EPSILON);
+	}
+
+	@Test
+	public void testDifferentPolygonsDoNotShareShapes () {
+		Entity small = add(0, 0, square(2));
+		Entity large = add(0, 0, square(4));
+		Entity triangle = add(5, 5, new Vector2[][]{{new Vector2(0, 0), new Vector2(2, 0), new Vector2(0, 2)}});
+		Entity twoFaces = add(5, 5, new Vector2[][]{square(2)[0], {new Vector2(2, 0), new Vector2(4, 0), new Vector2(2, 2)}});
+		engine.process();
+
+		assertEquals(4, bodyManager.getShapeTemplateCount());
+		assertLocalVertices(small, square(2));
+		assertLocalVertices(large, square(4));
+		assertLocalVertices(triangle, new Vector2[][]{{new Vector2(0, 0), new Vector2(2, 0), new Vector2(0, 2)}});
+		assertEquals(2, getBody(twoFaces).getFixtureList().size);
+	}
+
+	@Test
+	public void testShapesSharedBetweenEnginePasses () {
+		add(0, 0, square(2));
+		engine.process();
+		add(7, 7, square(2));
+		add(7, 7, square(3));
+		engine.process();
+
+		assertEquals(2, bodyManager.getShapeTemplateCount());
+	}
+
+	private Body getBody (Entity entity) {
+		return entity.getComponent(PhysicsComponent.class).body;
+	}
+
+	/** Checks that fixtures of entity body were created from provided faces in local coordinates */
+	private void assertLocalVertices (Entity entity, Vector2[][] localFaces) {
+		Body body = getBody(entity);
+		assertEquals(localFaces.length, body.getFixtureList().size);
+
+		Vector2 vertex = new Vector2();
+		for (int i = 0; i < localFaces.length; i++) {
+			Fixture fixture = body.getFixtureList().get(i);
+			PolygonShape shape = (PolygonShape) fixture.getShape();
+			assertEquals(localFaces[i].length, shape.getVertexCount());
+
+			for (int j = 0; j < shape.getVertexCount(); j++) {
+				shape.getVertex(j, vertex);
+				assertTrue("vertex " + vertex + " not in face", contains(localFaces[i], vertex));
+			}
+		}
+	}
+
+	/** Box2D may reorder polygon vertices, so only membership is checked */
+	private boolean contains (Vector2[] face, Vector2 vertex) {
+		for (Vector2 v : face)
+			if (v.epsilonEquals(vertex, EPSILON)) return true;
+		return false;
+	}
+
+	private Vector2[][] square (float size) {
+		return new Vector2[][]{{new Vector2(0, 0), new Vector2(size, 0), new Vector2(size, size), new Vector2(0, size)}};
+	}
+
+	/** Adds entity at given position, polygon faces are provided in local coordinates and converted to world coordinates */
+	private Entity add (float x, float y, Vector2[][] localFaces) {
+		Sprite sprite = new Sprite();
+		sprite.setBounds(x, y, 1, 1);
+
+		PolygonComponent polygon = new PolygonComponent();
+		polygon.faces = new Vector2[localFaces.length][];
+		for (int i = 0; i < localFaces.length; i++) {
+			polygon.faces[i] = new Vector2[localFaces[i].length];
+			for (int j = 0; j < localFaces[i].length; j++) {
+				Vector2 v = localFaces[i][j];
+				polygon.faces[i][j] = new Vector2(v.x + x, v.y + y);
+				polygon.vertices.add(polygon.faces[i][j]);
+			}
+		}
+
+		Entity entity = engine.createEntity();
+		entity.edit()
+				.add(new SpriteComponent(sprite))
+				.add(polygon)
+				.add(new PhysicsPropertiesComponent());
+		return entity;
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * {@link Batch} that does not render anything, instead it records draw calls and state changes. Like SpriteBatch it
+ * counts flush each time shader, projection matrix or texture is changed while there are pending vertices.
+ * @author Kotcrab
+ */
+public class RecordingBatch implements Batch {
+	private final Color color = new Color(1, 1, 1, 1);
+	private final Matrix4 projection = new Matrix4();
+	private final Matrix4 transform = new Matrix4();
+	private ShaderProgram shader;
+	private boolean drawing;
+	private boolean blending = true;
+	private int pendingVertices;
+	private Texture lastTexture;
+
+	/** Count of all draw calls */
+	public int draws;
+	/** Count of flushes caused by state change, texture change or by ending batch, equal to count of render calls */
+	public int flushes;
+	/** Count of {@link #setShader(ShaderProgram)} calls that changed shader */
+	public int shaderChanges;
+	/** Vertices passed to {@link #draw(Texture, float[], int, int)}, in draw order */
+	public final FloatArray vertices = new FloatArray();
+
+	public void reset () {
+		draws = 0;
+		flushes = 0;
+		shaderChanges = 0;
+		vertices.clear();
+	}
+
+	private void recordDraw (Texture texture, int vertexCount) {
+		//like SpriteBatch, pending vertices must be flushed when texture changes
+		if (texture != lastTexture) {
+			flush();
+			lastTexture = texture;
+		}
+
+		draws++;
+		pendingVertices += vertexCount;
+	}
+
+	public void begin () {
+		if (drawing) throw new IllegalStateException("RecordingBatch.end must be called before begin.");
+		drawing = true;
+	}
+
+	public void end () {
+		if (drawing == false) throw new IllegalStateException("RecordingBatch.begin must be called before end.");
+		flush();
+		drawing = false;
+		lastTexture = null;
+	}
+
+	public void setColor (Color tint) {
+		color.set(tint);
+	}
+
+	public void setColor (float r, float g, float b, float a) {
+		color.set(r, g, b, a);
+	}
+
+	public void setColor (float packedColor) {
+		int intBits = NumberUtils.floatToIntColor(packedColor);
+		color.r = (intBits & 0xff) / 255f;
+		color.g = ((intBits >>> 8) & 0xff) / 255f;
+		color.b = ((intBits >>> 16) & 0xff) / 255f;
+		color.a = ((intBits >>> 24) & 0xff) / 255f;
+	}
+
+	public Color getColor () {
+		return color;
+	}
+
+	public float getPackedColor () {
+		return color.toFloatBits();
+	}
+
+	public void draw (Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+		recordDraw(texture, 20);
+	}
+
+	public void draw (Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+		recordDraw(texture, 20);
+	}
+
+	public void draw (Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+		recordDraw(texture, 20);
+	}
+
+	public void draw (Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+		recordDraw(texture, 20);
+	}
+
+	public void draw (Texture texture, float x, float y) {
+		recordDraw(texture, 20);
+	}
+
+	public void draw (Texture texture, float x, float y, float width, float height) {
+		recordDraw(texture, 20);
+	}
+
+	public void draw (Texture texture, float[] spriteVertices, int offset, int count) {
+		recordDraw(texture, count);
+		vertices.addAll(spriteVertices, offset, count);
+	}
+
+	public void draw (TextureRegion region, float x, float y) {
+		recordDraw(region.getTexture(), 20);
+	}
+
+	public void draw (TextureRegion region, float x, float y, float width, float height) {
+		recordDraw(region.getTexture(), 20);
+	}
+
+	public void draw (TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+		recordDraw(region.getTexture(), 20);
+	}
+
+	public void draw (TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+		recordDraw(region.getTexture(), 20);
+	}
+
+	public void draw (TextureRegion region, float width, float height, Affine2 transform) {
+		recordDraw(region.getTexture(), 20);
+	}
+
+	public void flush () {
+		if (pendingVertices == 0) return;
+		pendingVertices = 0;
+		flushes++;
+	}
+
+	public void disableBlending () {
+		flush();
+		blending = false;
+	}
+
+	public void enableBlending () {
+		flush();
+		blending = true;
+	}
+
+	public void setBlendFunction (int srcFunc, int dstFunc) {
+		flush();
+	}
+
+	public void setBlendFunctionSeparate (int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+		flush();
+	}
+
+	public int getBlendSrcFunc () {
+		return GL20.GL_SRC_ALPHA;
+	}
+
+	public int getBlendDstFunc () {
+		return GL20.GL_ONE_MINUS_SRC_ALPHA;
+	}
+
+	public int getBlendSrcFuncAlpha () {
+		return GL20.GL_SRC_ALPHA;
+	}
+
+	public int getBlendDstFuncAlpha () {
+		return GL20.GL_ONE_MINUS_SRC_ALPHA;
+	}
+
+	public Matrix4 getProjectionMatrix () {
+		return projection;
+	}
+
+	public Matrix4 getTransformMatrix () {
+		return transform;
+	}
+
+	public void setProjectionMatrix (Matrix4 projection) {
+		if (drawing) flush();
+		this.projection.set(projection);
+	}
+
+	public void setTransformMatrix (Matrix4 transform) {
+		if (drawing) flush();
+		this.transform.set(transform);
+	}
+
+	public void setShader (ShaderProgram shader) {
+		if (drawing) flush();
+		if (this.shader != shader) shaderChanges++;
+		this.shader = shader;
+	}
+
+	public ShaderProgram getShader () {
+		return shader;
+	}
+
+	public boolean isBlendingEnabled () {
+		return blending;
+	}
+
+	public boolean isDrawing () {
+		return drawing;
+	}
+
+	public void dispose () {
+	}
+}
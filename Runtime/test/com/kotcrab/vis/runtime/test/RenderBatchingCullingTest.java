@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.kotcrab.vis.runtime.component.TextComponent;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static com.kotcrab.vis.runtime.test.RenderTestEngine.SCREEN_LAYER;
+import static com.kotcrab.vis.runtime.test.RenderTestEngine.WORLD_LAYER;
+import static org.junit.Assert.assertEquals;
+
+public class RenderBatchingCullingTest {
+	private static BitmapFont font;
+
+	private RenderTestEngine testEngine;
+
+	@BeforeClass
+	public static void setUpClass () {
+		HeadlessGdx.init();
+		font = HeadlessGdx.createFont();
+	}
+
+	@Before
+	public void setUp () {
+		testEngine = new RenderTestEngine();
+	}
+
+	@Test
+	public void testSpritesOutsideViewAreCulled () throws Exception {
+		testEngine.createSprite(10, 10, 10, 10, WORLD_LAYER, 0);
+		testEngine.createSprite(95, 95, 10, 10, WORLD_LAYER, 0); //partially visible
+		testEngine.createSprite(200, 200, 10, 10, WORLD_LAYER, 0);
+		testEngine.createSprite(-50, 10, 10, 10, WORLD_LAYER, 0);
+
+		testEngine.render();
+
+		assertEquals(2, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(2, testEngine.batchingSystem.getCulledCount());
+		assertEquals(2, testEngine.batch.draws);
+	}
+
+	@Test
+	public void testCullingFollowsCamera () throws Exception {
+		testEngine.createSprite(10, 10, 10, 10, WORLD_LAYER, 0);
+		testEngine.createSprite(200, 200, 10, 10, WORLD_LAYER, 0);
+
+		testEngine.cameraManager.getCamera().position.set(200, 200, 0);
+		testEngine.render();
+
+		assertEquals(1, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(1, testEngine.batchingSystem.getCulledCount());
+
+		testEngine.cameraManager.getCamera().zoom = 10;
+		testEngine.render();
+
+		assertEquals(2, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(0, testEngine.batchingSystem.getCulledCount());
+	}
+
+	@Test
+	public void testScreenLayerUsesUiCamera () throws Exception {
+		testEngine.createSprite(10, 10, 10, 10, SCREEN_LAYER, 0);
+		testEngine.createSprite(10, 10, 10, 10, WORLD_LAYER, 0);
+
+		testEngine.cameraManager.getCamera().position.set(500, 500, 0);
+		testEngine.render();
+
+		assertEquals(1, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(1, testEngine.batchingSystem.getCulledCount());
+	}
+
+	@Test
+	public void testCullingDisabled () throws Exception {
+		testEngine.createSprite(10, 10, 10, 10, WORLD_LAYER, 0);
+		testEngine.createSprite(200, 200, 10, 10, WORLD_LAYER, 0);
+
+		testEngine.batchingSystem.setCullingEnabled(false);
+		testEngine.render();
+
+		assertEquals(2, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(0, testEngine.batchingSystem.getCulledCount());
+		assertEquals(2, testEngine.batch.draws);
+	}
+
+	@Test
+	public void testTextsOutsideViewAreCulled () throws Exception {
+		testEngine.createText(font, "Visible", 10, 50, WORLD_LAYER, 0);
+		testEngine.createText(font, "Hidden", 300, 50, WORLD_LAYER, 0);
+		testEngine.createText(font, "Partial", 90, 50, WORLD_LAYER, 0);
+
+		testEngine.render();
+
+		assertEquals(2, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(1, testEngine.batchingSystem.getCulledCount());
+	}
+
+	@Test
+	public void testMovedTextIsCulled () throws Exception {
+		Entity entity = testEngine.createText(font, "Text", 10, 50, WORLD_LAYER, 0);
+
+		testEngine.render();
+		assertEquals(1, testEngine.batchingSystem.getRenderedCount());
+
+		entity.getComponent(TextComponent.class).setPosition(300, 50);
+		testEngine.render();
+		assertEquals(0, testEngine.batchingSystem.getRenderedCount());
+		assertEquals(1, testEngine.batchingSystem.getCulledCount());
+	}
+}
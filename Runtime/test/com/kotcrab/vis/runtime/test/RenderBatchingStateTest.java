@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.kotcrab.vis.runtime.component.TextComponent;
+import com.kotcrab.vis.runtime.component.ShaderComponent;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static com.kotcrab.vis.runtime.test.RenderTestEngine.SCREEN_LAYER;
+import static com.kotcrab.vis.runtime.test.RenderTestEngine.WORLD_LAYER;
+import static org.junit.Assert.assertEquals;
+
+public class RenderBatchingStateTest {
+	private static ShaderProgram shaderA;
+	private static ShaderProgram shaderB;
+	private static ShaderProgram distanceFieldShader;
+	private static BitmapFont font;
+
+	private RenderTestEngine testEngine;
+
+	@BeforeClass
+	public static void setUpClass () {
+		HeadlessGdx.init();
+		shaderA = new ShaderProgram("vertexA", "fragmentA");
+		shaderB = new ShaderProgram("vertexB", "fragmentB");
+		distanceFieldShader = new ShaderProgram("vertexDF", "fragmentDF");
+		font = HeadlessGdx.createFont();
+	}
+
+	@Before
+	public void setUp () {
+		testEngine = new RenderTestEngine();
+	}
+
+	@Test
+	public void testNoFlushWithoutStateChanges () throws Exception {
+		for (int i = 0; i < 10; i++)
+			testEngine.createSprite(i * 5, 10, 5, 5, WORLD_LAYER, i);
+
+		testEngine.render();
+
+		assertEquals(10, testEngine.batch.draws);
+		assertEquals(0, testEngine.batchingSystem.getFlushCount());
+		assertEquals(0, testEngine.batch.shaderChanges);
+		assertEquals(1, testEngine.batch.flushes); //only flush from batch end
+	}
+
+	@Test
+	public void testConsecutiveEntitiesShareShader () throws Exception {
+		testEngine.createSprite(0, 10, 5, 5, WORLD_LAYER, 0, new ShaderComponent(null, shaderA));
+		testEngine.createSprite(5, 10, 5, 5, WORLD_LAYER, 1, new ShaderComponent(null, shaderA));
+		testEngine.createSprite(10, 10, 5, 5, WORLD_LAYER, 2, new ShaderComponent(null, shaderB));
+		testEngine.createSprite(15, 10, 5, 5, WORLD_LAYER, 3, new ShaderComponent(null, shaderB));
+
+		testEngine.render();
+
+		//switch to A, switch to B, restore default shader, first shader change happens before anything was drawn
+		assertEquals(2, testEngine.batchingSystem.getFlushCount());
+		assertEquals(3, testEngine.batch.shaderChanges);
+		assertEquals(2, testEngine.batch.flushes);
+	}
+
+	@Test
+	public void testAlternatingShaders () throws Exception {
+		testEngine.createSprite(0, 10, 5, 5, WORLD_LAYER, 0, new ShaderComponent(null, shaderA));
+		testEngine.createSprite(5, 10, 5, 5, WORLD_LAYER, 1);
+		testEngine.createSprite(10, 10, 5, 5, WORLD_LAYER, 2, new ShaderComponent(null, shaderA));
+		testEngine.createSprite(15, 10, 5, 5, WORLD_LAYER, 3, new ShaderComponent(null, shaderB));
+
+		testEngine.render();
+
+		//A, default, A, B, default, switch to A doesn't flush because nothing was drawn yet
+		assertEquals(4, testEngine.batchingSystem.getFlushCount());
+		assertEquals(5, testEngine.batch.shaderChanges);
+	}
+
+	@Test
+	public void testLayerCordsSystemChangeFlushes () throws Exception {
+		testEngine.createSprite(0, 10, 5, 5, WORLD_LAYER, 0);
+		testEngine.createSprite(5, 10, 5, 5, WORLD_LAYER, 1);
+		testEngine.createSprite(10, 10, 5, 5, SCREEN_LAYER, 0);
+		testEngine.createSprite(15, 10, 5, 5, SCREEN_LAYER, 1);
+
+		testEngine.render();
+
+		assertEquals(1, testEngine.batchingSystem.getFlushCount());
+		assertEquals(2, testEngine.batch.flushes); //projection change and batch end
+	}
+
+	@Test
+	public void testCountersAreResetEachFrame () throws Exception {
+		testEngine.createSprite(0, 10, 5, 5, WORLD_LAYER, 0, new ShaderComponent(null, shaderA));
+
+		testEngine.render();
+		assertEquals(1, testEngine.batchingSystem.getFlushCount());
+
+		testEngine.render();
+		assertEquals(1, testEngine.batchingSystem.getFlushCount());
+	}
+
+	@Test
+	public void testTextsWithSameFontRenderedInSingleCall () throws Exception {
+		RenderTestEngine testEngine = new RenderTestEngine(distanceFieldShader);
+		for (int i = 0; i < 20; i++)
+			testEngine.createText(font, "Text" + i, 10, i * 4, WORLD_LAYER, i);
+
+		testEngine.render();
+
+		assertEquals(20, testEngine.batch.draws);
+		assertEquals(0, testEngine.batch.shaderChanges);
+		assertEquals(1, testEngine.batch.flushes);
+	}
+
+	@Test
+	public void testDistanceFieldTextBetweenNormalTexts () throws Exception {
+		RenderTestEngine testEngine = new RenderTestEngine(distanceFieldShader);
+		testEngine.createText(font, "Normal", 10, 10, WORLD_LAYER, 0);
+		testEngine.createText(font, "Normal", 10, 20, WORLD_LAYER, 1);
+		Entity distanceFieldText = testEngine.createText(font, "Distance", 10, 30, WORLD_LAYER, 2);
+		testEngine.createText(font, "Normal", 10, 40, WORLD_LAYER, 3);
+		testEngine.createText(font, "Normal", 10, 50, WORLD_LAYER, 4);
+		distanceFieldText.getComponent(TextComponent.class).setDistanceFieldShaderEnabled(true);
+
+		testEngine.render();
+
+		//switch to distance field shader and back to default shader
+		assertEquals(2, testEngine.batch.shaderChanges);
+		assertEquals(3, testEngine.batch.flushes);
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Component;
+import com.artemis.Entity;
+import com.artemis.EntityEdit;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+import com.kotcrab.vis.runtime.component.LayerComponent;
+import com.kotcrab.vis.runtime.component.RenderableComponent;
+import com.kotcrab.vis.runtime.component.SpriteComponent;
+import com.kotcrab.vis.runtime.component.TextComponent;
+import com.kotcrab.vis.runtime.data.LayerData;
+import com.kotcrab.vis.runtime.scene.LayerCordsSystem;
+import com.kotcrab.vis.runtime.scene.SceneViewport;
+import com.kotcrab.vis.runtime.system.CameraManager;
+import com.kotcrab.vis.runtime.system.LayerManager;
+import com.kotcrab.vis.runtime.system.RenderBatchingSystem;
+import com.kotcrab.vis.runtime.util.ArtemisUtils;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+
+/**
+ * Entity engine with rendering systems set up the same way as in scene, rendering into {@link RecordingBatch}. Camera
+ * views 100x100 units area starting at 0, 0. Layer {@link #WORLD_LAYER} uses world cords system, {@link #SCREEN_LAYER}
+ * uses screen cords system.
+ * @author Kotcrab
+ */
+public class RenderTestEngine {
+	public static final int WORLD_LAYER = 0;
+	public static final int SCREEN_LAYER = 1;
+
+	public final RecordingBatch batch = new RecordingBatch();
+	public final EntityEngine engine;
+	public final RenderBatchingSystem batchingSystem;
+	public final CameraManager cameraManager;
+
+	public RenderTestEngine () {
+		this(null);
+	}
+
+	public RenderTestEngine (ShaderProgram distanceFieldShader) {
+		HeadlessGdx.init();
+
+		Array<LayerData> layers = new Array<LayerData>();
+		layers.add(new LayerData(LayerCordsSystem.WORLD, "World", WORLD_LAYER));
+		layers.add(new LayerData(LayerCordsSystem.SCREEN, "Screen", SCREEN_LAYER));
+
+		EntityEngineConfiguration config = new EntityEngineConfiguration();
+		config.setManager(cameraManager = new CameraManager(SceneViewport.STRETCH, 100, 100, 1));
+		config.setManager(new LayerManager(layers));
+		ArtemisUtils.createCommonSystems(config, batch, distanceFieldShader, false);
+		batchingSystem = config.getSystem(RenderBatchingSystem.class);
+
+		engine = new EntityEngine(config);
+	}
+
+	/** Renders single frame, recorded batch state is reset before rendering */
+	public void render () {
+		batch.reset();
+		engine.process();
+	}
+
+	public Entity createSprite (float x, float y, float width, float height, int layerId, int zIndex, Component... additionalComponents) {
+		Sprite sprite = new Sprite();
+		sprite.setBounds(x, y, width, height);
+		return createEntity(new SpriteComponent(sprite), layerId, zIndex, additionalComponents);
+	}
+
+	public Entity createText (BitmapFont font, String text, float x, float y, int layerId, int zIndex) {
+		TextComponent textComponent = new TextComponent(font, text);
+		textComponent.setPosition(x, y);
+		return createEntity(textComponent, layerId, zIndex);
+	}
+
+	private Entity createEntity (Component renderComponent, int layerId, int zIndex, Component... additionalComponents) {
+		Entity entity = engine.createEntity();
+		EntityEdit edit = entity.edit();
+		edit.add(renderComponent);
+		edit.add(new RenderableComponent(zIndex));
+		edit.add(new LayerComponent(layerId));
+		for (Component component : additionalComponents)
+			edit.add(component);
+		return entity;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Component;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.AbsoluteFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.kotcrab.vis.runtime.RuntimeConfiguration;
+import com.kotcrab.vis.runtime.RuntimeContext;
+import com.kotcrab.vis.runtime.component.IDComponent;
+import com.kotcrab.vis.runtime.component.LayerComponent;
+import com.kotcrab.vis.runtime.component.RenderableComponent;
+import com.kotcrab.vis.runtime.data.EntityData;
+import com.kotcrab.vis.runtime.data.LayerData;
+import com.kotcrab.vis.runtime.data.PhysicsSettings;
+import com.kotcrab.vis.runtime.data.SceneData;
+import com.kotcrab.vis.runtime.plugin.EntitySupport;
+import com.kotcrab.vis.runtime.scene.*;
+import com.kotcrab.vis.runtime.scene.SceneLoader.SceneParameter;
+import com.kotcrab.vis.runtime.system.VisIDManager;
+import com.kotcrab.vis.runtime.util.ImmutableArray;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class SceneIncrementalBuildTest {
+	private static final float EPSILON = 0.0001f;
+
+	@BeforeClass
+	public static void setUpClass () {
+		HeadlessGdx.init();
+	}
+
+	@Test
+	public void testBuildStepCreatesEntitiesInChunks () throws Exception {
+		Scene scene = createScene(100, createParameter(30));
+		VisIDManager idManager = scene.getEntityEngine().getManager(VisIDManager.class);
+
+		assertEquals(0, scene.getBuildProgress(), EPSILON);
+		assertFalse(scene.isInitialized());
+
+		assertFalse(scene.buildStep());
+		assertEquals(0.3f, scene.getBuildProgress(), EPSILON);
+		assertNotNull(idManager.find("entity29"));
+		assertNull(idManager.find("entity30"));
+
+		assertFalse(scene.buildStep());
+		assertEquals(0.6f, scene.getBuildProgress(), EPSILON);
+
+		assertFalse(scene.buildStep());
+		assertEquals(0.9f, scene.getBuildProgress(), EPSILON);
+		assertFalse(scene.isInitialized());
+
+		assertTrue(scene.buildStep());
+		assertEquals(1, scene.getBuildProgress(), EPSILON);
+		assertTrue(scene.isInitialized());
+		assertNotNull(idManager.find("entity99"));
+
+		assertTrue(scene.buildStep());
+	}
+
+	@Test
+	public void testInitBuildsRemainingEntities () throws Exception {
+		Scene scene = createScene(100, createParameter(30));
+
+		scene.buildStep();
+		scene.init();
+
+		assertTrue(scene.isInitialized());
+		assertEquals(1, scene.getBuildProgress(), EPSILON);
+		assertNotNull(scene.getEntityEngine().getManager(VisIDManager.class).find("entity99"));
+	}
+
+	@Test
+	public void testEmptyScene () throws Exception {
+		Scene scene = createScene(0, createParameter(30));
+
+		assertEquals(0, scene.getBuildProgress(), EPSILON);
+		assertTrue(scene.buildStep());
+		assertEquals(1, scene.getBuildProgress(), EPSILON);
+	}
+
+	@Test
+	public void testAssetManagerBuildsSceneIncrementally () throws Exception {
+		FileHandle sceneFile = writeSceneFile(50);
+		try {
+			VisAssetManager manager = new VisAssetManager(new AbsoluteFileHandleResolver(), new RecordingBatch());
+			manager.load(sceneFile.path(), Scene.class, createParameter(10));
+
+			int updates = 0;
+			while (manager.update() == false) updates++;
+
+			Scene scene = manager.get(sceneFile.path(), Scene.class);
+			assertTrue(scene.isInitialized());
+			assertTrue(updates >= 4);
+			manager.dispose();
+		} finally {
+			sceneFile.delete();
+		}
+	}
+
+	@Test
+	public void testUnloadedSceneIsRemovedFromIncrementalBuilds () throws Exception {
+		FileHandle sceneFile = writeSceneFile(100);
+		try {
+			VisAssetManager manager = new VisAssetManager(new AbsoluteFileHandleResolver(), new RecordingBatch());
+			manager.load(sceneFile.path(), Scene.class, createParameter(10));
+
+			while (manager.isLoaded(sceneFile.path()) == false) manager.update();
+			Scene scene = manager.get(sceneFile.path(), Scene.class);
+			float progress = scene.getBuildProgress();
+			assertFalse(scene.isInitialized());
+
+			manager.unload(sceneFile.path());
+
+			assertTrue(manager.getSceneLoader().updateIncrementalBuilds());
+			assertEquals(progress, scene.getBuildProgress(), EPSILON);
+			assertTrue(manager.update());
+			manager.dispose();
+		} finally {
+			sceneFile.delete();
+		}
+	}
+
+	private SceneParameter createParameter (int stepSize) {
+		SceneParameter parameter = new SceneParameter();
+		parameter.incrementalBuild = true;
+		parameter.incrementalBuildStepSize = stepSize;
+		return parameter;
+	}
+
+	private Scene createScene (int entityCount, SceneParameter parameter) {
+		RuntimeContext context = new RuntimeContext(new RuntimeConfiguration(), new RecordingBatch(), new AssetManager(),
+				new ImmutableArray<EntitySupport>(new Array<EntitySupport>()));
+		return new Scene(context, createSceneData(entityCount), parameter);
+	}
+
+	private FileHandle writeSceneFile (int entityCount) throws Exception {
+		FileHandle file = new FileHandle(File.createTempFile("scene", ".scene"));
+		file.writeString(SceneLoader.getJson().toJson(createSceneData(entityCount), SceneData.class), false);
+		return file;
+	}
+
+	private SceneData createSceneData (int entityCount) {
+		SceneData sceneData = new SceneData();
+		sceneData.viewport = SceneViewport.STRETCH;
+		sceneData.width = 100;
+		sceneData.height = 100;
+		sceneData.pixelsPerUnit = 1;
+		sceneData.physicsSettings = new PhysicsSettings();
+		sceneData.groupIds = new IntMap<String>();
+		sceneData.layers.add(new LayerData(LayerCordsSystem.WORLD, "Default", 0));
+
+		for (int i = 0; i < entityCount; i++) {
+			Array<Component> components = new Array<Component>();
+			components.add(new IDComponent("entity" + i));
+			components.add(new LayerComponent(0));
+			components.add(new RenderableComponent(i));
+			sceneData.entities.add(new EntityData(components));
+		}
+
+		return sceneData;
+	}
+}
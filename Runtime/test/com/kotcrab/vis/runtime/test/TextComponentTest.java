@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.kotcrab.vis.runtime.component.TextComponent;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+public class TextComponentTest {
+	private static final float EPSILON = 0.0001f;
+	/** Count of floats used by single glyph in font cache, 4 vertices each storing x, y, color, u, v */
+	private static final int GLYPH_SIZE = 20;
+
+	private static BitmapFont font;
+	private static BitmapFont markupFont;
+
+	private RecordingBatch batch;
+
+	@BeforeClass
+	public static void setUpClass () {
+		HeadlessGdx.init();
+		font = HeadlessGdx.createFont();
+		markupFont = HeadlessGdx.createFont();
+		markupFont.getData().markupEnabled = true;
+	}
+
+	@Before
+	public void setUp () {
+		batch = new RecordingBatch();
+	}
+
+	@Test
+	public void testBoundsFollowPosition () throws Exception {
+		TextComponent text = new TextComponent(font, "AB");
+		Rectangle bounds = text.getBoundingRectangle();
+		float x = bounds.x;
+		float y = bounds.y;
+		float width = bounds.width;
+
+		text.setPosition(10, 20);
+
+		Rectangle newBounds = text.getBoundingRectangle();
+		assertSame(bounds, newBounds);
+		assertEquals(x + 10, newBounds.x, EPSILON);
+		assertEquals(y + 20, newBounds.y, EPSILON);
+		assertEquals(width, newBounds.width, EPSILON);
+	}
+
+	@Test
+	public void testBoundsFollowScaleAndRotation () throws Exception {
+		TextComponent text = new TextComponent(font, "ABCD");
+		float width = text.getWidth();
+		float height = text.getHeight();
+		assertTrue(width > height);
+
+		text.setScale(2);
+		assertEquals(width * 2, text.getWidth(), EPSILON);
+		assertEquals(height * 2, text.getHeight(), EPSILON);
+
+		text.setScale(1);
+		text.setRotation(90);
+		assertEquals(height, text.getWidth(), EPSILON);
+		assertEquals(width, text.getHeight(), EPSILON);
+	}
+
+	@Test
+	public void testBoundsFollowText () throws Exception {
+		TextComponent text = new TextComponent(font, "A");
+		float width = text.getWidth();
+
+		text.setText("AAAA");
+		assertTrue(text.getWidth() > width);
+
+		text.setText("A");
+		assertEquals(width, text.getWidth(), EPSILON);
+	}
+
+	@Test
+	public void testColorChangeDoesNotAffectBounds () throws Exception {
+		TextComponent text = new TextComponent(font, "AB");
+		Rectangle bounds = new Rectangle(text.getBoundingRectangle());
+
+		text.setColor(Color.RED);
+
+		assertEquals(bounds, text.getBoundingRectangle());
+	}
+
+	@Test
+	public void testVerticesFollowTransform () throws Exception {
+		TextComponent text = new TextComponent(font, "AB");
+		text.draw(batch);
+		float x = batch.vertices.get(0);
+		float y = batch.vertices.get(1);
+
+		text.draw(batch);
+		assertEquals(x, batch.vertices.get(2 * GLYPH_SIZE), EPSILON);
+
+		batch.reset();
+		text.setPosition(text.getX() + 10, text.getY() + 5);
+		text.draw(batch);
+		assertEquals(x + 10, batch.vertices.get(0), EPSILON);
+		assertEquals(y + 5, batch.vertices.get(1), EPSILON);
+	}
+
+	@Test
+	public void testVerticesFollowColor () throws Exception {
+		TextComponent text = new TextComponent(font, "AB");
+		text.draw(batch);
+		assertEquals(Color.WHITE.toFloatBits(), batch.vertices.get(2), 0);
+
+		batch.reset();
+		text.setColor(Color.RED);
+		text.draw(batch);
+		assertEquals(Color.RED.toFloatBits(), batch.vertices.get(2), 0);
+		assertEquals(Color.RED.toFloatBits(), batch.vertices.get(GLYPH_SIZE + 2), 0);
+	}
+
+	@Test
+	public void testSetColorPreservesMarkupColors () throws Exception {
+		TextComponent text = new TextComponent(markupFont, "[RED]A[]B");
+
+		text.setColor(Color.GREEN);
+		text.draw(batch);
+
+		assertEquals(2 * GLYPH_SIZE, batch.vertices.size);
+		assertEquals(Color.RED.toFloatBits(), batch.vertices.get(2), 0);
+		assertEquals(Color.GREEN.toFloatBits(), batch.vertices.get(GLYPH_SIZE + 2), 0);
+	}
+
+	@Test
+	public void testCacheAccessInvalidatesVertices () throws Exception {
+		TextComponent text = new TextComponent(font, "AB");
+		text.draw(batch);
+
+		batch.reset();
+		text.getCache().setColors(Color.BLUE);
+		text.draw(batch);
+
+		assertEquals(Color.BLUE.toFloatBits(), batch.vertices.get(2), 0);
+	}
+
+	@Test
+	public void testSettersDoNotAllocate () throws Exception {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean == false)
+			fail("Can't count allocations, com.sun.management.ThreadMXBean is not available on this JVM");
+
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		if (allocationBean.isThreadAllocatedMemorySupported() == false)
+			fail("Can't count allocations, thread allocated memory measurement is not supported by this JVM");
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+		TextComponent text = new TextComponent(font, "Allocations");
+		Color color = new Color();
+
+		//warmup, creates bounds polygon and lets JIT compile setters
+		for (int i = 0; i < 20000; i++)
+			updateText(text, color, i);
+
+		long threadId = Thread.currentThread().getId();
+		//measuring itself may allocate, measure that overhead first
+		long overheadStart = allocationBean.getThreadAllocatedBytes(threadId);
+		long overheadEnd = allocationBean.getThreadAllocatedBytes(threadId);
+		long overhead = overheadEnd - overheadStart;
+
+		long start = allocationBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 100000; i++)
+			updateText(text, color, i);
+		long end = allocationBean.getThreadAllocatedBytes(threadId);
+
+		assertEquals("TextComponent setters allocated memory in steady state", 0, end - start - overhead);
+	}
+
+	private void updateText (TextComponent text, Color color, int i) {
+		text.setPosition(i % 100, i % 50);
+		text.setRotation(i % 360);
+		text.setScale(1 + i % 3);
+		color.set((i % 255) / 255f, 0.5f, 0.25f, 1);
+		text.setColor(color);
+		text.getBoundingRectangle();
+	}
+}
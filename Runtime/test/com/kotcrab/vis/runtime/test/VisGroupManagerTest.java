@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.kotcrab.vis.runtime.component.GroupComponent;
+import com.kotcrab.vis.runtime.system.VisGroupManager;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+import com.kotcrab.vis.runtime.util.ImmutableArray;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** @author Kotcrab */
+public class VisGroupManagerTest {
+	private static final int PLAYERS = 0;
+	private static final int ENEMIES = 1;
+	private static final int UNUSED = 2;
+
+	private EntityEngine engine;
+	private VisGroupManager groupManager;
+
+	@Before
+	public void setUp () {
+		IntMap<String> groupIds = new IntMap<String>();
+		groupIds.put(PLAYERS, "players");
+		groupIds.put(ENEMIES, "enemies");
+		groupIds.put(UNUSED, "unused");
+
+		EntityEngineConfiguration config = new EntityEngineConfiguration();
+		config.setManager(groupManager = new VisGroupManager(groupIds));
+		engine = new EntityEngine(config);
+	}
+
+	@Test
+	public void testViewUpdated () {
+		add(PLAYERS);
+		engine.process();
+
+		ImmutableArray<Entity> view = groupManager.getView("players");
+		assertEquals(1, view.size());
+
+		Entity second = add(PLAYERS, ENEMIES);
+		engine.process();
+		assertEquals(2, view.size());
+		assertSame(view, groupManager.getView(PLAYERS));
+		assertEquals(1, groupManager.getView("enemies").size());
+
+		second.deleteFromWorld();
+		engine.process();
+		assertEquals(1, view.size());
+		assertEquals(0, groupManager.getView(ENEMIES).size());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testUnknownGroupReturnsSharedEmptyView () {
+		ImmutableArray<Entity> view = groupManager.getView(UNUSED);
+		assertEquals(0, view.size());
+		assertSame(view, groupManager.getView(100));
+
+		//querying group must not create it, deprecated API still reports it as missing
+		assertNull(groupManager.get(UNUSED));
+		assertNull(groupManager.get(100));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedGet () {
+		Entity entity = add(ENEMIES);
+		engine.process();
+
+		Array<Entity> entities = groupManager.get("enemies");
+		assertEquals(1, entities.size);
+		assertSame(entity, entities.first());
+		assertSame(entities, groupManager.get(ENEMIES));
+
+		//group that became empty is reported as missing, same as before views were added
+		entity.deleteFromWorld();
+		engine.process();
+		assertNull(groupManager.get(ENEMIES));
+		assertNull(groupManager.get("enemies"));
+	}
+
+	@Test
+	public void testUnionAndIntersectionWithUnknownGroup () {
+		add(PLAYERS);
+		add(PLAYERS, ENEMIES);
+		engine.process();
+
+		assertEquals(2, groupManager.getUnion(ids(PLAYERS, ENEMIES, UNUSED), new Array<Entity>()).size);
+		assertEquals(1, groupManager.getIntersection(ids(PLAYERS, ENEMIES), new Array<Entity>()).size);
+		assertEquals(0, groupManager.getIntersection(ids(PLAYERS, UNUSED), new Array<Entity>()).size);
+		assertSame(groupManager.getView(100), groupManager.getView(UNUSED));
+	}
+
+	private IntArray ids (int... ids) {
+		return new IntArray(ids);
+	}
+
+	private Entity add (int... groups) {
+		GroupComponent component = new GroupComponent();
+		component.groupIds.addAll(groups);
+
+		Entity entity = engine.createEntity();
+		entity.edit().add(component);
+		return entity;
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014-2015 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.kotcrab.vis.runtime.test;
+
+import com.artemis.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.kotcrab.vis.runtime.component.IDComponent;
+import com.kotcrab.vis.runtime.system.VisIDManager;
+import com.kotcrab.vis.runtime.util.EntityEngine;
+import com.kotcrab.vis.runtime.util.EntityEngineConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link VisIDManager#getByPrefix(String, Array)} against brute force search after entities were added and removed.
+ * @author Kotcrab
+ */
+public class VisIDManagerTest {
+	private static final String[] PREFIXES = {"", "a", "ab", "abc", "b", "ba", "c", "z"};
+
+	private EntityEngine engine;
+	private VisIDManager idManager;
+	private Array<Entity> entities = new Array<Entity>();
+
+	@Before
+	public void setUp () {
+		EntityEngineConfiguration config = new EntityEngineConfiguration();
+		config.setManager(idManager = new VisIDManager());
+		engine = new EntityEngine(config);
+	}
+
+	@Test
+	public void testPrefixQuery () {
+		add("player");
+		add("enemy1");
+		add("enemy2");
+		add("enemy2");
+		add("enemy");
+		add("wall");
+		engine.process();
+
+		assertEquals(4, idManager.getByPrefix("enemy", new Array<Entity>()).size);
+		assertEquals(2, idManager.getByPrefix("enemy2", new Array<Entity>()).size);
+		assertEquals(1, idManager.getByPrefix("p", new Array<Entity>()).size);
+		assertEquals(0, idManager.getByPrefix("x", new Array<Entity>()).size);
+		assertEquals(6, idManager.getByPrefix("", new Array<Entity>()).size);
+	}
+
+	@Test
+	public void testResultNotCleared () {
+		add("a");
+		engine.process();
+
+		Array<Entity> result = new Array<Entity>();
+		idManager.getByPrefix("a", result);
+		idManager.getByPrefix("a", result);
+		assertEquals(2, result.size);
+	}
+
+	@Test
+	public void testQueriesBetweenChanges () {
+		Random random = new Random(1);
+
+		for (int round = 0; round < 50; round++) {
+			for (int i = 0; i < 20; i++)
+				add(randomId(random));
+
+			for (int i = 0; i < 10 && entities.size > 0; i++)
+				entities.removeIndex(random.nextInt(entities.size)).deleteFromWorld();
+
+			engine.process();
+
+			for (String prefix : PREFIXES)
+				assertEquals("prefix: " + prefix, bruteForceCount(prefix), idManager.getByPrefix(prefix, new Array<Entity>()).size);
+		}
+	}
+
+	private String randomId (Random random) {
+		StringBuilder builder = new StringBuilder();
+		int length = 1 + random.nextInt(4);
+		for (int i = 0; i < length; i++)
+			builder.append((char) ('a' + random.nextInt(3)));
+		return builder.toString();
+	}
+
+	private int bruteForceCount (String prefix) {
+		int count = 0;
+		for (Entity entity : entities) {
+			if (entity.getComponent(IDComponent.class).id.startsWith(prefix)) count++;
+		}
+		return count;
+	}
+
+	private void add (String id) {
+		Entity entity = engine.createEntity();
+		entity.edit().add(new IDComponent(id));
+		entities.add(entity);
+	}
+}